@@ -0,0 +1,74 @@
+package com.mariuszilinskas.vsp.authservice.benchmark;
+
+import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
+import com.mariuszilinskas.vsp.authservice.service.AccessTokenMinter;
+import com.mariuszilinskas.vsp.authservice.service.JwtKeyRing;
+import com.mariuszilinskas.vsp.authservice.service.TokenLifetimePolicy;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.TestUtils;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares access token minting through the generic jjwt builder with the specialised {@link AccessTokenMinter}.
+ * Run with {@code ./gradlew jmh}; the gc profiler reports allocated bytes per token.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenMintingBenchmark {
+
+    private JwtKeyRing jwtKeyRing;
+    private AccessTokenMinter accessTokenMinter;
+    private final TokenLifetimePolicy tokenLifetimePolicy = new TokenLifetimePolicy(0.1, 0.05, 0.8);
+    private AuthDetails authDetails;
+    private final UUID jwtId = UUID.randomUUID();
+
+    @Setup
+    public void setup() {
+        jwtKeyRing = new JwtKeyRing(JwtSigningAlgorithm.HS384,
+                TestUtils.secretKey, "", "", "primary", "", TestUtils.secretKey, "primary", "");
+        accessTokenMinter = new AccessTokenMinter(jwtKeyRing, AccessTokenProfile.STANDARD);
+        authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+    }
+
+    @Benchmark
+    public String jjwtBuilder() {
+        TokenLifetime lifetime = tokenLifetimePolicy.accessTokenLifetime(System.currentTimeMillis());
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getKeyId(AuthUtils.ACCESS_TOKEN_NAME))
+                .setSubject(authDetails.userId().toString())
+                .setIssuedAt(new Date(lifetime.issuedAtMillis()))
+                .setExpiration(new Date(lifetime.expiresAtMillis()))
+                .setId(jwtId.toString())
+                .claim(AuthUtils.REFRESH_AFTER_CLAIM, lifetime.refreshAfterMillis() / 1000)
+                .claim("roles", authDetails.roles().stream().map(Object::toString).toList())
+                .claim("authorities", authDetails.authorities().stream().map(Object::toString).toList())
+                .signWith(jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME))
+                .compact();
+    }
+
+    @Benchmark
+    public String accessTokenMinter() {
+        return accessTokenMinter.mint(authDetails, jwtId, tokenLifetimePolicy.accessTokenLifetime(System.currentTimeMillis()));
+    }
+
+}
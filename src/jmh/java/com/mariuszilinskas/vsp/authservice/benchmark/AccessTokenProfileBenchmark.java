@@ -0,0 +1,69 @@
+package com.mariuszilinskas.vsp.authservice.benchmark;
+
+import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
+import com.mariuszilinskas.vsp.authservice.service.AccessTokenDenylist;
+import com.mariuszilinskas.vsp.authservice.service.AccessTokenMinter;
+import com.mariuszilinskas.vsp.authservice.service.JwtKeyRing;
+import com.mariuszilinskas.vsp.authservice.service.JwtServiceImpl;
+import com.mariuszilinskas.vsp.authservice.service.TokenLifetimePolicy;
+import com.mariuszilinskas.vsp.authservice.util.TestUtils;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares the standard and compact access token profiles: the size of each token is printed
+ * during setup, and the benchmarks measure minting and full validation (signature plus claims decoding).
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class AccessTokenProfileBenchmark {
+
+    @Param({"STANDARD", "COMPACT"})
+    private AccessTokenProfile profile;
+
+    private final TokenLifetimePolicy tokenLifetimePolicy = new TokenLifetimePolicy(0.1, 0.05, 0.8);
+    private AccessTokenMinter accessTokenMinter;
+    private JwtServiceImpl jwtService;
+    private AuthDetails authDetails;
+    private String token;
+
+    @Setup
+    public void setup() {
+        JwtKeyRing jwtKeyRing = new JwtKeyRing(JwtSigningAlgorithm.HS384,
+                TestUtils.secretKey, "", "", "primary", "", TestUtils.secretKey, "primary", "");
+        accessTokenMinter = new AccessTokenMinter(jwtKeyRing, profile);
+        jwtService = new JwtServiceImpl(jwtKeyRing, accessTokenMinter, tokenLifetimePolicy, null,
+                new AccessTokenDenylist(1000), null);
+        authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+        token = mint();
+        System.out.printf("%n%s access token: %d bytes%n", profile, token.length());
+    }
+
+    @Benchmark
+    public String mint() {
+        return accessTokenMinter.mint(authDetails, UUID.randomUUID(),
+                tokenLifetimePolicy.accessTokenLifetime(System.currentTimeMillis()));
+    }
+
+    @Benchmark
+    public VerifiedToken validate() {
+        return jwtService.validateAccessToken(token);
+    }
+
+}
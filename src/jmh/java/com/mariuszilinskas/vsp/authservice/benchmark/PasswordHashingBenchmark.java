@@ -0,0 +1,46 @@
+package com.mariuszilinskas.vsp.authservice.benchmark;
+
+import com.mariuszilinskas.vsp.authservice.util.PasswordHashCalibrator;
+import org.openjdk.jmh.annotations.*;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures password verify time for each hashing algorithm and cost, to check the configured costs
+ * against the login latency budget. Argon2id uses the default 19 MiB of memory.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 2, time = 2)
+@Measurement(iterations = 3, time = 2)
+@Fork(1)
+public class PasswordHashingBenchmark {
+
+    private static final String PASSWORD = "Password1!";
+
+    @Param({"bcrypt:10", "bcrypt:11", "bcrypt:12", "argon2id:2", "argon2id:3", "argon2id:4"})
+    private String algorithmAndCost;
+
+    private PasswordEncoder encoder;
+    private String hash;
+
+    @Setup
+    public void setup() {
+        String[] parts = algorithmAndCost.split(":");
+        int cost = Integer.parseInt(parts[1]);
+        encoder = "bcrypt".equals(parts[0])
+                ? PasswordHashCalibrator.newBcryptEncoder(cost)
+                : PasswordHashCalibrator.newArgon2Encoder(19456, cost);
+        hash = encoder.encode(PASSWORD);
+    }
+
+    @Benchmark
+    public boolean verify() {
+        return encoder.matches(PASSWORD, hash);
+    }
+
+}
@@ -0,0 +1,69 @@
+package com.mariuszilinskas.vsp.authservice.benchmark;
+
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.service.JwtKeyRing;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.TestUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.security.Keys;
+import org.openjdk.jmh.annotations.*;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares signing and verifying access tokens with HS384 and ES256.
+ * ES256 signatures cost more to produce, but let other services verify tokens without the shared secret.
+ *
+ * @author Marius Zilinskas
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class SigningAlgorithmBenchmark {
+
+    @Param({"HS384", "ES256"})
+    private JwtSigningAlgorithm algorithm;
+
+    private JwtKeyRing jwtKeyRing;
+    private String token;
+
+    @Setup
+    public void setup() {
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        Base64.Encoder encoder = Base64.getEncoder();
+        jwtKeyRing = new JwtKeyRing(algorithm,
+                TestUtils.secretKey,
+                encoder.encodeToString(keyPair.getPrivate().getEncoded()),
+                encoder.encodeToString(keyPair.getPublic().getEncoded()),
+                "primary", "", TestUtils.secretKey, "primary", "");
+        token = sign();
+    }
+
+    @Benchmark
+    public String sign() {
+        long now = System.currentTimeMillis();
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getKeyId(AuthUtils.ACCESS_TOKEN_NAME))
+                .setSubject(TestUtils.userId.toString())
+                .setIssuedAt(new Date(now))
+                .setExpiration(new Date(now + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS))
+                .signWith(jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME),
+                        jwtKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME))
+                .compact();
+    }
+
+    @Benchmark
+    public Claims verify() {
+        return jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token).getBody();
+    }
+
+}
@@ -0,0 +1,33 @@
+package com.mariuszilinskas.vsp.authservice.actuator;
+
+import com.mariuszilinskas.vsp.authservice.dto.HeavyHitter;
+import com.mariuszilinskas.vsp.authservice.enums.LoginFailureDimension;
+import com.mariuszilinskas.vsp.authservice.service.CredentialStuffingDetector;
+import lombok.RequiredArgsConstructor;
+import org.springframework.boot.actuate.endpoint.annotation.Endpoint;
+import org.springframework.boot.actuate.endpoint.annotation.ReadOperation;
+import org.springframework.stereotype.Component;
+
+import java.util.List;
+import java.util.Map;
+
+/**
+ * GET /actuator/heavyhitters : Lists the IP prefixes, emails and user agents with the most
+ * failed logins in the current window, and whether their logins are being rejected. Emails are masked.
+ * Not exposed over the web by default.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@Endpoint(id = "heavyhitters")
+@RequiredArgsConstructor
+public class HeavyHittersEndpoint {
+
+    private final CredentialStuffingDetector credentialStuffingDetector;
+
+    @ReadOperation
+    public Map<LoginFailureDimension, List<HeavyHitter>> heavyHitters() {
+        return credentialStuffingDetector.getHeavyHitters();
+    }
+
+}
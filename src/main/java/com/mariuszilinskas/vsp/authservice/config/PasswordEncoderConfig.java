@@ -1,15 +1,86 @@
 package com.mariuszilinskas.vsp.authservice.config;
 
+import com.mariuszilinskas.vsp.authservice.enums.PasswordHashAlgorithm;
+import com.mariuszilinskas.vsp.authservice.service.BoundedPasswordEncoder;
+import com.mariuszilinskas.vsp.authservice.util.PasswordHashCalibrator;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.DelegatingPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.Map;
 
 @Configuration
 public class PasswordEncoderConfig {
 
+    private static final Logger logger = LoggerFactory.getLogger(PasswordEncoderConfig.class);
+
+    @Value("${app.passwordHashAlgorithm:BCRYPT}")
+    private PasswordHashAlgorithm algorithm;
+
+    @Value("${app.passwordHashCalibrate:false}")
+    private boolean calibrate;
+
+    @Value("${app.passwordHashTargetMillis:250}")
+    private long targetMillis;
+
+    @Value("${app.passwordHashBcryptStrength:10}")
+    private int bcryptStrength;
+
+    @Value("${app.passwordHashArgon2MemoryKib:19456}")
+    private int argon2MemoryKib;
+
+    @Value("${app.passwordHashArgon2Iterations:2}")
+    private int argon2Iterations;
+
+    /**
+     * Hashing runs on its own pool, sized to leave CPUs free for the rest of the service by default.
+     */
     @Bean
-    public BCryptPasswordEncoder passwordEncoder() {
-        return new BCryptPasswordEncoder();
+    public PasswordEncoder passwordEncoder(
+            MeterRegistry meterRegistry,
+            @Value("${app.passwordHashingThreads:0}") int threads,
+            @Value("${app.passwordHashingQueueCapacity:64}") int queueCapacity,
+            @Value("${app.passwordHashingMaxQueueWaitMillis:2000}") long maxQueueWaitMillis
+    ) {
+        if (threads <= 0)
+            threads = Math.max(1, Runtime.getRuntime().availableProcessors() / 2);
+        return new BoundedPasswordEncoder(hashingEncoder(), threads, queueCapacity,
+                Duration.ofMillis(maxQueueWaitMillis), meterRegistry);
+    }
+
+    /**
+     * New hashes use the configured algorithm and are stored with its id as a prefix. Hashes of every known
+     * algorithm keep verifying, and hashes from before prefixes were introduced are plain BCrypt. A hash with
+     * another algorithm or a lower cost than the current one is reported as outdated, so it is redone on login.
+     * With calibration on, the configured costs are the floor, and are raised as far as the target verify time allows.
+     */
+    private PasswordEncoder hashingEncoder() {
+        int strength = bcryptStrength;
+        int iterations = argon2Iterations;
+        if (calibrate) {
+            Duration target = Duration.ofMillis(targetMillis);
+            if (algorithm == PasswordHashAlgorithm.BCRYPT)
+                strength = PasswordHashCalibrator.calibrateBcryptStrength(bcryptStrength, target);
+            else
+                iterations = PasswordHashCalibrator.calibrateArgon2Iterations(argon2Iterations, argon2MemoryKib, target);
+        }
+        logger.info("Hashing passwords with {} [bcryptStrength: {}, argon2MemoryKib: {}, argon2Iterations: {}]",
+                algorithm, strength, argon2MemoryKib, iterations);
+
+        PasswordEncoder bcrypt = PasswordHashCalibrator.newBcryptEncoder(strength);
+        Map<String, PasswordEncoder> encoders = Map.of(
+                PasswordHashAlgorithm.BCRYPT.getId(), bcrypt,
+                PasswordHashAlgorithm.ARGON2ID.getId(), PasswordHashCalibrator.newArgon2Encoder(argon2MemoryKib, iterations)
+        );
+        DelegatingPasswordEncoder encoder = new DelegatingPasswordEncoder(algorithm.getId(), encoders);
+        encoder.setDefaultPasswordEncoderForMatches(bcrypt);
+        return encoder;
     }
 
 }
@@ -1,11 +1,13 @@
 package com.mariuszilinskas.vsp.authservice.config;
 
 import org.springframework.amqp.core.*;
+import org.springframework.amqp.rabbit.config.SimpleRabbitListenerContainerFactory;
 import org.springframework.amqp.rabbit.connection.ConnectionFactory;
 import org.springframework.amqp.rabbit.core.RabbitTemplate;
 import org.springframework.amqp.support.converter.Jackson2JsonMessageConverter;
 import org.springframework.amqp.support.converter.MessageConverter;
 import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.amqp.SimpleRabbitListenerContainerFactoryConfigurer;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -33,6 +35,12 @@ public class RabbitMQConfig {
     @Value("${rabbitmq.routing-keys.delete-user-data}")
     private String deleteUserDataRoutingKey;
 
+    @Value("${rabbitmq.routing-keys.revoke-access-token}")
+    private String revokeAccessTokenRoutingKey;
+
+    @Value("${app.deleteUserDataBatchSize:100}")
+    private int deleteUserDataBatchSize;
+
     @Bean
     public DirectExchange exchange() {
         return new DirectExchange(exchange);
@@ -74,6 +82,42 @@ public class RabbitMQConfig {
                 .with(deleteUserDataRoutingKey);
     }
 
+    /**
+     * Every instance keeps its own access token denylist, so each one consumes revocations from
+     * a private, auto-deleted queue instead of competing for messages on a shared one.
+     */
+    @Bean
+    public Queue revokeAccessTokenQueue() {
+        return new AnonymousQueue();
+    }
+
+    @Bean
+    public Binding revokeAccessTokenBinding() {
+        return BindingBuilder.bind(revokeAccessTokenQueue())
+                .to(exchange())
+                .with(revokeAccessTokenRoutingKey);
+    }
+
+    /**
+     * Listener container that hands a listener up to {@code deleteUserDataBatchSize} messages at a time,
+     * so they are processed in one transaction and acknowledged together.
+     * A batch is delivered early when the queue runs dry, so a quiet queue adds no delay.
+     */
+    @Bean
+    public SimpleRabbitListenerContainerFactory batchListenerContainerFactory(
+            SimpleRabbitListenerContainerFactoryConfigurer configurer,
+            ConnectionFactory connectionFactory
+    ) {
+        SimpleRabbitListenerContainerFactory factory = new SimpleRabbitListenerContainerFactory();
+        configurer.configure(factory, connectionFactory);
+        factory.setBatchListener(true);
+        factory.setConsumerBatchEnabled(true);
+        factory.setBatchSize(deleteUserDataBatchSize);
+        factory.setPrefetchCount(deleteUserDataBatchSize);
+        factory.setReceiveTimeout(1000L);
+        return factory;
+    }
+
     @Bean
     public AmqpTemplate amqpTemplate(ConnectionFactory connectionFactory) {
         RabbitTemplate rabbitTemplate = new RabbitTemplate(connectionFactory);
@@ -1,6 +1,7 @@
 package com.mariuszilinskas.vsp.authservice.consumer;
 
 import com.mariuszilinskas.vsp.authservice.dto.CredentialsRequest;
+import com.mariuszilinskas.vsp.authservice.service.AccessTokenDenylist;
 import com.mariuszilinskas.vsp.authservice.service.DataDeletionService;
 import com.mariuszilinskas.vsp.authservice.service.PasscodeService;
 import com.mariuszilinskas.vsp.authservice.service.PasswordService;
@@ -10,6 +11,7 @@ import org.slf4j.LoggerFactory;
 import org.springframework.amqp.rabbit.annotation.RabbitListener;
 import org.springframework.stereotype.Service;
 
+import java.util.List;
 import java.util.UUID;
 
 @Service
@@ -20,6 +22,7 @@ public class RabbitMQConsumer {
     private final PasscodeService passcodeService;
     private final PasswordService passwordService;
     private final DataDeletionService dataDeletionService;
+    private final AccessTokenDenylist accessTokenDenylist;
 
 
     @RabbitListener(queues = "${rabbitmq.queues.create-credentials}")
@@ -35,10 +38,16 @@ public class RabbitMQConsumer {
         passcodeService.resetPasscode(userId);
     }
 
-    @RabbitListener(queues = "${rabbitmq.queues.delete-user-data}")
-    public void consumeDeleteUserDataMessage(UUID userId) {
-        logger.info("Received request to delete user data for User [userId: {}]", userId);
-        dataDeletionService.deleteUserAuthData(userId);
+    @RabbitListener(queues = "${rabbitmq.queues.delete-user-data}", containerFactory = "batchListenerContainerFactory")
+    public void consumeDeleteUserDataMessages(List<UUID> userIds) {
+        logger.info("Received requests to delete user data for {} Users", userIds.size());
+        dataDeletionService.deleteUsersAuthData(userIds);
+    }
+
+    @RabbitListener(queues = "#{revokeAccessTokenQueue.name}")
+    public void consumeRevokeAccessTokenMessage(UUID jwtId) {
+        logger.debug("Received request to revoke Access Token [jwtId: {}]", jwtId);
+        accessTokenDenylist.revoke(jwtId);
     }
 
 }
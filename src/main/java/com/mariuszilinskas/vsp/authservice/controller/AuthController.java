@@ -1,7 +1,10 @@
 package com.mariuszilinskas.vsp.authservice.controller;
 
 import com.mariuszilinskas.vsp.authservice.dto.LoginRequest;
+import com.mariuszilinskas.vsp.authservice.enums.RateLimitedEndpoint;
 import com.mariuszilinskas.vsp.authservice.service.AuthService;
+import com.mariuszilinskas.vsp.authservice.service.RateLimiter;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import jakarta.validation.Valid;
@@ -24,6 +27,7 @@ import java.util.UUID;
 public class AuthController {
 
     private final AuthService authService;
+    private final RateLimiter rateLimiter;
 
     /**
      * POST /auth/login : Authenticates a user.
@@ -31,9 +35,12 @@ public class AuthController {
     @PostMapping("/login")
     public ResponseEntity<Void> authenticateUser(
             @Valid @RequestBody LoginRequest request,
+            @NonNull HttpServletRequest httpRequest,
             @NonNull HttpServletResponse response
     ) {
-        authService.authenticateUser(request, response);
+        rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, httpRequest.getRemoteAddr(),
+                AuthUtils.normalizeEmail(request.email()));
+        authService.authenticateUser(request, httpRequest, response);
         return new ResponseEntity<>(HttpStatus.OK);
     }
 
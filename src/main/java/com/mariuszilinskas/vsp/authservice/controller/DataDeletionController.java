@@ -1,15 +1,23 @@
 package com.mariuszilinskas.vsp.authservice.controller;
 
+import com.mariuszilinskas.vsp.authservice.dto.DataDeletionJobResponse;
+import com.mariuszilinskas.vsp.authservice.service.DataDeletionJobService;
 import com.mariuszilinskas.vsp.authservice.service.DataDeletionService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
 
+import java.io.IOException;
+import java.io.InputStream;
 import java.util.UUID;
 
 /**
  * This class provides REST APIs for deleting user data in auth service.
+ * <p>
+ * Bulk deletions are accepted as jobs, which run in the background and are polled for progress.
  *
  * @author Marius Zilinskas
  */
@@ -19,6 +27,7 @@ import java.util.UUID;
 public class DataDeletionController {
 
     private final DataDeletionService dataDeletionService;
+    private final DataDeletionJobService dataDeletionJobService;
 
     @DeleteMapping("/{userId}")
     public ResponseEntity<Void> deleteUserAuthData(@PathVariable UUID userId){
@@ -26,4 +35,25 @@ public class DataDeletionController {
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
 
+    @PostMapping(value = "/jobs", consumes = {MediaType.TEXT_PLAIN_VALUE, "text/csv", MediaType.APPLICATION_OCTET_STREAM_VALUE})
+    public ResponseEntity<DataDeletionJobResponse> createDataDeletionJob(InputStream userIds) {
+        DataDeletionJobResponse response = dataDeletionJobService.createJob(userIds);
+        return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+    }
+
+    @PostMapping(value = "/jobs", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<DataDeletionJobResponse> createDataDeletionJob(@RequestParam("file") MultipartFile file)
+            throws IOException {
+        try (InputStream userIds = file.getInputStream()) {
+            DataDeletionJobResponse response = dataDeletionJobService.createJob(userIds);
+            return new ResponseEntity<>(response, HttpStatus.ACCEPTED);
+        }
+    }
+
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<DataDeletionJobResponse> getDataDeletionJob(@PathVariable UUID jobId) {
+        DataDeletionJobResponse response = dataDeletionJobService.getJob(jobId);
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
 }
@@ -0,0 +1,38 @@
+package com.mariuszilinskas.vsp.authservice.controller;
+
+import com.mariuszilinskas.vsp.authservice.dto.JsonWebKeySet;
+import com.mariuszilinskas.vsp.authservice.service.JwtKeyRing;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.CacheControl;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.Duration;
+
+/**
+ * This class publishes the public access token keys, so other services can verify access tokens locally.
+ *
+ * @author Marius Zilinskas
+ */
+@RestController
+@RequiredArgsConstructor
+public class JwksController {
+
+    private final JwtKeyRing jwtKeyRing;
+
+    @Value("${app.jwksMaxAgeSeconds:300}")
+    private long jwksMaxAgeSeconds;
+
+    /**
+     * GET /auth/.well-known/jwks.json : Returns the access token verification keys as a JWK set.
+     */
+    @GetMapping("/.well-known/jwks.json")
+    public ResponseEntity<JsonWebKeySet> getJsonWebKeySet() {
+        return ResponseEntity.ok()
+                .cacheControl(CacheControl.maxAge(Duration.ofSeconds(jwksMaxAgeSeconds)).cachePublic())
+                .body(new JsonWebKeySet(jwtKeyRing.getPublicKeys()));
+    }
+
+}
@@ -1,7 +1,10 @@
 package com.mariuszilinskas.vsp.authservice.controller;
 
 import com.mariuszilinskas.vsp.authservice.dto.VerifyPasscodeRequest;
+import com.mariuszilinskas.vsp.authservice.enums.RateLimitedEndpoint;
 import com.mariuszilinskas.vsp.authservice.service.PasscodeService;
+import com.mariuszilinskas.vsp.authservice.service.RateLimiter;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,6 +24,7 @@ import java.util.UUID;
 public class PasscodeController {
 
     private final PasscodeService passcodeService;
+    private final RateLimiter rateLimiter;
 
     @PutMapping("/{userId}/verify")
     public ResponseEntity<Void> verifyPasscode(
@@ -32,7 +36,8 @@ public class PasscodeController {
     }
 
     @PutMapping("/{userId}/reset")
-    public ResponseEntity<Void> resetPasscode(@PathVariable UUID userId) {
+    public ResponseEntity<Void> resetPasscode(@PathVariable UUID userId, HttpServletRequest httpRequest) {
+        rateLimiter.checkLimit(RateLimitedEndpoint.RESET_PASSCODE, httpRequest.getRemoteAddr(), userId.toString());
         passcodeService.resetPasscode(userId);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
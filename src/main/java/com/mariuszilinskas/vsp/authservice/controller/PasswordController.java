@@ -1,7 +1,11 @@
 package com.mariuszilinskas.vsp.authservice.controller;
 
 import com.mariuszilinskas.vsp.authservice.dto.*;
+import com.mariuszilinskas.vsp.authservice.enums.RateLimitedEndpoint;
 import com.mariuszilinskas.vsp.authservice.service.PasswordService;
+import com.mariuszilinskas.vsp.authservice.service.RateLimiter;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import jakarta.servlet.http.HttpServletRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import org.springframework.http.HttpStatus;
@@ -21,6 +25,7 @@ import java.util.UUID;
 public class PasswordController {
 
     private final PasswordService passwordService;
+    private final RateLimiter rateLimiter;
 
     @PutMapping("/verify")
     public ResponseEntity<Void> verifyPassword(
@@ -32,8 +37,11 @@ public class PasswordController {
 
     @PutMapping("/forgot")
     public ResponseEntity<Void> forgotPassword(
-            @Valid @RequestBody ForgotPasswordRequest request
+            @Valid @RequestBody ForgotPasswordRequest request,
+            HttpServletRequest httpRequest
     ){
+        rateLimiter.checkLimit(RateLimitedEndpoint.FORGOT_PASSWORD, httpRequest.getRemoteAddr(),
+                AuthUtils.normalizeEmail(request.email()));
         passwordService.forgotPassword(request);
         return new ResponseEntity<>(HttpStatus.NO_CONTENT);
     }
@@ -0,0 +1,49 @@
+package com.mariuszilinskas.vsp.authservice.controller;
+
+import com.mariuszilinskas.vsp.authservice.dto.IntrospectTokenRequest;
+import com.mariuszilinskas.vsp.authservice.dto.IntrospectTokensRequest;
+import com.mariuszilinskas.vsp.authservice.dto.TokenIntrospectionResponse;
+import com.mariuszilinskas.vsp.authservice.service.TokenIntrospectionService;
+import jakarta.validation.Valid;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.List;
+
+/**
+ * This class provides REST APIs for the gateway to introspect access tokens.
+ *
+ * @author Marius Zilinskas
+ */
+@RestController
+@RequestMapping("/token/introspect")
+@RequiredArgsConstructor
+public class TokenIntrospectionController {
+
+    private final TokenIntrospectionService tokenIntrospectionService;
+
+    /**
+     * POST /auth/token/introspect : Validates an access token and returns its claims.
+     */
+    @PostMapping
+    public ResponseEntity<TokenIntrospectionResponse> introspectToken(
+            @Valid @RequestBody IntrospectTokenRequest request
+    ) {
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(request.token());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+    /**
+     * POST /auth/token/introspect/batch : Validates several access tokens, returning results in request order.
+     */
+    @PostMapping("/batch")
+    public ResponseEntity<List<TokenIntrospectionResponse>> introspectTokens(
+            @Valid @RequestBody IntrospectTokensRequest request
+    ) {
+        List<TokenIntrospectionResponse> response = tokenIntrospectionService.introspectTokens(request.tokens());
+        return new ResponseEntity<>(response, HttpStatus.OK);
+    }
+
+}
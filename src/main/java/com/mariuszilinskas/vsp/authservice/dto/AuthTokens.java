@@ -0,0 +1,13 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+/**
+ * This record holds a freshly issued token pair as ready-to-send {@code Set-Cookie} values,
+ * plus the refresh-after hint, in epoch seconds.
+ *
+ * @author Marius Zilinskas
+ */
+public record AuthTokens(
+        String accessCookie,
+        String refreshCookie,
+        long refreshAfterSeconds
+) {}
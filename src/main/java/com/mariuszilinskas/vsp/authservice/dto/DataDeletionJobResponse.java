@@ -0,0 +1,29 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import com.mariuszilinskas.vsp.authservice.enums.DataDeletionJobStatus;
+import com.mariuszilinskas.vsp.authservice.model.DataDeletionJob;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This record describes the progress of a bulk data deletion job.
+ *
+ * @author Marius Zilinskas
+ */
+public record DataDeletionJobResponse(
+        UUID id,
+        DataDeletionJobStatus status,
+        int totalUsers,
+        int processedUsers,
+        long deletedRows,
+        Instant createdAt,
+        Instant startedAt,
+        Instant finishedAt,
+        String error
+) {
+    public static DataDeletionJobResponse from(DataDeletionJob job) {
+        return new DataDeletionJobResponse(job.getId(), job.getStatus(), job.getTotalUsers(), job.getProcessedUsers(),
+                job.getDeletedRows(), job.getCreatedAt(), job.getStartedAt(), job.getFinishedAt(), job.getLastError());
+    }
+}
@@ -0,0 +1,12 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+/**
+ * This record describes a key with one of the highest estimated login failure counts in the current window.
+ *
+ * @author Marius Zilinskas
+ */
+public record HeavyHitter(
+        String key,
+        long failures,
+        boolean blocked
+) {}
@@ -0,0 +1,10 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record IntrospectTokenRequest(
+
+        @NotBlank(message = "token cannot be blank")
+        String token
+
+) {}
@@ -0,0 +1,16 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import jakarta.validation.constraints.NotEmpty;
+import jakarta.validation.constraints.Size;
+
+import java.util.List;
+
+public record IntrospectTokensRequest(
+
+        @NotEmpty(message = "tokens cannot be empty")
+        @Size(max = AuthUtils.MAX_INTROSPECTION_BATCH_SIZE, message = "tokens cannot contain more than "
+                + AuthUtils.MAX_INTROSPECTION_BATCH_SIZE + " entries")
+        List<String> tokens
+
+) {}
@@ -0,0 +1,11 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+public record JsonWebKey(
+        String kty,
+        String crv,
+        String x,
+        String y,
+        String use,
+        String alg,
+        String kid
+) {}
@@ -0,0 +1,7 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import java.util.List;
+
+public record JsonWebKeySet(
+        List<JsonWebKey> keys
+) {}
@@ -0,0 +1,15 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This record describes a user's recent failed logins, as written back to the passwords table.
+ *
+ * @author Marius Zilinskas
+ */
+public record LoginFailures(
+        UUID userId,
+        int failures,
+        Instant lastFailedAt
+) {}
@@ -0,0 +1,19 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import java.util.UUID;
+
+/**
+ * This projection describes one chunk of an expiry purge: how many expired rows were selected and deleted,
+ * and the highest id selected, which is where the next chunk starts.
+ *
+ * @author Marius Zilinskas
+ */
+public interface PurgedChunk {
+
+    long getScanned();
+
+    long getDeleted();
+
+    UUID getLastId();
+
+}
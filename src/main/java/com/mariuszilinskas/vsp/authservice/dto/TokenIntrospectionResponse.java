@@ -0,0 +1,29 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import com.fasterxml.jackson.annotation.JsonInclude;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This record describes an access token to the gateway. Inactive tokens carry no other fields.
+ *
+ * @author Marius Zilinskas
+ */
+@JsonInclude(JsonInclude.Include.NON_NULL)
+public record TokenIntrospectionResponse(
+        boolean active,
+        UUID userId,
+        List<UserRole> roles,
+        List<UserAuthority> authorities,
+        Instant expiresAt
+) {
+    public static final TokenIntrospectionResponse INACTIVE = new TokenIntrospectionResponse(false, null, null, null, null);
+
+    public static TokenIntrospectionResponse active(VerifiedToken token) {
+        return new TokenIntrospectionResponse(true, token.userId(), token.roles(), token.authorities(), token.expiresAt());
+    }
+}
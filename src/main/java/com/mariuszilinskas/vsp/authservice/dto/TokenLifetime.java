@@ -0,0 +1,16 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+/**
+ * This record holds the issue, refresh-after and expiry times of a token, in epoch milliseconds.
+ *
+ * @author Marius Zilinskas
+ */
+public record TokenLifetime(
+        long issuedAtMillis,
+        long refreshAfterMillis,
+        long expiresAtMillis
+) {
+    public int maxAgeSeconds() {
+        return (int) ((expiresAtMillis - issuedAtMillis) / 1000);
+    }
+}
@@ -0,0 +1,24 @@
+package com.mariuszilinskas.vsp.authservice.dto;
+
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * This record holds the claims of a JWT token whose signature and expiry have already been verified,
+ * so callers can use them without parsing the token again.
+ *
+ * @author Marius Zilinskas
+ */
+public record VerifiedToken(
+        UUID userId,
+        UUID tokenId,
+        UUID jwtId,
+        List<UserRole> roles,
+        List<UserAuthority> authorities,
+        Instant issuedAt,
+        Instant expiresAt
+) {}
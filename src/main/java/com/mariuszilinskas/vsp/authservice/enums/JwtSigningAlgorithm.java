@@ -0,0 +1,5 @@
+package com.mariuszilinskas.vsp.authservice.enums;
+
+public enum JwtSigningAlgorithm {
+    HS384, ES256
+}
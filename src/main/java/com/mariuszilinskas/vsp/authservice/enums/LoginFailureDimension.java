@@ -0,0 +1,5 @@
+package com.mariuszilinskas.vsp.authservice.enums;
+
+public enum LoginFailureDimension {
+    IP_PREFIX, EMAIL, USER_AGENT
+}
@@ -0,0 +1,20 @@
+package com.mariuszilinskas.vsp.authservice.enums;
+
+/**
+ * Algorithms new password hashes can be created with. The id prefixes every stored hash, as in {@code {bcrypt}$2a$...},
+ * so hashes created with any of them keep verifying after the algorithm is changed.
+ */
+public enum PasswordHashAlgorithm {
+    BCRYPT("bcrypt"),
+    ARGON2ID("argon2id");
+
+    private final String id;
+
+    PasswordHashAlgorithm(String id) {
+        this.id = id;
+    }
+
+    public String getId() {
+        return id;
+    }
+}
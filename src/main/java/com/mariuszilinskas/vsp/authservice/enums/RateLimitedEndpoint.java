@@ -0,0 +1,5 @@
+package com.mariuszilinskas.vsp.authservice.enums;
+
+public enum RateLimitedEndpoint {
+    LOGIN, FORGOT_PASSWORD, RESET_PASSCODE
+}
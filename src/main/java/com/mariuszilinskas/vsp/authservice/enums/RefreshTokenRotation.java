@@ -0,0 +1,5 @@
+package com.mariuszilinskas.vsp.authservice.enums;
+
+public enum RefreshTokenRotation {
+    ROTATED, EXPIRED, NOT_FOUND
+}
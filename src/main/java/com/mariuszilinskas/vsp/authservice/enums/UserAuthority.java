@@ -1,5 +1,6 @@
 package com.mariuszilinskas.vsp.authservice.enums;
 
+// Compact access tokens encode these by ordinal (see EnumBitmask): only append new constants
 public enum UserAuthority {
     MANAGE_SETTINGS
 }
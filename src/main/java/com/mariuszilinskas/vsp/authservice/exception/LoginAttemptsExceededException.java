@@ -0,0 +1,15 @@
+package com.mariuszilinskas.vsp.authservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class LoginAttemptsExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public LoginAttemptsExceededException(long retryAfterSeconds) {
+        super("Too many failed attempts. Please try again later.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
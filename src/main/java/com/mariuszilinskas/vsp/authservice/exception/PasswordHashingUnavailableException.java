@@ -0,0 +1,9 @@
+package com.mariuszilinskas.vsp.authservice.exception;
+
+public class PasswordHashingUnavailableException extends RuntimeException {
+
+    public PasswordHashingUnavailableException() {
+        super("The service is busy. Please try again shortly.");
+    }
+
+}
@@ -0,0 +1,15 @@
+package com.mariuszilinskas.vsp.authservice.exception;
+
+import lombok.Getter;
+
+@Getter
+public class RateLimitExceededException extends RuntimeException {
+
+    private final long retryAfterSeconds;
+
+    public RateLimitExceededException(long retryAfterSeconds) {
+        super("Too many requests. Please try again later.");
+        this.retryAfterSeconds = retryAfterSeconds;
+    }
+
+}
@@ -0,0 +1,9 @@
+package com.mariuszilinskas.vsp.authservice.exception;
+
+public class UserIdsValidationException extends RuntimeException {
+
+    public UserIdsValidationException(String message) {
+        super(message);
+    }
+
+}
@@ -6,6 +6,7 @@ import com.mariuszilinskas.vsp.authservice.dto.FieldErrorResponse;
 import com.mariuszilinskas.vsp.authservice.exception.*;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.MethodArgumentNotValidException;
@@ -79,6 +80,26 @@ public class AppExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.UNAUTHORIZED);
     }
 
+    @ExceptionHandler(LoginAttemptsExceededException.class)
+    public ResponseEntity<ErrorResponse> handleLoginAttemptsExceededException(LoginAttemptsExceededException ex) {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        logger.warn("Status: {}, Message: '{}'", status.value(), ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), status.value(), status.getReasonPhrase());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
+    @ExceptionHandler(RateLimitExceededException.class)
+    public ResponseEntity<ErrorResponse> handleRateLimitExceededException(RateLimitExceededException ex) {
+        HttpStatus status = HttpStatus.TOO_MANY_REQUESTS;
+        logger.warn("Status: {}, Message: '{}'", status.value(), ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), status.value(), status.getReasonPhrase());
+        return ResponseEntity.status(status)
+                .header(HttpHeaders.RETRY_AFTER, String.valueOf(ex.getRetryAfterSeconds()))
+                .body(errorResponse);
+    }
+
     @ExceptionHandler(NoAccessException.class)
     public ResponseEntity<ErrorResponse> handleNoAccessException(NoAccessException ex) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
@@ -89,6 +110,17 @@ public class AppExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
     }
 
+    /**
+     * Password hashing is saturated, so the client is asked to back off briefly instead of waiting in line.
+     */
+    @ExceptionHandler(PasswordHashingUnavailableException.class)
+    public ResponseEntity<ErrorResponse> handlePasswordHashingUnavailableException(PasswordHashingUnavailableException ex) {
+        HttpStatus status = HttpStatus.SERVICE_UNAVAILABLE;
+        logger.warn("Status: {}, Message: '{}'", status.value(), ex.getMessage());
+        ErrorResponse errorResponse = new ErrorResponse(ex.getMessage(), status.value(), status.getReasonPhrase());
+        return ResponseEntity.status(status).header(HttpHeaders.RETRY_AFTER, "1").body(errorResponse);
+    }
+
     @ExceptionHandler(PasscodeExpiredException.class)
     public ResponseEntity<ErrorResponse> handlePasscodeExpiredException(PasscodeExpiredException ex) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
@@ -114,6 +146,11 @@ public class AppExceptionHandler {
         return buildErrorResponse(ex.getMessage(), HttpStatus.FORBIDDEN);
     }
 
+    @ExceptionHandler(UserIdsValidationException.class)
+    public ResponseEntity<ErrorResponse> handleUserIdsValidationException(UserIdsValidationException ex) {
+        return buildErrorResponse(ex.getMessage(), HttpStatus.BAD_REQUEST);
+    }
+
     @ExceptionHandler(UserRetrievalException.class)
     public ResponseEntity<ErrorResponse> handleUserRetrievalException(UserRetrievalException ex) {
         return buildErrorResponse(ex.getMessage(), HttpStatus.INTERNAL_SERVER_ERROR);
@@ -0,0 +1,95 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.service.DataDeletionJobService;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Runs bulk data deletion jobs in the background, oldest first.
+ * <p>
+ * Each job is worked through in chunks of bounded size, with a short pause between chunks, so a large job never
+ * holds many locks or connections and leaves room for regular traffic. Every chunk is its own transaction, which
+ * also records the job's progress. A run stops once its time budget is spent, and the next run carries on from
+ * where it stopped. Only one instance of the service runs jobs at a time, see {@link JobCoordinator}.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class DataDeletionJobRunner {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataDeletionJobRunner.class);
+    private static final String JOB_NAME = "data-deletion-jobs";
+    private static final Duration LEASE_MARGIN = Duration.ofMinutes(1);
+
+    private final DataDeletionJobService dataDeletionJobService;
+    private final JobCoordinator jobCoordinator;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final long maxRunMillis;
+
+    public DataDeletionJobRunner(
+            DataDeletionJobService dataDeletionJobService,
+            JobCoordinator jobCoordinator,
+            @Value("${app.dataDeletionJobChunkSize:100}") int chunkSize,
+            @Value("${app.dataDeletionJobChunkPauseMillis:100}") long chunkPauseMillis,
+            @Value("${app.dataDeletionJobMaxRunMillis:60000}") long maxRunMillis
+    ) {
+        this.dataDeletionJobService = dataDeletionJobService;
+        this.jobCoordinator = jobCoordinator;
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        this.maxRunMillis = maxRunMillis;
+    }
+
+    @Scheduled(fixedDelayString = "${app.dataDeletionJobPollMillis:5000}")
+    public void runPendingJobs() {
+        // A cheap read keeps idle instances from competing for the lease on every poll
+        if (!dataDeletionJobService.hasActiveJobs()) return;
+
+        Duration leaseDuration = Duration.ofMillis(maxRunMillis).plus(LEASE_MARGIN);
+        jobCoordinator.runExclusively(JOB_NAME, Duration.ZERO, leaseDuration, this::runJobs);
+    }
+
+    void runJobs() {
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxRunMillis);
+
+        Optional<UUID> jobId;
+        while ((jobId = dataDeletionJobService.findNextJobId()).isPresent()) {
+            if (!runJob(jobId.get(), deadline)) {
+                logger.info("Data deletion run stopped early, the rest is left for the next run");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Works through one job, returning false if the run ran out of time or was interrupted before the job was done.
+     * A failing chunk fails the job, so it cannot hold up the jobs queued behind it.
+     */
+    private boolean runJob(UUID jobId, long deadline) {
+        try {
+            while (true) {
+                if (dataDeletionJobService.processNextChunk(jobId, chunkSize) < chunkSize) return true;
+                if (System.nanoTime() - deadline >= 0) return false;
+
+                Thread.sleep(chunkPauseMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException ex) {
+            logger.error("Failed to process Data Deletion Job [jobId: '{}']", jobId, ex);
+            dataDeletionJobService.failJob(jobId, ex.toString());
+            return true;
+        }
+    }
+
+}
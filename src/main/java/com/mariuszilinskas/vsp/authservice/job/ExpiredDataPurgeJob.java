@@ -0,0 +1,145 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.service.PasscodeService;
+import com.mariuszilinskas.vsp.authservice.service.ResetTokenService;
+import com.mariuszilinskas.vsp.authservice.service.SessionEpochService;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Periodically deletes expired passcodes, reset tokens and session epochs. Expired refresh tokens are removed by
+ * dropping whole partitions instead, see {@link RefreshTokenPartitionJob}.
+ * <p>
+ * Rows are deleted in chunks of bounded size, walking each table in id order, with a short pause between chunks,
+ * so every delete is a short transaction that holds few locks. A run stops once its time budget is spent, and the
+ * remaining rows are picked up by the next run. Deleted rows and time spent are exported per table.
+ * Only one instance of the service runs the purge per interval, see {@link JobCoordinator}.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class ExpiredDataPurgeJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(ExpiredDataPurgeJob.class);
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private static final String JOB_NAME = "expired-data-purge";
+    private static final Duration LEASE_MARGIN = Duration.ofMinutes(1);
+
+    private final JobCoordinator jobCoordinator;
+    private final List<PurgeTarget> targets;
+    private final int chunkSize;
+    private final long chunkPauseMillis;
+    private final long maxRunMillis;
+    private final Duration minInterval;
+
+    public ExpiredDataPurgeJob(
+            PasscodeService passcodeService,
+            ResetTokenService resetTokenService,
+            SessionEpochService sessionEpochService,
+            MeterRegistry meterRegistry,
+            JobCoordinator jobCoordinator,
+            @Value("${app.purgeChunkSize:1000}") int chunkSize,
+            @Value("${app.purgeChunkPauseMillis:50}") long chunkPauseMillis,
+            @Value("${app.purgeMaxRunMillis:60000}") long maxRunMillis,
+            @Value("${app.purgeMinIntervalMillis:300000}") long minIntervalMillis
+    ) {
+        this.jobCoordinator = jobCoordinator;
+        this.targets = List.of(
+                new PurgeTarget("passcodes", passcodeService::deleteExpiredPasscodes, meterRegistry),
+                new PurgeTarget("reset_tokens", resetTokenService::deleteExpiredResetTokens, meterRegistry),
+                new PurgeTarget("session_epochs", sessionEpochService::deleteExpiredEpochs, meterRegistry)
+        );
+        this.chunkSize = chunkSize;
+        this.chunkPauseMillis = chunkPauseMillis;
+        this.maxRunMillis = maxRunMillis;
+        this.minInterval = Duration.ofMillis(minIntervalMillis);
+    }
+
+    @Scheduled(cron = "${app.purgeCron:0 */10 * * * *}")
+    public void purgeExpiredData() {
+        // The lease outlives the time budget by a margin, as the last chunk may still be running when it runs out
+        Duration leaseDuration = Duration.ofMillis(maxRunMillis).plus(LEASE_MARGIN);
+        jobCoordinator.runExclusively(JOB_NAME, minInterval, leaseDuration, this::purgeAll);
+    }
+
+    void purgeAll() {
+        Instant cutoff = Instant.now();
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(maxRunMillis);
+
+        for (PurgeTarget target : targets) {
+            if (!purge(target, cutoff, deadline)) {
+                logger.info("Expired data purge stopped early, the rest is left for the next run");
+                return;
+            }
+        }
+    }
+
+    /**
+     * Purges one table, returning false if the run ran out of time or was interrupted before the table was done.
+     */
+    private boolean purge(PurgeTarget target, Instant cutoff, long deadline) {
+        long start = System.nanoTime();
+        long deleted = 0;
+        UUID afterId = FIRST_ID;
+        try {
+            while (true) {
+                PurgedChunk chunk = target.deleter().deleteChunk(cutoff, afterId, chunkSize);
+                deleted += chunk.getDeleted();
+                target.rowsDeleted().increment(chunk.getDeleted());
+
+                if (chunk.getScanned() < chunkSize) return true;
+                if (System.nanoTime() - deadline >= 0) return false;
+
+                afterId = chunk.getLastId();
+                Thread.sleep(chunkPauseMillis);
+            }
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            return false;
+        } catch (RuntimeException ex) {
+            // One failing table should not keep the others from being purged
+            logger.error("Failed to purge expired {}", target.name(), ex);
+            return true;
+        } finally {
+            target.duration().record(System.nanoTime() - start, TimeUnit.NANOSECONDS);
+            logger.info("Purged {} expired {}", deleted, target.name());
+        }
+    }
+
+    // ------------------------------------
+
+    @FunctionalInterface
+    private interface ChunkDeleter {
+        PurgedChunk deleteChunk(Instant cutoff, UUID afterId, int chunkSize);
+    }
+
+    private record PurgeTarget(String name, ChunkDeleter deleter, Counter rowsDeleted, Timer duration) {
+
+        PurgeTarget(String name, ChunkDeleter deleter, MeterRegistry meterRegistry) {
+            this(name, deleter,
+                    Counter.builder("auth.purge.rows.deleted")
+                            .description("Expired rows deleted by the purge job")
+                            .tag("table", name)
+                            .register(meterRegistry),
+                    Timer.builder("auth.purge.duration")
+                            .description("Time spent purging expired rows in each run")
+                            .tag("table", name)
+                            .register(meterRegistry));
+        }
+
+    }
+
+}
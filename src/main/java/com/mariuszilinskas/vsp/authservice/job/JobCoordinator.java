@@ -0,0 +1,108 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.enums.JobRunStatus;
+import com.mariuszilinskas.vsp.authservice.repository.JobLeaseRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Makes sure a background job runs on only one instance of the service per interval.
+ * <p>
+ * Before a run, the instance takes a lease on the job in the {@code job_leases} table with a single upsert,
+ * which only succeeds if no other instance holds a live lease and the job was not started within the last
+ * interval. The lease is given up when the run ends, along with the run's stats, and every lease still held is
+ * given up on shutdown. If an instance dies mid-run, its lease simply expires, so no external coordinator is needed.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class JobCoordinator {
+
+    private static final Logger logger = LoggerFactory.getLogger(JobCoordinator.class);
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final JobLeaseRepository jobLeaseRepository;
+    private final String owner;
+
+    @Autowired
+    public JobCoordinator(JobLeaseRepository jobLeaseRepository) {
+        this(jobLeaseRepository, ManagementFactory.getRuntimeMXBean().getName() + "/" + UUID.randomUUID());
+    }
+
+    JobCoordinator(JobLeaseRepository jobLeaseRepository, String owner) {
+        this.jobLeaseRepository = jobLeaseRepository;
+        this.owner = owner;
+    }
+
+    /**
+     * Runs the job if this instance gets the lease on it, returning whether it ran.
+     * The lease must outlast the longest run, otherwise another instance may start the job while it is still running.
+     */
+    public boolean runExclusively(String jobName, Duration minInterval, Duration leaseDuration, Runnable job) {
+        if (!acquire(jobName, minInterval, leaseDuration)) {
+            logger.debug("Skipping job '{}', it is running or has recently run elsewhere", jobName);
+            return false;
+        }
+
+        long start = System.nanoTime();
+        JobRunStatus status = JobRunStatus.SUCCEEDED;
+        String error = null;
+        try {
+            job.run();
+        } catch (RuntimeException ex) {
+            status = JobRunStatus.FAILED;
+            error = truncate(ex.toString());
+            logger.error("Job '{}' failed", jobName, ex);
+        } finally {
+            long durationMillis = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+            release(jobName, durationMillis, status, error);
+        }
+        return true;
+    }
+
+    private boolean acquire(String jobName, Duration minInterval, Duration leaseDuration) {
+        try {
+            return jobLeaseRepository.acquire(jobName, owner, leaseDuration.toMillis(), minInterval.toMillis()) == 1;
+        } catch (RuntimeException ex) {
+            logger.error("Failed to acquire lease on job '{}'", jobName, ex);
+            return false;
+        }
+    }
+
+    private void release(String jobName, long durationMillis, JobRunStatus status, String error) {
+        try {
+            int released = jobLeaseRepository.release(jobName, owner, durationMillis, status.name(), error);
+            if (released == 0)
+                logger.warn("Lease on job '{}' expired before the run finished, consider a longer lease", jobName);
+            else
+                logger.info("Job '{}' {} in {} ms", jobName, status, durationMillis);
+        } catch (RuntimeException ex) {
+            // The lease expires on its own, only the stats of this run are lost
+            logger.error("Failed to release lease on job '{}'", jobName, ex);
+        }
+    }
+
+    @PreDestroy
+    public void releaseAll() {
+        try {
+            int released = jobLeaseRepository.releaseAll(owner);
+            if (released > 0)
+                logger.info("Released {} job lease(s) on shutdown", released);
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to release job leases on shutdown, they will expire on their own", ex);
+        }
+    }
+
+    private static String truncate(String message) {
+        return message.length() <= MAX_ERROR_LENGTH ? message : message.substring(0, MAX_ERROR_LENGTH);
+    }
+
+}
@@ -0,0 +1,65 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.service.RefreshTokenService;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+
+/**
+ * Maintains the daily partitions of the {@code refresh_tokens} table: creates the partitions new tokens will
+ * expire into, ahead of time, and drops the partitions in which every token has expired. Dropping a partition
+ * removes a day's worth of tokens as a metadata change, leaving no dead rows behind to vacuum.
+ * <p>
+ * Partitions are created several days beyond the refresh token lifetime, so a few missed runs never send
+ * new tokens to the default partition. Only one instance of the service runs it at a time.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class RefreshTokenPartitionJob {
+
+    private static final Logger logger = LoggerFactory.getLogger(RefreshTokenPartitionJob.class);
+    private static final String JOB_NAME = "refresh-token-partitions";
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(30);
+    private static final Duration LEASE_DURATION = Duration.ofMinutes(5);
+
+    private final RefreshTokenService refreshTokenService;
+    private final JobCoordinator jobCoordinator;
+    private final int daysAhead;
+
+    public RefreshTokenPartitionJob(
+            RefreshTokenService refreshTokenService,
+            JobCoordinator jobCoordinator,
+            @Value("${app.refreshTokenPartitionDaysAhead:10}") int daysAhead
+    ) {
+        long lifetimeDays = Duration.ofMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS).toDays();
+        if (daysAhead <= lifetimeDays)
+            throw new IllegalArgumentException("Refresh token partitions must be created more than "
+                    + lifetimeDays + " days ahead");
+        this.refreshTokenService = refreshTokenService;
+        this.jobCoordinator = jobCoordinator;
+        this.daysAhead = daysAhead;
+    }
+
+    @Scheduled(cron = "${app.refreshTokenPartitionCron:0 5 * * * *}")
+    public void maintainPartitions() {
+        jobCoordinator.runExclusively(JOB_NAME, MIN_INTERVAL, LEASE_DURATION, this::runMaintenance);
+    }
+
+    void runMaintenance() {
+        // Creating first means a failed drop never leaves new tokens without a partition
+        refreshTokenService.createRefreshTokenPartitions(daysAhead);
+        try {
+            refreshTokenService.dropExpiredRefreshTokenPartitions();
+        } catch (RuntimeException ex) {
+            // Usually a lock timeout under heavy traffic, the partitions are dropped on the next run
+            logger.warn("Failed to drop expired Refresh Token partitions: {}", ex.getMessage());
+        }
+    }
+
+}
@@ -0,0 +1,54 @@
+package com.mariuszilinskas.vsp.authservice.model;
+
+import com.mariuszilinskas.vsp.authservice.enums.DataDeletionJobStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This entity describes a background job deleting the auth data of many users, and its progress.
+ *
+ * @author Marius Zilinskas
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "data_deletion_jobs")
+public class DataDeletionJob {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    @Column(updatable = false, nullable = false)
+    private UUID id;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 20)
+    private DataDeletionJobStatus status = DataDeletionJobStatus.PENDING;
+
+    @Column(name = "total_users", nullable = false)
+    private int totalUsers;
+
+    @Column(name = "processed_users", nullable = false)
+    private int processedUsers;
+
+    @Column(name = "deleted_rows", nullable = false)
+    private long deletedRows;
+
+    @Column(name = "created_at", nullable = false)
+    private Instant createdAt = Instant.now();
+
+    @Column(name = "started_at")
+    private Instant startedAt;
+
+    @Column(name = "finished_at")
+    private Instant finishedAt;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+}
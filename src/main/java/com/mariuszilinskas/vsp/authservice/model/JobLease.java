@@ -0,0 +1,50 @@
+package com.mariuszilinskas.vsp.authservice.model;
+
+import com.mariuszilinskas.vsp.authservice.enums.JobRunStatus;
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+
+/**
+ * This entity describes the lease on a background job, held by the instance currently running it,
+ * together with the stats of the job's last run.
+ *
+ * @author Marius Zilinskas
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "job_leases")
+public class JobLease {
+
+    @Id
+    @Column(name = "job_name", updatable = false, nullable = false, length = 100)
+    private String jobName;
+
+    @Column(name = "owner", nullable = false)
+    private String owner;
+
+    @Column(name = "lease_until", nullable = false)
+    private Instant leaseUntil;
+
+    @Column(name = "last_started_at", nullable = false)
+    private Instant lastStartedAt;
+
+    @Column(name = "last_finished_at")
+    private Instant lastFinishedAt;
+
+    @Column(name = "last_duration_ms")
+    private Long lastDurationMillis;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "last_status", length = 20)
+    private JobRunStatus lastStatus;
+
+    @Column(name = "last_error", length = 500)
+    private String lastError;
+
+}
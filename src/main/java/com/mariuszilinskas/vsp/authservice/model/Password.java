@@ -6,6 +6,7 @@ import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
 
+import java.time.Instant;
 import java.time.ZonedDateTime;
 import java.util.UUID;
 
@@ -36,6 +37,9 @@ public class Password {
     @Column(name = "incorrect_entries")
     private int incorrectEntries = 0;
 
+    @Column(name = "last_failed_at")
+    private Instant lastFailedAt;
+
     @Column(name = "last_updated", nullable = false)
     private ZonedDateTime lastUpdated = ZonedDateTime.now();
 
@@ -1,15 +1,20 @@
 package com.mariuszilinskas.vsp.authservice.model;
 
 import jakarta.persistence.*;
+import lombok.AccessLevel;
 import lombok.Getter;
 import lombok.NoArgsConstructor;
 import lombok.Setter;
+import org.springframework.data.domain.Persistable;
 
 import java.time.Instant;
 import java.util.UUID;
 
 /**
  * This entity describes Refresh Tokens used for authentication.
+ * <p>
+ * Token ids are assigned by the application, so the entity tracks whether it has been stored itself.
+ * Otherwise {@code save} would take the merge path and issue a SELECT before every INSERT.
  *
  * @author Marius Zilinskas
  */
@@ -18,7 +23,7 @@ import java.util.UUID;
 @Setter
 @NoArgsConstructor
 @Table(name = "refresh_tokens")
-public class RefreshToken {
+public class RefreshToken implements Persistable<UUID> {
 
     @Id
     @Column(updatable = false, nullable = false)
@@ -30,9 +35,25 @@ public class RefreshToken {
     @Column(name = "expiry_date", nullable = false)
     private Instant expiryDate;
 
+    @Transient
+    @Getter(AccessLevel.NONE)
+    @Setter(AccessLevel.NONE)
+    private boolean persisted;
+
     public RefreshToken(UUID tokenId, UUID userId) {
         this.id = tokenId;
         this.userId = userId;
     }
 
+    @Override
+    public boolean isNew() {
+        return !persisted;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markPersisted() {
+        this.persisted = true;
+    }
+
 }
@@ -0,0 +1,36 @@
+package com.mariuszilinskas.vsp.authservice.model;
+
+import jakarta.persistence.*;
+import lombok.Getter;
+import lombok.NoArgsConstructor;
+import lombok.Setter;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * This entity describes the point in time before which a user's sessions are no longer valid.
+ * The row with the nil UUID holds the global epoch, which applies to every user.
+ *
+ * @author Marius Zilinskas
+ */
+@Entity
+@Getter
+@Setter
+@NoArgsConstructor
+@Table(name = "session_epochs")
+public class SessionEpoch {
+
+    @Id
+    @Column(name = "subject_id", updatable = false, nullable = false)
+    private UUID subjectId;
+
+    @Column(name = "valid_after", nullable = false)
+    private Instant validAfter;
+
+    public SessionEpoch(UUID subjectId, Instant validAfter) {
+        this.subjectId = subjectId;
+        this.validAfter = validAfter;
+    }
+
+}
@@ -28,6 +28,9 @@ public class RabbitMQProducer {
     @Value("${rabbitmq.routing-keys.platform-emails}")
     private String platformEmailsRoutingKey;
 
+    @Value("${rabbitmq.routing-keys.revoke-access-token}")
+    private String revokeAccessTokenRoutingKey;
+
     public void sendVerifyAccountMessage(UUID userId) {
         logger.info("Sending Verify Account message: [userId: {}]", userId);
         rabbitTemplate.convertAndSend(exchange, verifyAccountRoutingKey, userId);
@@ -48,4 +51,9 @@ public class RabbitMQProducer {
         rabbitTemplate.convertAndSend(exchange, platformEmailsRoutingKey, request);
     }
 
+    public void sendRevokeAccessTokenMessage(UUID jwtId) {
+        logger.info("Sending Revoke Access Token message: [jwtId: {}]", jwtId);
+        rabbitTemplate.convertAndSend(exchange, revokeAccessTokenRoutingKey, jwtId);
+    }
+
 }
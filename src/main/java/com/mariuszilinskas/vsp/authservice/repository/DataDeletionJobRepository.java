@@ -0,0 +1,24 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.enums.DataDeletionJobStatus;
+import com.mariuszilinskas.vsp.authservice.model.DataDeletionJob;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing Data Deletion Job entities. Supports standard CRUD operations.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+public interface DataDeletionJobRepository extends JpaRepository<DataDeletionJob, UUID> {
+
+    boolean existsByStatusIn(Collection<DataDeletionJobStatus> statuses);
+
+    Optional<DataDeletionJob> findFirstByStatusInOrderByCreatedAtAsc(Collection<DataDeletionJobStatus> statuses);
+
+}
@@ -0,0 +1,64 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Repository for the users a data deletion job has yet to process. There is one row per job and user,
+ * with no entity behind it, so it uses plain JDBC.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+@RequiredArgsConstructor
+public class DataDeletionJobUserRepository {
+
+    static final String ADD_USERS = """
+            INSERT INTO data_deletion_job_users (job_id, user_id)
+            SELECT :jobId, user_id FROM unnest(ARRAY[:userIds]::uuid[]) AS user_id
+            ON CONFLICT DO NOTHING
+            """;
+
+    static final String TAKE_USERS = """
+            DELETE FROM data_deletion_job_users
+            WHERE job_id = :jobId AND user_id IN (
+                SELECT user_id FROM data_deletion_job_users
+                WHERE job_id = :jobId
+                ORDER BY user_id
+                LIMIT :limit
+            )
+            RETURNING user_id
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Adds users to a job, skipping the ones it already has. Returns the number of users added.
+     */
+    public int addUsers(UUID jobId, Collection<UUID> userIds) {
+        if (userIds.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("userIds", userIds);
+        return jdbcTemplate.update(ADD_USERS, params);
+    }
+
+    /**
+     * Removes up to {@code limit} users from a job, in user id order, and returns them.
+     * Runs in the caller's transaction, so the users are put back if their deletion fails.
+     */
+    public List<UUID> takeUsers(UUID jobId, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("limit", limit);
+        return jdbcTemplate.queryForList(TAKE_USERS, params, UUID.class);
+    }
+
+}
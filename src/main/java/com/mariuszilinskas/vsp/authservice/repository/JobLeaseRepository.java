@@ -0,0 +1,80 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.model.JobLease;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Repository interface for managing Job Lease entities. Supports standard CRUD operations.
+ * <p>
+ * All lease timestamps come from the database clock, so instances with skewed clocks still agree on who holds a lease.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+public interface JobLeaseRepository extends JpaRepository<JobLease, String> {
+
+    String ACQUIRE = """
+            INSERT INTO job_leases (job_name, owner, lease_until, last_started_at)
+            VALUES (:jobName, :owner, now() + :leaseMillis * interval '1 millisecond', now())
+            ON CONFLICT (job_name) DO UPDATE
+            SET owner = EXCLUDED.owner,
+                lease_until = EXCLUDED.lease_until,
+                last_started_at = EXCLUDED.last_started_at
+            WHERE job_leases.lease_until <= now()
+              AND job_leases.last_started_at <= now() - :minIntervalMillis * interval '1 millisecond'
+            """;
+
+    String RELEASE = """
+            UPDATE job_leases
+            SET lease_until = now(),
+                last_finished_at = now(),
+                last_duration_ms = :durationMillis,
+                last_status = :status,
+                last_error = :error
+            WHERE job_name = :jobName AND owner = :owner
+            """;
+
+    String RELEASE_ALL = """
+            UPDATE job_leases SET lease_until = now() WHERE owner = :owner AND lease_until > now()
+            """;
+
+    /**
+     * Takes the lease on a job in a single statement, returning 1 if it was taken and 0 if it is held by
+     * another instance or the job was already started less than {@code minIntervalMillis} ago.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = ACQUIRE, nativeQuery = true)
+    int acquire(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner,
+            @Param("leaseMillis") long leaseMillis,
+            @Param("minIntervalMillis") long minIntervalMillis
+    );
+
+    /**
+     * Gives up a lease held by the owner and records the stats of the run it covered.
+     * Returns 0 if the lease expired and was taken by another instance in the meantime.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = RELEASE, nativeQuery = true)
+    int release(
+            @Param("jobName") String jobName,
+            @Param("owner") String owner,
+            @Param("durationMillis") long durationMillis,
+            @Param("status") String status,
+            @Param("error") String error
+    );
+
+    @Modifying
+    @Transactional
+    @Query(value = RELEASE_ALL, nativeQuery = true)
+    int releaseAll(@Param("owner") String owner);
+
+}
@@ -0,0 +1,49 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.dto.LoginFailures;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.jdbc.core.namedparam.SqlParameterSource;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Types;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+
+/**
+ * Repository for writing failed login counts back to the passwords table in batches, with plain JDBC.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+@RequiredArgsConstructor
+public class LoginFailureRepository {
+
+    static final String UPDATE_FAILURES = """
+            UPDATE passwords
+            SET incorrect_entries = :failures, last_failed_at = :lastFailedAt
+            WHERE user_id = :userId
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Stores the failure counts of many users in a single JDBC batch.
+     */
+    public void updateFailures(Collection<LoginFailures> failures) {
+        if (failures.isEmpty()) return;
+
+        SqlParameterSource[] params = failures.stream()
+                .map(entry -> new MapSqlParameterSource()
+                        .addValue("userId", entry.userId())
+                        .addValue("failures", entry.failures())
+                        .addValue("lastFailedAt", entry.lastFailedAt() == null
+                                ? null : OffsetDateTime.ofInstant(entry.lastFailedAt(), ZoneOffset.UTC),
+                                Types.TIMESTAMP_WITH_TIMEZONE))
+                .toArray(SqlParameterSource[]::new);
+        jdbcTemplate.batchUpdate(UPDATE_FAILURES, params);
+    }
+
+}
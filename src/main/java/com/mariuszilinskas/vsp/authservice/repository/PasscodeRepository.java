@@ -1,8 +1,13 @@
 package com.mariuszilinskas.vsp.authservice.repository;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.model.Passcode;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.Optional;
@@ -16,10 +21,56 @@ import java.util.UUID;
 @Repository
 public interface PasscodeRepository extends JpaRepository<Passcode, UUID> {
 
+    String UPSERT_PASSCODE = """
+            INSERT INTO passcodes (id, user_id, passcode, expiry_date)
+            VALUES (:id, :userId, :passcode, :expiryDate)
+            ON CONFLICT (user_id) DO UPDATE
+            SET passcode = EXCLUDED.passcode, expiry_date = EXCLUDED.expiry_date
+            """;
+
+    String DELETE_EXPIRED_CHUNK = """
+            WITH chunk AS (
+                SELECT id FROM passcodes
+                WHERE expiry_date < :cutoff AND id > :afterId
+                ORDER BY id
+                LIMIT :chunkSize
+            ), deleted AS (
+                DELETE FROM passcodes t USING chunk WHERE t.id = chunk.id
+                RETURNING t.id
+            )
+            SELECT (SELECT count(*) FROM chunk) AS "scanned",
+                   (SELECT count(*) FROM deleted) AS "deleted",
+                   (SELECT id FROM chunk ORDER BY id DESC LIMIT 1) AS "lastId"
+            """;
+
     Optional<Passcode> findByUserId(UUID userId);
 
-    void deleteByUserId(UUID userId);
+    /**
+     * Stores a new passcode for the user, replacing the current one if there is any, in a single statement.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = UPSERT_PASSCODE, nativeQuery = true)
+    int upsertPasscode(
+            @Param("id") UUID id,
+            @Param("userId") UUID userId,
+            @Param("passcode") String passcode,
+            @Param("expiryDate") Instant expiryDate
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Passcode p WHERE p.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
 
-    void deleteAllByExpiryDateBefore(Instant expiryDate);
+    /**
+     * Deletes up to {@code chunkSize} rows that expired before the cutoff, taking ids after {@code afterId} in order.
+     */
+    @Transactional
+    @Query(value = DELETE_EXPIRED_CHUNK, nativeQuery = true)
+    PurgedChunk deleteExpiredChunk(
+            @Param("cutoff") Instant cutoff,
+            @Param("afterId") UUID afterId,
+            @Param("chunkSize") int chunkSize
+    );
 
 }
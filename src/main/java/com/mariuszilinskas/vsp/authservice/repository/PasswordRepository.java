@@ -2,7 +2,12 @@ package com.mariuszilinskas.vsp.authservice.repository;
 
 import com.mariuszilinskas.vsp.authservice.model.Password;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.util.Optional;
 import java.util.UUID;
@@ -15,8 +20,51 @@ import java.util.UUID;
 @Repository
 public interface PasswordRepository extends JpaRepository<Password, UUID> {
 
+    String UPSERT_PASSWORD_HASH = """
+            INSERT INTO passwords (id, user_id, password_hash, incorrect_entries, last_updated)
+            VALUES (:id, :userId, :passwordHash, 0, now())
+            ON CONFLICT (user_id) DO UPDATE
+            SET password_hash = EXCLUDED.password_hash, incorrect_entries = 0, last_failed_at = NULL
+            """;
+
+    String REPLACE_PASSWORD_HASH = """
+            UPDATE passwords SET password_hash = :newHash
+            WHERE user_id = :userId AND password_hash = :oldHash
+            """;
+
     Optional<Password> findByUserId(UUID userId);
 
-    void deleteByUserId(UUID userId);
+    /**
+     * Stores the user's password hash, creating the password if the user has none yet, in a single statement.
+     * A new password also clears any failed logins, so a user locked out by someone else can get back in.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = UPSERT_PASSWORD_HASH, nativeQuery = true)
+    int upsertPasswordHash(
+            @Param("id") UUID id,
+            @Param("userId") UUID userId,
+            @Param("passwordHash") String passwordHash
+    );
+
+    /**
+     * Replaces the user's password hash, but only if it is still the given one, so a rehash never undoes
+     * a password change made in the meantime. Returns 0 if the hash has changed.
+     * <p>
+     * Runs in its own transaction, as it is called during login, where a failed rehash must not mark
+     * the login's transaction for rollback.
+     */
+    @Modifying
+    @Transactional(propagation = Propagation.REQUIRES_NEW)
+    @Query(value = REPLACE_PASSWORD_HASH, nativeQuery = true)
+    int replacePasswordHash(
+            @Param("userId") UUID userId,
+            @Param("oldHash") String oldHash,
+            @Param("newHash") String newHash
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM Password p WHERE p.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
 
 }
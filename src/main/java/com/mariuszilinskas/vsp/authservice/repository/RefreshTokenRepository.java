@@ -2,24 +2,73 @@ package com.mariuszilinskas.vsp.authservice.repository;
 
 import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
-import java.util.Optional;
 import java.util.UUID;
 
 /**
  * Repository interface for managing Refresh Token entities. Supports standard CRUD operations.
+ * <p>
+ * The table is partitioned by expiry date, one partition per day, see {@code V1__partition_refresh_tokens.sql}.
  *
  * @author Marius Zilinskas
  */
 @Repository
 public interface RefreshTokenRepository extends JpaRepository<RefreshToken, UUID> {
 
-    Optional<RefreshToken> findByIdAndUserId(UUID id, UUID userId);
+    String ROTATE = """
+            WITH consumed AS (
+                DELETE FROM refresh_tokens
+                WHERE id = :oldTokenId AND user_id = :userId
+                RETURNING expiry_date
+            ), inserted AS (
+                INSERT INTO refresh_tokens (id, user_id, expiry_date)
+                SELECT :newTokenId, :userId, :newExpiryDate FROM consumed WHERE expiry_date > :now
+                RETURNING id
+            )
+            SELECT CASE
+                WHEN NOT EXISTS (SELECT 1 FROM consumed) THEN 'NOT_FOUND'
+                WHEN EXISTS (SELECT 1 FROM inserted) THEN 'ROTATED'
+                ELSE 'EXPIRED'
+            END
+            """;
 
-    void deleteByUserId(UUID userId);
+    /**
+     * Consumes the old token and, if it has not expired, stores its replacement, in a single statement.
+     * An expired token is deleted as well. Returns one of
+     * {@link com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation}'s names.
+     */
+    @Transactional
+    @Query(value = ROTATE, nativeQuery = true)
+    String rotate(
+            @Param("oldTokenId") UUID oldTokenId,
+            @Param("newTokenId") UUID newTokenId,
+            @Param("userId") UUID userId,
+            @Param("newExpiryDate") Instant newExpiryDate,
+            @Param("now") Instant now
+    );
 
-    void deleteAllByExpiryDateBefore(Instant expiryDate);
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM RefreshToken rt WHERE rt.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
+
+    /**
+     * Creates the missing daily partitions from today up to {@code daysAhead} days ahead, returning how many were created.
+     */
+    @Transactional
+    @Query(value = "SELECT create_refresh_token_partitions(:daysAhead)", nativeQuery = true)
+    int createPartitions(@Param("daysAhead") int daysAhead);
+
+    /**
+     * Drops the daily partitions in which every token has expired, returning how many were dropped.
+     */
+    @Transactional
+    @Query(value = "SELECT drop_expired_refresh_token_partitions()", nativeQuery = true)
+    int dropExpiredPartitions();
 
 }
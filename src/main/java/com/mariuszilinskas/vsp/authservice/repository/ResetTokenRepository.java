@@ -1,8 +1,13 @@
 package com.mariuszilinskas.vsp.authservice.repository;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.model.ResetToken;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
 import java.util.List;
@@ -17,12 +22,58 @@ import java.util.UUID;
 @Repository
 public interface ResetTokenRepository extends JpaRepository<ResetToken, UUID> {
 
+    String UPSERT_RESET_TOKEN = """
+            INSERT INTO reset_tokens (id, user_id, token, expiry_date)
+            VALUES (:id, :userId, :token, :expiryDate)
+            ON CONFLICT (user_id) DO UPDATE
+            SET token = EXCLUDED.token, expiry_date = EXCLUDED.expiry_date
+            """;
+
+    String DELETE_EXPIRED_CHUNK = """
+            WITH chunk AS (
+                SELECT id FROM reset_tokens
+                WHERE expiry_date < :cutoff AND id > :afterId
+                ORDER BY id
+                LIMIT :chunkSize
+            ), deleted AS (
+                DELETE FROM reset_tokens t USING chunk WHERE t.id = chunk.id
+                RETURNING t.id
+            )
+            SELECT (SELECT count(*) FROM chunk) AS "scanned",
+                   (SELECT count(*) FROM deleted) AS "deleted",
+                   (SELECT id FROM chunk ORDER BY id DESC LIMIT 1) AS "lastId"
+            """;
+
     Optional<ResetToken> findByToken(String token);
 
     Optional<ResetToken> findByUserId(UUID userId);
 
-    void deleteByUserId(UUID userId);
+    /**
+     * Stores a new reset token for the user, replacing the current one if there is any, in a single statement.
+     */
+    @Modifying
+    @Transactional
+    @Query(value = UPSERT_RESET_TOKEN, nativeQuery = true)
+    int upsertResetToken(
+            @Param("id") UUID id,
+            @Param("userId") UUID userId,
+            @Param("token") String token,
+            @Param("expiryDate") Instant expiryDate
+    );
+
+    @Modifying(flushAutomatically = true, clearAutomatically = true)
+    @Query("DELETE FROM ResetToken rt WHERE rt.userId = :userId")
+    int deleteByUserId(@Param("userId") UUID userId);
 
-    void deleteAllByExpiryDateBefore(Instant expiryDate);
+    /**
+     * Deletes up to {@code chunkSize} rows that expired before the cutoff, taking ids after {@code afterId} in order.
+     */
+    @Transactional
+    @Query(value = DELETE_EXPIRED_CHUNK, nativeQuery = true)
+    PurgedChunk deleteExpiredChunk(
+            @Param("cutoff") Instant cutoff,
+            @Param("afterId") UUID afterId,
+            @Param("chunkSize") int chunkSize
+    );
 
 }
@@ -0,0 +1,48 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Repository interface for managing Session Epoch entities. Supports standard CRUD operations.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+public interface SessionEpochRepository extends JpaRepository<SessionEpoch, UUID> {
+
+    String DELETE_EXPIRED_CHUNK = """
+            WITH chunk AS (
+                SELECT subject_id FROM session_epochs
+                WHERE valid_after < :cutoff AND subject_id > :afterId
+                ORDER BY subject_id
+                LIMIT :chunkSize
+            ), deleted AS (
+                DELETE FROM session_epochs t USING chunk WHERE t.subject_id = chunk.subject_id
+                RETURNING t.subject_id
+            )
+            SELECT (SELECT count(*) FROM chunk) AS "scanned",
+                   (SELECT count(*) FROM deleted) AS "deleted",
+                   (SELECT subject_id FROM chunk ORDER BY subject_id DESC LIMIT 1) AS "lastId"
+            """;
+
+    /**
+     * Deletes up to {@code chunkSize} epochs set before the cutoff, taking subject ids after {@code afterId} in order.
+     */
+    @Transactional
+    @Query(value = DELETE_EXPIRED_CHUNK, nativeQuery = true)
+    PurgedChunk deleteExpiredChunk(
+            @Param("cutoff") Instant cutoff,
+            @Param("afterId") UUID afterId,
+            @Param("chunkSize") int chunkSize
+    );
+
+}
@@ -0,0 +1,44 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Repository for moving the session epochs of many users at once, with plain JDBC, which expands
+ * any number of user ids into a single statement.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+@RequiredArgsConstructor
+public class SessionRevocationRepository {
+
+    static final String REVOKE_SESSIONS = """
+            INSERT INTO session_epochs (subject_id, valid_after)
+            SELECT DISTINCT subject_id, :validAfter FROM unnest(ARRAY[:subjectIds]::uuid[]) AS subject_id
+            ON CONFLICT (subject_id) DO UPDATE SET valid_after = EXCLUDED.valid_after
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Moves the session epoch of every given subject to {@code validAfter}. Returns the number of epochs written.
+     */
+    public int revokeSessions(Collection<UUID> subjectIds, Instant validAfter) {
+        if (subjectIds.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("subjectIds", subjectIds)
+                .addValue("validAfter", OffsetDateTime.ofInstant(validAfter, ZoneOffset.UTC));
+        return jdbcTemplate.update(REVOKE_SESSIONS, params);
+    }
+
+}
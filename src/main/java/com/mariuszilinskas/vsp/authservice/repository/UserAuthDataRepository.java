@@ -0,0 +1,52 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Repository for operations that span every table holding a user's auth data.
+ * <p>
+ * This works on several tables at once, which no single entity repository covers, so it uses plain JDBC.
+ *
+ * @author Marius Zilinskas
+ */
+@Repository
+@RequiredArgsConstructor
+public class UserAuthDataRepository {
+
+    static final String DELETE_USER_AUTH_DATA = """
+            WITH passcodes_deleted AS (
+                DELETE FROM passcodes WHERE user_id IN (:userIds) RETURNING 1
+            ), passwords_deleted AS (
+                DELETE FROM passwords WHERE user_id IN (:userIds) RETURNING 1
+            ), reset_tokens_deleted AS (
+                DELETE FROM reset_tokens WHERE user_id IN (:userIds) RETURNING 1
+            ), refresh_tokens_deleted AS (
+                DELETE FROM refresh_tokens WHERE user_id IN (:userIds) RETURNING 1
+            )
+            SELECT (SELECT count(*) FROM passcodes_deleted)
+                 + (SELECT count(*) FROM passwords_deleted)
+                 + (SELECT count(*) FROM reset_tokens_deleted)
+                 + (SELECT count(*) FROM refresh_tokens_deleted)
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    /**
+     * Deletes the passcodes, passwords, reset tokens and refresh tokens of every given user, in a single statement.
+     * Returns the number of rows deleted.
+     */
+    public int deleteUserAuthData(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) return 0;
+
+        MapSqlParameterSource params = new MapSqlParameterSource("userIds", userIds);
+        Integer deleted = jdbcTemplate.queryForObject(DELETE_USER_AUTH_DATA, params, Integer.class);
+        return deleted == null ? 0 : deleted;
+    }
+
+}
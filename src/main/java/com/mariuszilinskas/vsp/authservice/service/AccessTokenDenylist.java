@@ -0,0 +1,188 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongSupplier;
+
+/**
+ * In-memory denylist of revoked access token ids ({@code jti}), checked on every access token validation.
+ * <p>
+ * Lookups go to a Bloom filter first, which answers "not revoked" for almost every token with a handful
+ * of array reads and no allocation. Only a filter hit is confirmed against an exact set of ids, stored as
+ * pairs of longs. Entries live in two generations that rotate every access token lifetime, so a revoked
+ * id is kept for at least as long as the token it belongs to could still be used, and then ages out.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class AccessTokenDenylist {
+
+    private static final int HASH_FUNCTIONS = 7;
+
+    private final int bitCount;
+    private final long generationMillis;
+    private final LongSupplier clock;
+    private volatile Generations generations;
+
+    public AccessTokenDenylist(@Value("${app.accessTokenDenylistCapacity:100000}") int expectedRevocations) {
+        this(expectedRevocations, AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS, System::currentTimeMillis);
+    }
+
+    AccessTokenDenylist(int expectedRevocations, long generationMillis, LongSupplier clock) {
+        // ~10 bits per entry with 7 hash functions keeps the false positive rate around 1%
+        this.bitCount = Math.max(1024, expectedRevocations * 10);
+        this.generationMillis = generationMillis;
+        this.clock = clock;
+        this.generations = new Generations(new Generation(bitCount), new Generation(bitCount), clock.getAsLong());
+    }
+
+    public void revoke(UUID jwtId) {
+        long msb = jwtId.getMostSignificantBits();
+        long lsb = jwtId.getLeastSignificantBits();
+        currentGenerations().current().add(msb, lsb);
+    }
+
+    public boolean isRevoked(UUID jwtId) {
+        Generations current = currentGenerations();
+        if (current.isEmpty()) return false;
+
+        long msb = jwtId.getMostSignificantBits();
+        long lsb = jwtId.getLeastSignificantBits();
+        return current.current().contains(msb, lsb) || current.previous().contains(msb, lsb);
+    }
+
+    private Generations currentGenerations() {
+        Generations current = generations;
+        long now = clock.getAsLong();
+        if (now - current.startedAt() < generationMillis) return current;
+
+        synchronized (this) {
+            current = generations;
+            long age = now - current.startedAt();
+            if (age >= generationMillis) {
+                // After two idle lifetimes nothing in either generation can still be in use
+                Generation previous = age >= 2 * generationMillis ? new Generation(bitCount) : current.current();
+                current = new Generations(new Generation(bitCount), previous, now);
+                generations = current;
+            }
+            return current;
+        }
+    }
+
+    // ------------------------------------
+
+    private record Generations(Generation current, Generation previous, long startedAt) {
+
+        boolean isEmpty() {
+            return current.size() == 0 && previous.size() == 0;
+        }
+
+    }
+
+    /**
+     * One Bloom filter plus the exact ids confirming its hits.
+     */
+    private static final class Generation {
+
+        private final AtomicLongArray bits;
+        private final int bitCount;
+        private final AtomicInteger size = new AtomicInteger();
+        private long[] ids = new long[64]; // msb, lsb pairs in an open addressing table, guarded by this
+        private int idCount;
+
+        Generation(int bitCount) {
+            this.bitCount = bitCount;
+            this.bits = new AtomicLongArray((bitCount + 63) / 64);
+        }
+
+        int size() {
+            return size.get();
+        }
+
+        void add(long msb, long lsb) {
+            synchronized (this) {
+                if (!insertId(msb, lsb)) return;
+            }
+            long hash1 = mix(msb ^ lsb);
+            long hash2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                long mask = 1L << bit;
+                int index = bit >>> 6;
+                long word;
+                do {
+                    word = bits.get(index);
+                } while ((word & mask) == 0 && !bits.compareAndSet(index, word, word | mask));
+            }
+            size.incrementAndGet();
+        }
+
+        boolean contains(long msb, long lsb) {
+            if (size.get() == 0) return false;
+
+            long hash1 = mix(msb ^ lsb);
+            long hash2 = mix(lsb + 0x9E3779B97F4A7C15L) | 1;
+            for (int i = 0; i < HASH_FUNCTIONS; i++) {
+                int bit = (int) Long.remainderUnsigned(hash1 + i * hash2, bitCount);
+                if ((bits.get(bit >>> 6) & (1L << bit)) == 0) return false;
+            }
+            // Filter hit, confirm against the exact ids to rule out a false positive
+            synchronized (this) {
+                return !isEmptySlot(ids, slotOf(ids, msb, lsb));
+            }
+        }
+
+        private boolean insertId(long msb, long lsb) {
+            if ((idCount + 1) * 2 > ids.length / 2) resize();
+            int slot = slotOf(ids, msb, lsb);
+            if (!isEmptySlot(ids, slot)) return false;
+            ids[slot] = msb;
+            ids[slot + 1] = lsb;
+            idCount++;
+            return true;
+        }
+
+        private void resize() {
+            long[] old = ids;
+            ids = new long[old.length * 2];
+            for (int slot = 0; slot < old.length; slot += 2) {
+                if (isEmptySlot(old, slot)) continue;
+                int newSlot = slotOf(ids, old[slot], old[slot + 1]);
+                ids[newSlot] = old[slot];
+                ids[newSlot + 1] = old[slot + 1];
+            }
+        }
+
+        /**
+         * Returns the slot holding the id, or the empty slot where it would go. (0, 0) marks an empty slot,
+         * which is safe as random v4 UUIDs always have version bits set.
+         */
+        private static int slotOf(long[] table, long msb, long lsb) {
+            int slots = table.length / 2;
+            int slot = (int) Long.remainderUnsigned(mix(msb * 31 + lsb), slots) * 2;
+            while (!isEmptySlot(table, slot) && (table[slot] != msb || table[slot + 1] != lsb))
+                slot = (slot + 2) % table.length;
+            return slot;
+        }
+
+        private static boolean isEmptySlot(long[] table, int slot) {
+            return table[slot] == 0 && table[slot + 1] == 0;
+        }
+
+    }
+
+    /**
+     * Stafford variant 13 of the MurmurHash3 finaliser.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+}
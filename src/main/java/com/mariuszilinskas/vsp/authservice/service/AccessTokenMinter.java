@@ -0,0 +1,300 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+import com.mariuszilinskas.vsp.authservice.exception.JwtTokenGenerationException;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.EnumBitmask;
+import io.jsonwebtoken.SignatureAlgorithm;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import javax.crypto.Mac;
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+
+/**
+ * Specialised minter for HMAC signed access tokens, used when access tokens are signed with HS384.
+ * <p>
+ * Produces exactly the same bytes as the generic jjwt builder
+ * ({@code {"kid":..,"alg":..}} header, {@code sub, iat, exp, jti, rfa} claims followed by either
+ * {@code roles, authorities} or, in the compact profile, the {@code r, a} bitmasks),
+ * but writes the JSON straight into per-thread buffers: the Base64URL header is precomputed,
+ * the roles/authorities fragment is cached per combination and each thread reuses its own {@link Mac}.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class AccessTokenMinter {
+
+    private static final byte[] BASE64_URL = "ABCDEFGHIJKLMNOPQRSTUVWXYZabcdefghijklmnopqrstuvwxyz0123456789-_"
+            .getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] HEX = "0123456789abcdef".getBytes(StandardCharsets.US_ASCII);
+    private static final byte[] SUBJECT_PREFIX = ascii("{\"sub\":\"");
+    private static final byte[] ISSUED_AT_PREFIX = ascii("\",\"iat\":");
+    private static final byte[] EXPIRATION_PREFIX = ascii(",\"exp\":");
+    private static final byte[] JWT_ID_PREFIX = ascii(",\"jti\":\"");
+    private static final byte[] REFRESH_AFTER_PREFIX = ascii("\",\"" + AuthUtils.REFRESH_AFTER_CLAIM + "\":");
+    private static final int MAX_CACHED_FRAGMENTS = 256;
+
+    private final JwtKeyRing jwtKeyRing;
+    private final AccessTokenProfile accessTokenProfile;
+    private final ConcurrentMap<Long, byte[]> claimFragments = new ConcurrentHashMap<>();
+    private final ThreadLocal<SigningContext> signingContexts = ThreadLocal.withInitial(SigningContext::new);
+    private volatile EncodedHeader encodedHeader;
+
+    public AccessTokenMinter(
+            JwtKeyRing jwtKeyRing,
+            @Value("${app.accessTokenProfile:STANDARD}") AccessTokenProfile accessTokenProfile
+    ) {
+        this.jwtKeyRing = jwtKeyRing;
+        this.accessTokenProfile = accessTokenProfile;
+    }
+
+    /**
+     * Mints an access token with the given id and lifetime.
+     */
+    public String mint(AuthDetails authDetails, UUID jwtId, TokenLifetime lifetime) {
+        Key key = jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME);
+        SignatureAlgorithm algorithm = jwtKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME);
+        byte[] header = getEncodedHeader(jwtKeyRing.getKeyId(AuthUtils.ACCESS_TOKEN_NAME), algorithm);
+
+        SigningContext context = signingContexts.get();
+        Mac mac = context.macFor(key, algorithm);
+
+        // JSON payload
+        byte[] fragment = getClaimsFragment(authDetails.roles(), authDetails.authorities());
+        byte[] json = context.json(SUBJECT_PREFIX.length + 36 + ISSUED_AT_PREFIX.length + 20
+                + EXPIRATION_PREFIX.length + 20 + JWT_ID_PREFIX.length + 36 + REFRESH_AFTER_PREFIX.length + 20
+                + fragment.length);
+        int jsonLength = put(json, 0, SUBJECT_PREFIX);
+        jsonLength = putUuid(json, jsonLength, authDetails.userId());
+        jsonLength = put(json, jsonLength, ISSUED_AT_PREFIX);
+        jsonLength = putLong(json, jsonLength, lifetime.issuedAtMillis() / 1000);
+        jsonLength = put(json, jsonLength, EXPIRATION_PREFIX);
+        jsonLength = putLong(json, jsonLength, lifetime.expiresAtMillis() / 1000);
+        jsonLength = put(json, jsonLength, JWT_ID_PREFIX);
+        jsonLength = putUuid(json, jsonLength, jwtId);
+        jsonLength = put(json, jsonLength, REFRESH_AFTER_PREFIX);
+        jsonLength = putLong(json, jsonLength, lifetime.refreshAfterMillis() / 1000);
+        jsonLength = put(json, jsonLength, fragment);
+
+        // header.payload.signature
+        int macLength = mac.getMacLength();
+        byte[] token = context.token(header.length + 1 + encodedLength(jsonLength) + 1 + encodedLength(macLength));
+        int tokenLength = put(token, 0, header);
+        token[tokenLength++] = '.';
+        tokenLength = encodeBase64Url(json, jsonLength, token, tokenLength);
+
+        byte[] signature = context.signature(macLength);
+        try {
+            mac.update(token, 0, tokenLength);
+            mac.doFinal(signature, 0);
+        } catch (GeneralSecurityException ex) {
+            throw new JwtTokenGenerationException("Access Token");
+        }
+
+        token[tokenLength++] = '.';
+        tokenLength = encodeBase64Url(signature, macLength, token, tokenLength);
+        return new String(token, 0, tokenLength, StandardCharsets.US_ASCII);
+    }
+
+    private byte[] getEncodedHeader(String keyId, SignatureAlgorithm algorithm) {
+        EncodedHeader current = encodedHeader;
+        if (current == null || !current.keyId().equals(keyId) || current.algorithm() != algorithm) {
+            byte[] json = ascii("{\"kid\":\"" + keyId + "\",\"alg\":\"" + algorithm.getValue() + "\"}");
+            byte[] encoded = new byte[encodedLength(json.length)];
+            encodeBase64Url(json, json.length, encoded, 0);
+            current = new EncodedHeader(keyId, algorithm, encoded);
+            encodedHeader = current;
+        }
+        return current.encoded();
+    }
+
+    /**
+     * Returns the closing part of the payload, e.g. {@code ,"roles":["USER"],"authorities":[]}}
+     * or {@code ,"r":1,"a":0}} in the compact profile.
+     * Role and authority enums are tiny, so each combination is cached under a key built from their ordinals.
+     */
+    private byte[] getClaimsFragment(List<UserRole> roles, List<UserAuthority> authorities) {
+        long cacheKey = fragmentKey(roles, authorities);
+        if (cacheKey < 0)
+            return buildClaimsFragment(roles, authorities);
+
+        byte[] fragment = claimFragments.get(cacheKey);
+        if (fragment == null) {
+            fragment = buildClaimsFragment(roles, authorities);
+            if (claimFragments.size() < MAX_CACHED_FRAGMENTS)
+                claimFragments.putIfAbsent(cacheKey, fragment);
+        }
+        return fragment;
+    }
+
+    private static long fragmentKey(List<UserRole> roles, List<UserAuthority> authorities) {
+        long base = Math.max(UserRole.values().length, UserAuthority.values().length) + 2;
+        long key = 1;
+        try {
+            for (UserRole role : roles)
+                key = Math.addExact(Math.multiplyExact(key, base), role.ordinal() + 1);
+            key = Math.addExact(Math.multiplyExact(key, base), base - 1);
+            for (UserAuthority authority : authorities)
+                key = Math.addExact(Math.multiplyExact(key, base), authority.ordinal() + 1);
+        } catch (ArithmeticException ex) {
+            return -1; // Too many entries to pack, skip the cache
+        }
+        return key;
+    }
+
+    private byte[] buildClaimsFragment(List<UserRole> roles, List<UserAuthority> authorities) {
+        if (accessTokenProfile == AccessTokenProfile.COMPACT)
+            return ascii(",\"" + AuthUtils.COMPACT_ROLES_CLAIM + "\":" + EnumBitmask.encode(roles)
+                    + ",\"" + AuthUtils.COMPACT_AUTHORITIES_CLAIM + "\":" + EnumBitmask.encode(authorities) + "}");
+
+        StringBuilder builder = new StringBuilder(",\"roles\":");
+        appendNames(builder, roles);
+        builder.append(",\"authorities\":");
+        appendNames(builder, authorities);
+        return ascii(builder.append('}').toString());
+    }
+
+    private static void appendNames(StringBuilder builder, List<? extends Enum<?>> values) {
+        builder.append('[');
+        for (int i = 0; i < values.size(); i++) {
+            if (i > 0) builder.append(',');
+            builder.append('"').append(values.get(i).name()).append('"');
+        }
+        builder.append(']');
+    }
+
+    // ------------------------------------
+
+    private static byte[] ascii(String value) {
+        return value.getBytes(StandardCharsets.US_ASCII);
+    }
+
+    private static int put(byte[] target, int position, byte[] source) {
+        System.arraycopy(source, 0, target, position, source.length);
+        return position + source.length;
+    }
+
+    private static int putUuid(byte[] target, int position, UUID uuid) {
+        long msb = uuid.getMostSignificantBits();
+        long lsb = uuid.getLeastSignificantBits();
+        position = putHex(target, position, msb >>> 32, 8);
+        target[position++] = '-';
+        position = putHex(target, position, msb >>> 16, 4);
+        target[position++] = '-';
+        position = putHex(target, position, msb, 4);
+        target[position++] = '-';
+        position = putHex(target, position, lsb >>> 48, 4);
+        target[position++] = '-';
+        return putHex(target, position, lsb, 12);
+    }
+
+    private static int putHex(byte[] target, int position, long value, int digits) {
+        for (int i = digits - 1; i >= 0; i--) {
+            target[position + i] = HEX[(int) (value & 0xF)];
+            value >>>= 4;
+        }
+        return position + digits;
+    }
+
+    private static int putLong(byte[] target, int position, long value) {
+        if (value < 0)
+            throw new IllegalArgumentException("Token timestamps cannot be negative");
+        int digits = 1;
+        for (long remaining = value / 10; remaining > 0; remaining /= 10)
+            digits++;
+        for (int i = position + digits - 1; i >= position; i--) {
+            target[i] = (byte) ('0' + value % 10);
+            value /= 10;
+        }
+        return position + digits;
+    }
+
+    private static int encodedLength(int length) {
+        return (length / 3) * 4 + (length % 3 == 0 ? 0 : length % 3 + 1);
+    }
+
+    /**
+     * Base64URL encodes without padding, as required by the JWS compact serialization.
+     */
+    private static int encodeBase64Url(byte[] source, int length, byte[] target, int position) {
+        int index = 0;
+        int end = length - length % 3;
+        while (index < end) {
+            int bits = (source[index++] & 0xff) << 16 | (source[index++] & 0xff) << 8 | (source[index++] & 0xff);
+            target[position++] = BASE64_URL[(bits >>> 18) & 0x3f];
+            target[position++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            target[position++] = BASE64_URL[(bits >>> 6) & 0x3f];
+            target[position++] = BASE64_URL[bits & 0x3f];
+        }
+        if (length - end == 1) {
+            int bits = (source[index] & 0xff) << 16;
+            target[position++] = BASE64_URL[(bits >>> 18) & 0x3f];
+            target[position++] = BASE64_URL[(bits >>> 12) & 0x3f];
+        } else if (length - end == 2) {
+            int bits = (source[index] & 0xff) << 16 | (source[index + 1] & 0xff) << 8;
+            target[position++] = BASE64_URL[(bits >>> 18) & 0x3f];
+            target[position++] = BASE64_URL[(bits >>> 12) & 0x3f];
+            target[position++] = BASE64_URL[(bits >>> 6) & 0x3f];
+        }
+        return position;
+    }
+
+    // ------------------------------------
+
+    private record EncodedHeader(String keyId, SignatureAlgorithm algorithm, byte[] encoded) {}
+
+    /**
+     * Per-thread Mac and scratch buffers, so minting allocates nothing but the resulting token string.
+     */
+    private static final class SigningContext {
+
+        private Mac mac;
+        private Key macKey;
+        private byte[] json = new byte[512];
+        private byte[] token = new byte[1024];
+        private byte[] signature = new byte[64];
+
+        Mac macFor(Key key, SignatureAlgorithm algorithm) {
+            if (mac == null || macKey != key || !mac.getAlgorithm().equals(algorithm.getJcaName())) {
+                try {
+                    Mac newMac = Mac.getInstance(algorithm.getJcaName());
+                    newMac.init(key);
+                    mac = newMac;
+                    macKey = key;
+                } catch (GeneralSecurityException ex) {
+                    throw new JwtTokenGenerationException("Access Token");
+                }
+            }
+            return mac;
+        }
+
+        byte[] json(int capacity) {
+            if (json.length < capacity) json = Arrays.copyOf(json, capacity);
+            return json;
+        }
+
+        byte[] token(int capacity) {
+            if (token.length < capacity) token = Arrays.copyOf(token, capacity);
+            return token;
+        }
+
+        byte[] signature(int capacity) {
+            if (signature.length < capacity) signature = Arrays.copyOf(signature, capacity);
+            return signature;
+        }
+
+    }
+
+}
@@ -8,7 +8,7 @@ import java.util.UUID;
 
 public interface AuthService {
 
-    void authenticateUser(LoginRequest request, HttpServletResponse response);
+    void authenticateUser(LoginRequest request, HttpServletRequest httpRequest, HttpServletResponse response);
 
     void refreshTokens(HttpServletRequest request, HttpServletResponse response);
 
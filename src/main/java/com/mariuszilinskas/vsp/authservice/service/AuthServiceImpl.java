@@ -1,6 +1,7 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.dto.*;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
 import com.mariuszilinskas.vsp.authservice.exception.*;
 import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
 import jakarta.servlet.http.HttpServletRequest;
@@ -9,6 +10,7 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.http.HttpHeaders;
 import org.springframework.stereotype.Service;
 
 import java.util.UUID;
@@ -28,23 +30,35 @@ public class AuthServiceImpl implements AuthService {
     private final PasswordService passwordService;
     private final RefreshTokenService refreshTokenService;
     private final UserService userService;
+    private final TokenRefreshMetrics tokenRefreshMetrics;
+    private final TokenRefreshCoalescer tokenRefreshCoalescer;
+    private final CredentialStuffingDetector credentialStuffingDetector;
 
     @Override
     @Transactional
-    public void authenticateUser(LoginRequest request, HttpServletResponse response) {
+    public void authenticateUser(LoginRequest request, HttpServletRequest httpRequest, HttpServletResponse response) {
         logger.info("Authenticating User [email: {}]", request.email());
+        String clientIp = httpRequest.getRemoteAddr();
+        String userAgent = httpRequest.getHeader(HttpHeaders.USER_AGENT);
+        credentialStuffingDetector.checkLogin(clientIp, request.email(), userAgent);
 
-        AuthDetails authDetails = fetchAuthDetails(() -> userService.getUserAuthDetailsWithEmail(request.email()));
-        AuthUtils.checkUserSuspended(authDetails.status());
-        passwordService.verifyPassword(new VerifyPasswordRequest(authDetails.userId(), request.password()));
+        AuthDetails authDetails;
+        try {
+            authDetails = fetchAuthDetails(() -> userService.getUserAuthDetailsWithEmail(request.email()));
+            AuthUtils.checkUserSuspended(authDetails.status());
+            passwordService.verifyPassword(new VerifyPasswordRequest(authDetails.userId(), request.password()));
+        } catch (CredentialsValidationException ex) {
+            credentialStuffingDetector.recordFailure(clientIp, request.email(), userAgent);
+            throw ex;
+        }
 
         generateAndSetAuthTokens(response, authDetails);
     }
 
     @Override
-    @Transactional
     public void refreshTokens(HttpServletRequest request, HttpServletResponse response) {
         logger.info("Refreshing auth tokens");
+        tokenRefreshMetrics.recordRefresh();
         String refreshToken = jwtService.extractRefreshToken(request);
 
         if (refreshToken == null || refreshToken.isEmpty()) {
@@ -52,16 +66,37 @@ public class AuthServiceImpl implements AuthService {
             throw new SessionExpiredException();
         }
 
-        jwtService.validateRefreshToken(refreshToken);
-        UUID userId = jwtService.extractUserIdFromToken(refreshToken, AuthUtils.REFRESH_TOKEN_NAME);
+        // Only the signature and expiry are checked here, the token's session is checked by the rotation itself
+        VerifiedToken presentedToken = jwtService.parseRefreshToken(refreshToken);
+        AuthTokens authTokens = tokenRefreshCoalescer.rotate(presentedToken.tokenId(), () -> rotateTokens(refreshToken),
+                // A pair from a rotation that was joined may predate the revocation of the user's sessions
+                () -> jwtService.checkSessionEpoch(presentedToken));
+        jwtService.setAuthCookies(response, authTokens);
+    }
+
+    private AuthTokens rotateTokens(String refreshToken) {
+        VerifiedToken verifiedToken = jwtService.validateRefreshToken(refreshToken);
 
-        AuthDetails authDetails = fetchAuthDetails(() -> userService.getUserAuthDetailsWithId(userId));
+        AuthDetails authDetails = fetchAuthDetails(() -> userService.getUserAuthDetailsWithId(verifiedToken.userId()));
         AuthUtils.checkUserSuspended(authDetails.status());
 
-        UUID tokenId = jwtService.extractRefreshTokenId(refreshToken);
-        generateAndSetAuthTokens(response, authDetails);
+        UUID tokenId = UUID.randomUUID();
+        RefreshTokenRotation rotation =
+                refreshTokenService.rotateRefreshToken(verifiedToken.tokenId(), tokenId, authDetails.userId());
+        checkRotation(rotation, authDetails.userId());
+
+        return jwtService.createAuthTokens(authDetails, tokenId);
+    }
 
-        refreshTokenService.deleteRefreshToken(tokenId);
+    private void checkRotation(RefreshTokenRotation rotation, UUID userId) {
+        if (rotation == RefreshTokenRotation.ROTATED) return;
+
+        if (rotation == RefreshTokenRotation.NOT_FOUND) {
+            // A validly signed token that is no longer stored has been used before, so it may have leaked
+            logger.warn("Refresh token reuse detected for User [userId: {}]", userId);
+            refreshTokenService.deleteUserRefreshTokens(userId);
+        }
+        throw new JwtTokenValidationException();
     }
 
     private AuthDetails fetchAuthDetails(Supplier<AuthDetails> supplier) {
@@ -82,10 +117,15 @@ public class AuthServiceImpl implements AuthService {
     public void logoutUser(HttpServletRequest request, HttpServletResponse response, UUID userId) {
         logger.info("Logging out User [userId: {}]", userId);
         try {
+            String accessToken = jwtService.extractAccessToken(request);
+            if (accessToken != null && !accessToken.isEmpty())
+                jwtService.revokeAccessToken(accessToken);
+
             String refreshToken = jwtService.extractRefreshToken(request);
             if (refreshToken != null && !refreshToken.isEmpty()) {
-                UUID tokenId = jwtService.extractRefreshTokenId(refreshToken);
-                refreshTokenService.deleteRefreshToken(tokenId);
+                VerifiedToken verifiedToken = jwtService.parseRefreshToken(refreshToken);
+                tokenRefreshCoalescer.invalidate(verifiedToken.tokenId());
+                refreshTokenService.revokeRefreshToken(verifiedToken.tokenId(), verifiedToken.userId());
             }
         } finally {
             jwtService.clearAuthCookies(response);
@@ -0,0 +1,137 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.*;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Supplier;
+
+/**
+ * Password encoder that hashes and verifies passwords on a dedicated pool of threads.
+ * <p>
+ * Password hashing is deliberately expensive, so running it on request and listener threads lets a burst of logins
+ * take every CPU and starve the cheap endpoints. Here it runs on a fixed number of threads with a bounded queue.
+ * When the queue is full, or a task has waited in it for longer than the maximum wait, the caller fails fast with
+ * {@link PasswordHashingUnavailableException} instead of piling up. Queue depth, busy threads, queue wait and
+ * rejections are exported as metrics.
+ *
+ * @author Marius Zilinskas
+ */
+public class BoundedPasswordEncoder implements PasswordEncoder {
+
+    private final PasswordEncoder delegate;
+    private final ThreadPoolExecutor executor;
+    private final long maxQueueWaitNanos;
+    private final Timer queueWait;
+    private final Counter rejectedQueueFull;
+    private final Counter rejectedQueueWait;
+
+    public BoundedPasswordEncoder(
+            PasswordEncoder delegate,
+            int threads,
+            int queueCapacity,
+            Duration maxQueueWait,
+            MeterRegistry meterRegistry
+    ) {
+        this.delegate = delegate;
+        this.executor = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), new HashingThreadFactory(), new ThreadPoolExecutor.AbortPolicy());
+        this.maxQueueWaitNanos = maxQueueWait.toNanos();
+
+        Gauge.builder("auth.password.hashing.queue.depth", executor, e -> e.getQueue().size())
+                .description("Password hashing tasks waiting for a thread")
+                .register(meterRegistry);
+        Gauge.builder("auth.password.hashing.active", executor, ThreadPoolExecutor::getActiveCount)
+                .description("Password hashing threads currently busy")
+                .register(meterRegistry);
+        this.queueWait = Timer.builder("auth.password.hashing.queue.wait")
+                .description("Time password hashing tasks spent waiting for a thread")
+                .register(meterRegistry);
+        this.rejectedQueueFull = rejectedCounter(meterRegistry, "queue_full");
+        this.rejectedQueueWait = rejectedCounter(meterRegistry, "queue_wait");
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, String reason) {
+        return Counter.builder("auth.password.hashing.rejected")
+                .description("Password hashing tasks turned away because the pool was saturated")
+                .tag("reason", reason)
+                .register(meterRegistry);
+    }
+
+    @Override
+    public String encode(CharSequence rawPassword) {
+        return execute(() -> delegate.encode(rawPassword));
+    }
+
+    @Override
+    public boolean matches(CharSequence rawPassword, String encodedPassword) {
+        return execute(() -> delegate.matches(rawPassword, encodedPassword));
+    }
+
+    @Override
+    public boolean upgradeEncoding(String encodedPassword) {
+        // Only inspects the hash, so it needs no thread of its own
+        return delegate.upgradeEncoding(encodedPassword);
+    }
+
+    private <T> T execute(Supplier<T> task) {
+        long submittedAt = System.nanoTime();
+        Future<T> future;
+        try {
+            future = executor.submit(() -> {
+                long waited = System.nanoTime() - submittedAt;
+                queueWait.record(waited, TimeUnit.NANOSECONDS);
+                // The caller has likely given up by now, so the hash would be wasted work
+                if (waited > maxQueueWaitNanos) {
+                    rejectedQueueWait.increment();
+                    throw new PasswordHashingUnavailableException();
+                }
+                return task.get();
+            });
+        } catch (RejectedExecutionException ex) {
+            rejectedQueueFull.increment();
+            throw new PasswordHashingUnavailableException();
+        }
+
+        try {
+            return future.get();
+        } catch (InterruptedException ex) {
+            future.cancel(true);
+            Thread.currentThread().interrupt();
+            throw new PasswordHashingUnavailableException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    /**
+     * Stops the pool once the application shuts down. Called by Spring, as the bean's inferred destroy method.
+     */
+    public void shutdown() {
+        executor.shutdown();
+    }
+
+    // ------------------------------------
+
+    private static final class HashingThreadFactory implements ThreadFactory {
+
+        private final AtomicInteger count = new AtomicInteger();
+
+        @Override
+        public Thread newThread(Runnable runnable) {
+            Thread thread = new Thread(runnable, "password-hashing-" + count.incrementAndGet());
+            thread.setDaemon(true);
+            return thread;
+        }
+
+    }
+
+}
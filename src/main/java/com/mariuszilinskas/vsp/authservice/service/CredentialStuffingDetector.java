@@ -0,0 +1,294 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.HeavyHitter;
+import com.mariuszilinskas.vsp.authservice.enums.LoginFailureDimension;
+import com.mariuszilinskas.vsp.authservice.exception.RateLimitExceededException;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.net.InetAddress;
+import java.net.UnknownHostException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.util.*;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+import java.util.function.LongSupplier;
+import java.util.regex.Pattern;
+
+/**
+ * Detects credential stuffing, where guesses are spread over many emails or client IPs so that
+ * neither the per-account lockout nor the per-key rate limits are reached.
+ * <p>
+ * Failed logins are counted by client IP prefix, email and user agent in a Count-Min sketch, so memory
+ * stays fixed however many distinct keys an attack uses. The sketch is split into slots covering a slice
+ * of the window each, and the oldest slot is replaced as time moves on, which makes the window slide.
+ * A login whose key is estimated at or above its dimension's threshold is rejected before any user lookup
+ * or password hashing. Count-Min estimates never undercount, but hash collisions can overcount, so the
+ * thresholds should stay well above what legitimate traffic produces.
+ * <p>
+ * The keys with the highest estimates in each dimension are also tracked, for the heavy hitters endpoint.
+ * Emails are normalized before they are counted, and only ever kept, listed and logged in masked form.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class CredentialStuffingDetector {
+
+    private static final Logger logger = LoggerFactory.getLogger(CredentialStuffingDetector.class);
+    private static final int WINDOW_SLOTS = 10;
+    private static final int DEPTH = 4;
+    private static final int MAX_KEY_LENGTH = 256;
+    private static final String NO_USER_AGENT = "(none)";
+    private static final Pattern IP_LITERAL = Pattern.compile("\\d{1,3}(\\.\\d{1,3}){3}|[0-9A-Fa-f.]*:[0-9A-Fa-f:.]*");
+
+    // A per-instance seed stops anyone from crafting keys that collide with a victim's email in every row
+    private final long seed = new SecureRandom().nextLong();
+    private final Map<LoginFailureDimension, Dimension> dimensions = new EnumMap<>(LoginFailureDimension.class);
+    private final AtomicReferenceArray<Slot> slots = new AtomicReferenceArray<>(WINDOW_SLOTS);
+    private final int width;
+    private final int topK;
+    private final long slotMillis;
+    private final LongSupplier clock;
+
+    @Autowired
+    public CredentialStuffingDetector(
+            MeterRegistry meterRegistry,
+            @Value("${app.credentialStuffingWindowSeconds:300}") long windowSeconds,
+            @Value("${app.credentialStuffingSketchWidth:4096}") int sketchWidth,
+            @Value("${app.credentialStuffingTopK:20}") int topK,
+            @Value("${app.credentialStuffingIpPrefixThreshold:100}") int ipPrefixThreshold,
+            @Value("${app.credentialStuffingEmailThreshold:20}") int emailThreshold,
+            @Value("${app.credentialStuffingUserAgentThreshold:0}") int userAgentThreshold
+    ) {
+        this(Duration.ofSeconds(windowSeconds).toMillis(), sketchWidth, topK, System::currentTimeMillis);
+        addDimension(meterRegistry, LoginFailureDimension.IP_PREFIX, ipPrefixThreshold);
+        addDimension(meterRegistry, LoginFailureDimension.EMAIL, emailThreshold);
+        addDimension(meterRegistry, LoginFailureDimension.USER_AGENT, userAgentThreshold);
+    }
+
+    CredentialStuffingDetector(long windowMillis, int sketchWidth, int topK, LongSupplier clock) {
+        if (windowMillis < WINDOW_SLOTS || sketchWidth < 1)
+            throw new IllegalArgumentException("Credential stuffing window and sketch width must be positive");
+        this.slotMillis = windowMillis / WINDOW_SLOTS;
+        this.width = sketchWidth;
+        this.topK = topK;
+        this.clock = clock;
+    }
+
+    /**
+     * Tracks failed logins by a dimension and sets the estimated failures per window at which its logins
+     * are rejected. A threshold of zero or less only tracks the dimension, without ever rejecting.
+     */
+    void addDimension(MeterRegistry meterRegistry, LoginFailureDimension dimension, int threshold) {
+        Counter rejected = Counter.builder("auth.credential.stuffing.rejected")
+                .description("Logins rejected for a key with too many failed logins")
+                .tag("dimension", dimension.name())
+                .register(meterRegistry);
+        dimensions.put(dimension, new Dimension(threshold, new HeavyHitters(), rejected));
+    }
+
+    /**
+     * Throws {@link RateLimitExceededException} if the login's IP prefix, email or user agent has reached its threshold.
+     */
+    public void checkLogin(String clientIp, String email, String userAgent) {
+        long epoch = currentEpoch();
+        for (Map.Entry<LoginFailureDimension, Dimension> entry : dimensions.entrySet()) {
+            Dimension dimension = entry.getValue();
+            if (dimension.threshold() <= 0) continue;
+
+            String key = keyOf(entry.getKey(), clientIp, email, userAgent);
+            long hash = hash(entry.getKey(), key);
+            if (estimate(hash, epoch) >= dimension.threshold()) {
+                logger.warn("Rejecting login for heavy hitter [{}: {}]", entry.getKey(), displayKey(entry.getKey(), key, hash));
+                dimension.rejected().increment();
+                // Counts only leave the window slot by slot, so retrying sooner cannot succeed
+                throw new RateLimitExceededException(Math.max(1, (slotMillis + 999) / 1000));
+            }
+        }
+    }
+
+    public void recordFailure(String clientIp, String email, String userAgent) {
+        long epoch = currentEpoch();
+        Slot slot = currentSlot(epoch);
+        for (Map.Entry<LoginFailureDimension, Dimension> entry : dimensions.entrySet()) {
+            String key = keyOf(entry.getKey(), clientIp, email, userAgent);
+            long hash = hash(entry.getKey(), key);
+            for (int row = 0; row < DEPTH; row++)
+                slot.counters().incrementAndGet(row * width + column(hash, row));
+            entry.getValue().heavyHitters().offer(displayKey(entry.getKey(), key, hash), hash, estimate(hash, epoch));
+        }
+    }
+
+    /**
+     * Returns each dimension's keys with the most failed logins in the current window, highest first.
+     */
+    public Map<LoginFailureDimension, List<HeavyHitter>> getHeavyHitters() {
+        long epoch = currentEpoch();
+        Map<LoginFailureDimension, List<HeavyHitter>> heavyHitters = new EnumMap<>(LoginFailureDimension.class);
+        dimensions.forEach((dimension, details) ->
+                heavyHitters.put(dimension, details.heavyHitters().snapshot(details.threshold(), epoch)));
+        return heavyHitters;
+    }
+
+    /**
+     * Estimates a key's failures in the window as the sum of its per-slot Count-Min estimates.
+     */
+    private long estimate(long hash, long epoch) {
+        long failures = 0;
+        for (int i = 0; i < WINDOW_SLOTS; i++) {
+            Slot slot = slots.get(i);
+            if (slot == null || slot.epoch() <= epoch - WINDOW_SLOTS) continue;
+
+            int min = Integer.MAX_VALUE;
+            for (int row = 0; row < DEPTH; row++)
+                min = Math.min(min, slot.counters().get(row * width + column(hash, row)));
+            failures += min;
+        }
+        return failures;
+    }
+
+    private Slot currentSlot(long epoch) {
+        int index = (int) (epoch % WINDOW_SLOTS);
+        while (true) {
+            Slot slot = slots.get(index);
+            // A slot from a newer epoch means this thread read the clock just before it moved on
+            if (slot != null && slot.epoch() >= epoch) return slot;
+
+            Slot fresh = new Slot(epoch, new AtomicIntegerArray(DEPTH * width));
+            if (slots.compareAndSet(index, slot, fresh)) return fresh;
+        }
+    }
+
+    private long currentEpoch() {
+        return clock.getAsLong() / slotMillis;
+    }
+
+    private int column(long hash, int row) {
+        long hash2 = mix(hash + 0x9E3779B97F4A7C15L) | 1;
+        return (int) Long.remainderUnsigned(hash + row * hash2, width);
+    }
+
+    /**
+     * FNV-1a over the key's characters, seeded per instance and dimension, then mixed.
+     */
+    private long hash(LoginFailureDimension dimension, String key) {
+        long hash = 0xCBF29CE484222325L ^ seed ^ dimension.ordinal();
+        for (int i = 0; i < key.length(); i++)
+            hash = (hash ^ key.charAt(i)) * 0x100000001B3L;
+        return mix(hash);
+    }
+
+    private static String keyOf(LoginFailureDimension dimension, String clientIp, String email, String userAgent) {
+        String key = switch (dimension) {
+            case IP_PREFIX -> ipPrefix(clientIp);
+            case EMAIL -> AuthUtils.normalizeEmail(email);
+            case USER_AGENT -> userAgent == null || userAgent.isBlank() ? NO_USER_AGENT : userAgent;
+        };
+        if (key == null) return "";
+        return key.length() > MAX_KEY_LENGTH ? key.substring(0, MAX_KEY_LENGTH) : key;
+    }
+
+    /**
+     * Returns the key as it may be logged or listed. Emails are masked down to their first character and domain,
+     * followed by a fingerprint of the seeded hash, which tells masked emails apart without revealing them.
+     */
+    private static String displayKey(LoginFailureDimension dimension, String key, long hash) {
+        if (dimension != LoginFailureDimension.EMAIL) return key;
+        return maskEmail(key) + "#" + String.format("%08x", hash >>> 32);
+    }
+
+    static String maskEmail(String email) {
+        int at = email.lastIndexOf('@');
+        if (at < 0) return "***";
+        return (at > 0 ? email.substring(0, 1) : "") + "***" + email.substring(at);
+    }
+
+    /**
+     * Returns the /24 network of an IPv4 address or the /48 network of an IPv6 address, as attacks
+     * commonly rotate through addresses within a range. Anything else is returned unchanged.
+     */
+    static String ipPrefix(String clientIp) {
+        // Only literals are parsed, as InetAddress would resolve a host name
+        if (clientIp == null || !IP_LITERAL.matcher(clientIp).matches()) return clientIp;
+        try {
+            byte[] address = InetAddress.getByName(clientIp).getAddress();
+            int prefixBytes = address.length == 4 ? 3 : 6;
+            Arrays.fill(address, prefixBytes, address.length, (byte) 0);
+            return InetAddress.getByAddress(address).getHostAddress() + "/" + prefixBytes * 8;
+        } catch (UnknownHostException ex) {
+            return clientIp;
+        }
+    }
+
+    /**
+     * Stafford variant 13 of the MurmurHash3 finaliser.
+     */
+    private static long mix(long value) {
+        value = (value ^ (value >>> 30)) * 0xBF58476D1CE4E5B9L;
+        value = (value ^ (value >>> 27)) * 0x94D049BB133111EBL;
+        return value ^ (value >>> 31);
+    }
+
+    // ------------------------------------
+
+    private record Slot(long epoch, AtomicIntegerArray counters) {}
+
+    private record Dimension(int threshold, HeavyHitters heavyHitters, Counter rejected) {}
+
+    /**
+     * The keys with the highest estimates seen so far, up to top K. Only failed logins update it,
+     * and those have already paid for a user lookup or a password hash, so a lock is cheap here.
+     */
+    private final class HeavyHitters {
+
+        private final Map<String, Long> hashes = new HashMap<>(); // display key to hash, guarded by this
+
+        synchronized void offer(String key, long hash, long failures) {
+            if (hashes.containsKey(key)) return;
+            if (hashes.size() < topK) {
+                hashes.put(key, hash);
+                return;
+            }
+
+            // Estimates of the tracked keys age as the window slides, so they are taken afresh
+            long epoch = currentEpoch();
+            String minKey = null;
+            long minFailures = Long.MAX_VALUE;
+            for (Map.Entry<String, Long> entry : hashes.entrySet()) {
+                long estimate = estimate(entry.getValue(), epoch);
+                if (estimate < minFailures) {
+                    minKey = entry.getKey();
+                    minFailures = estimate;
+                }
+            }
+            if (minKey != null && failures > minFailures) {
+                hashes.remove(minKey);
+                hashes.put(key, hash);
+            }
+        }
+
+        List<HeavyHitter> snapshot(int threshold, long epoch) {
+            Map<String, Long> tracked;
+            synchronized (this) {
+                tracked = new HashMap<>(hashes);
+            }
+            List<HeavyHitter> heavyHitters = new ArrayList<>();
+            tracked.forEach((key, hash) -> {
+                long failures = estimate(hash, epoch);
+                if (failures > 0)
+                    heavyHitters.add(new HeavyHitter(key, failures, threshold > 0 && failures >= threshold));
+            });
+            heavyHitters.sort(Comparator.comparingLong(HeavyHitter::failures).reversed());
+            return heavyHitters;
+        }
+
+    }
+
+}
@@ -0,0 +1,23 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.DataDeletionJobResponse;
+
+import java.io.InputStream;
+import java.util.Optional;
+import java.util.UUID;
+
+public interface DataDeletionJobService {
+
+    DataDeletionJobResponse createJob(InputStream userIds);
+
+    DataDeletionJobResponse getJob(UUID jobId);
+
+    boolean hasActiveJobs();
+
+    Optional<UUID> findNextJobId();
+
+    int processNextChunk(UUID jobId, int chunkSize);
+
+    void failJob(UUID jobId, String error);
+
+}
@@ -0,0 +1,178 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.DataDeletionJobResponse;
+import com.mariuszilinskas.vsp.authservice.enums.DataDeletionJobStatus;
+import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
+import com.mariuszilinskas.vsp.authservice.exception.UserIdsValidationException;
+import com.mariuszilinskas.vsp.authservice.model.DataDeletionJob;
+import com.mariuszilinskas.vsp.authservice.repository.DataDeletionJobRepository;
+import com.mariuszilinskas.vsp.authservice.repository.DataDeletionJobUserRepository;
+import jakarta.transaction.Transactional;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Service implementation for managing bulk data deletion jobs.
+ * <p>
+ * A job is created from a stream of user ids, one or more per line, separated by commas or whitespace.
+ * The ids are written to the job as they are read, a batch at a time, so a large upload is never held in memory.
+ * The job itself is run in the background, see {@code DataDeletionJobRunner}.
+ *
+ * @author Marius Zilinskas
+ */
+@Service
+public class DataDeletionJobServiceImpl implements DataDeletionJobService {
+
+    private static final Logger logger = LoggerFactory.getLogger(DataDeletionJobServiceImpl.class);
+    private static final Set<DataDeletionJobStatus> ACTIVE_STATUSES =
+            EnumSet.of(DataDeletionJobStatus.PENDING, DataDeletionJobStatus.RUNNING);
+    private static final Pattern SEPARATOR = Pattern.compile("[,\\s]+");
+    private static final int UUID_LENGTH = 36;
+    private static final int INSERT_BATCH_SIZE = 1000;
+    private static final int MAX_ERROR_LENGTH = 500;
+
+    private final DataDeletionJobRepository dataDeletionJobRepository;
+    private final DataDeletionJobUserRepository dataDeletionJobUserRepository;
+    private final DataDeletionService dataDeletionService;
+    private final int maxUsersPerJob;
+
+    public DataDeletionJobServiceImpl(
+            DataDeletionJobRepository dataDeletionJobRepository,
+            DataDeletionJobUserRepository dataDeletionJobUserRepository,
+            DataDeletionService dataDeletionService,
+            @Value("${app.dataDeletionJobMaxUsers:1000000}") int maxUsersPerJob
+    ) {
+        this.dataDeletionJobRepository = dataDeletionJobRepository;
+        this.dataDeletionJobUserRepository = dataDeletionJobUserRepository;
+        this.dataDeletionService = dataDeletionService;
+        this.maxUsersPerJob = maxUsersPerJob;
+    }
+
+    @Override
+    @Transactional
+    public DataDeletionJobResponse createJob(InputStream userIds) {
+        // Flushed straight away, as the job's users reference it
+        DataDeletionJob job = dataDeletionJobRepository.saveAndFlush(new DataDeletionJob());
+
+        int totalUsers = 0;
+        int readUsers = 0;
+        List<UUID> batch = new ArrayList<>(INSERT_BATCH_SIZE);
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(userIds, StandardCharsets.UTF_8))) {
+            String line;
+            int lineNumber = 0;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                for (String value : SEPARATOR.split(line.strip())) {
+                    if (value.isEmpty()) continue;
+                    if (++readUsers > maxUsersPerJob)
+                        throw new UserIdsValidationException("A job can delete at most " + maxUsersPerJob + " users.");
+
+                    batch.add(parseUserId(value, lineNumber));
+                    if (batch.size() == INSERT_BATCH_SIZE) {
+                        totalUsers += dataDeletionJobUserRepository.addUsers(job.getId(), batch);
+                        batch.clear();
+                    }
+                }
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException("Failed to read User IDs", ex);
+        }
+        totalUsers += dataDeletionJobUserRepository.addUsers(job.getId(), batch);
+
+        if (totalUsers == 0)
+            throw new UserIdsValidationException("No User IDs provided.");
+
+        job.setTotalUsers(totalUsers);
+        logger.info("Created Data Deletion Job for {} Users [jobId: '{}']", totalUsers, job.getId());
+        return DataDeletionJobResponse.from(dataDeletionJobRepository.save(job));
+    }
+
+    /**
+     * Parses a user id, rejecting the shortened forms that {@link UUID#fromString} would accept.
+     */
+    private static UUID parseUserId(String value, int lineNumber) {
+        try {
+            if (value.length() == UUID_LENGTH)
+                return UUID.fromString(value);
+        } catch (IllegalArgumentException ignored) {
+            // Reported below
+        }
+        throw new UserIdsValidationException("Invalid User ID on line " + lineNumber + ": '" + value + "'.");
+    }
+
+    @Override
+    public DataDeletionJobResponse getJob(UUID jobId) {
+        return DataDeletionJobResponse.from(findJob(jobId));
+    }
+
+    @Override
+    public boolean hasActiveJobs() {
+        return dataDeletionJobRepository.existsByStatusIn(ACTIVE_STATUSES);
+    }
+
+    @Override
+    public Optional<UUID> findNextJobId() {
+        return dataDeletionJobRepository.findFirstByStatusInOrderByCreatedAtAsc(ACTIVE_STATUSES)
+                .map(DataDeletionJob::getId);
+    }
+
+    /**
+     * Deletes the auth data of the job's next chunk of users and records the progress, all in one transaction.
+     * The job is done once a chunk comes back short. Returns the number of users processed.
+     */
+    @Override
+    @Transactional
+    public int processNextChunk(UUID jobId, int chunkSize) {
+        DataDeletionJob job = findJob(jobId);
+        if (job.getStatus() == DataDeletionJobStatus.PENDING) {
+            logger.info("Starting Data Deletion Job [jobId: '{}']", jobId);
+            job.setStatus(DataDeletionJobStatus.RUNNING);
+            job.setStartedAt(Instant.now());
+        }
+
+        List<UUID> userIds = dataDeletionJobUserRepository.takeUsers(jobId, chunkSize);
+        if (!userIds.isEmpty()) {
+            job.setDeletedRows(job.getDeletedRows() + dataDeletionService.deleteUsersAuthData(userIds));
+            job.setProcessedUsers(job.getProcessedUsers() + userIds.size());
+        }
+
+        if (userIds.size() < chunkSize) {
+            job.setStatus(DataDeletionJobStatus.SUCCEEDED);
+            job.setFinishedAt(Instant.now());
+            logger.info("Data Deletion Job finished, deleted {} rows for {} Users [jobId: '{}']",
+                    job.getDeletedRows(), job.getProcessedUsers(), jobId);
+        }
+
+        dataDeletionJobRepository.save(job);
+        return userIds.size();
+    }
+
+    @Override
+    @Transactional
+    public void failJob(UUID jobId, String error) {
+        logger.error("Data Deletion Job failed [jobId: '{}']: {}", jobId, error);
+        DataDeletionJob job = findJob(jobId);
+        job.setStatus(DataDeletionJobStatus.FAILED);
+        job.setFinishedAt(Instant.now());
+        job.setLastError(error.length() <= MAX_ERROR_LENGTH ? error : error.substring(0, MAX_ERROR_LENGTH));
+        dataDeletionJobRepository.save(job);
+    }
+
+    private DataDeletionJob findJob(UUID jobId) {
+        return dataDeletionJobRepository.findById(jobId)
+                .orElseThrow(() -> new ResourceNotFoundException(DataDeletionJob.class, "id", jobId));
+    }
+
+}
@@ -1,9 +1,12 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import java.util.Collection;
 import java.util.UUID;
 
 public interface DataDeletionService {
 
     void deleteUserAuthData(UUID userId);
 
+    int deleteUsersAuthData(Collection<UUID> userIds);
+
 }
@@ -1,15 +1,22 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.repository.UserAuthDataRepository;
 import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.stereotype.Service;
 
+import java.util.Collection;
+import java.util.LinkedHashSet;
+import java.util.List;
 import java.util.UUID;
 
 /**
  * Service implementation for managing User Auth Data deletion.
+ * <p>
+ * All of a batch's passcodes, passwords, reset tokens and refresh tokens are deleted in a single statement,
+ * and its users' sessions revoked in another, so a bulk account purge costs at most two round trips per batch.
  *
  * @author Marius Zilinskas
  */
@@ -18,20 +25,30 @@ import java.util.UUID;
 public class DataDeletionServiceImpl implements DataDeletionService {
 
     private static final Logger logger = LoggerFactory.getLogger(DataDeletionServiceImpl.class);
-    private final PasscodeService passcodeService;
-    private final PasswordService passwordService;
-    private final ResetTokenService resetTokenService;
-    private final RefreshTokenService refreshTokenService;
+    private final UserAuthDataRepository userAuthDataRepository;
+    private final SessionEpochService sessionEpochService;
 
     @Override
     @Transactional
     public void deleteUserAuthData(UUID userId) {
         logger.info("Deleting all Auth Data for User [userId: '{}']", userId);
+        deleteAuthData(List.of(userId));
+    }
+
+    @Override
+    @Transactional
+    public int deleteUsersAuthData(Collection<UUID> userIds) {
+        logger.info("Deleting all Auth Data for {} Users", userIds.size());
+        return deleteAuthData(new LinkedHashSet<>(userIds));
+    }
+
+    private int deleteAuthData(Collection<UUID> userIds) {
+        if (userIds.isEmpty()) return 0;
 
-        passcodeService.deleteUserPasscodes(userId);
-        passwordService.deleteUserPasswords(userId);
-        resetTokenService.deleteUserResetTokens(userId);
-        refreshTokenService.deleteUserRefreshTokens(userId);
+        int deleted = userAuthDataRepository.deleteUserAuthData(userIds);
+        sessionEpochService.revokeSessionsNow(userIds);
+        logger.info("Deleted {} Auth Data rows for {} Users", deleted, userIds.size());
+        return deleted;
     }
 
 }
@@ -0,0 +1,211 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.JsonWebKey;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtParser;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.SigningKeyResolverAdapter;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.security.SignatureException;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.context.config.annotation.RefreshScope;
+import org.springframework.stereotype.Component;
+
+import java.security.GeneralSecurityException;
+import java.security.Key;
+import java.security.KeyFactory;
+import java.security.PublicKey;
+import java.security.interfaces.ECPublicKey;
+import java.security.spec.PKCS8EncodedKeySpec;
+import java.security.spec.X509EncodedKeySpec;
+import java.util.*;
+import java.util.regex.Pattern;
+
+/**
+ * Holds the decoded JWT signing keys and a ready-made, thread-safe parser for each token type.
+ * Keys are decoded once per (re)load instead of on every sign and verify.
+ * <p>
+ * Every token type has one active key, used for signing and identified by the {@code kid} header,
+ * plus any number of previous keys that are still accepted for verification. Rotating a key is
+ * a config change followed by a refresh, which rebuilds this bean without restarting the service.
+ * <p>
+ * Access tokens are signed either with the shared HMAC secret (HS384) or with an EC private key (ES256).
+ * In ES256 mode the public keys are published as a JWKS, so other services can verify access tokens locally.
+ * Refresh tokens are only ever read by this service and always use HMAC.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+@RefreshScope
+public class JwtKeyRing {
+
+    private static final Pattern KEY_ID_PATTERN = Pattern.compile("[A-Za-z0-9._-]+");
+
+    private final KeySet accessKeys;
+    private final KeySet refreshKeys;
+
+    public JwtKeyRing(
+            @Value("${app.accessTokenAlgorithm:HS384}") JwtSigningAlgorithm accessTokenAlgorithm,
+            @Value("${app.accessTokenSecret:}") String accessTokenSecret,
+            @Value("${app.accessTokenPrivateKey:}") String accessTokenPrivateKey,
+            @Value("${app.accessTokenPublicKey:}") String accessTokenPublicKey,
+            @Value("${app.accessTokenKeyId:primary}") String accessTokenKeyId,
+            @Value("${app.accessTokenPreviousKeys:}") String accessTokenPreviousKeys,
+            @Value("${app.refreshTokenSecret}") String refreshTokenSecret,
+            @Value("${app.refreshTokenKeyId:primary}") String refreshTokenKeyId,
+            @Value("${app.refreshTokenPreviousKeys:}") String refreshTokenPreviousKeys
+    ) {
+        this.accessKeys = accessTokenAlgorithm == JwtSigningAlgorithm.ES256
+                ? buildEcKeySet(accessTokenKeyId, accessTokenPrivateKey, accessTokenPublicKey, accessTokenPreviousKeys)
+                : buildHmacKeySet(accessTokenKeyId, accessTokenSecret, accessTokenPreviousKeys, SignatureAlgorithm.HS384);
+        this.refreshKeys = buildHmacKeySet(refreshTokenKeyId, refreshTokenSecret, refreshTokenPreviousKeys, null);
+    }
+
+    public Key getSigningKey(String tokenName) {
+        return getKeySet(tokenName).signingKey();
+    }
+
+    public String getKeyId(String tokenName) {
+        return getKeySet(tokenName).keyId();
+    }
+
+    public SignatureAlgorithm getSignatureAlgorithm(String tokenName) {
+        return getKeySet(tokenName).algorithm();
+    }
+
+    public JwtParser getParser(String tokenName) {
+        return getKeySet(tokenName).parser();
+    }
+
+    /**
+     * Returns the public access token keys as JWKs. Empty in HMAC mode, as shared secrets are never published.
+     */
+    public List<JsonWebKey> getPublicKeys() {
+        return accessKeys.publicKeys();
+    }
+
+    private KeySet getKeySet(String tokenName) {
+        return AuthUtils.REFRESH_TOKEN_NAME.equals(tokenName) ? refreshKeys : accessKeys;
+    }
+
+    /**
+     * Builds an HMAC key set from the active secret and the previous keys,
+     * given as a comma separated list of {@code kid:base64Secret} pairs.
+     * Without an explicit algorithm the strongest one the secret allows is used.
+     */
+    private static KeySet buildHmacKeySet(String keyId, String secret, String previousKeys, SignatureAlgorithm algorithm) {
+        checkKeyId(keyId);
+        Key signingKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret));
+
+        Map<String, Key> verificationKeys = new HashMap<>();
+        parsePreviousKeys(previousKeys).forEach((kid, value) ->
+                verificationKeys.put(kid, Keys.hmacShaKeyFor(Decoders.BASE64.decode(value))));
+        verificationKeys.put(keyId, signingKey);
+
+        if (algorithm == null)
+            algorithm = SignatureAlgorithm.forSigningKey(signingKey);
+        return new KeySet(keyId, signingKey, algorithm, buildParser(keyId, verificationKeys), List.of());
+    }
+
+    /**
+     * Builds an ES256 key set from a PKCS#8 private key, its X.509 public key and the previous public keys,
+     * given as a comma separated list of {@code kid:base64PublicKey} pairs.
+     */
+    private static KeySet buildEcKeySet(String keyId, String privateKey, String publicKey, String previousKeys) {
+        checkKeyId(keyId);
+        try {
+            KeyFactory keyFactory = KeyFactory.getInstance("EC");
+            Key signingKey = keyFactory.generatePrivate(new PKCS8EncodedKeySpec(decodePem(privateKey)));
+
+            Map<String, Key> verificationKeys = new LinkedHashMap<>();
+            verificationKeys.put(keyId, keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(publicKey))));
+            for (Map.Entry<String, String> entry : parsePreviousKeys(previousKeys).entrySet()) {
+                PublicKey previousKey = keyFactory.generatePublic(new X509EncodedKeySpec(decodePem(entry.getValue())));
+                verificationKeys.putIfAbsent(entry.getKey(), previousKey);
+            }
+
+            List<JsonWebKey> publicKeys = verificationKeys.entrySet().stream()
+                    .map(entry -> toJsonWebKey(entry.getKey(), (ECPublicKey) entry.getValue()))
+                    .toList();
+
+            return new KeySet(keyId, signingKey, SignatureAlgorithm.ES256, buildParser(keyId, verificationKeys), publicKeys);
+        } catch (GeneralSecurityException | ClassCastException ex) {
+            throw new IllegalArgumentException("Invalid ES256 access token key configuration", ex);
+        }
+    }
+
+    private static Map<String, String> parsePreviousKeys(String previousKeys) {
+        Map<String, String> keys = new LinkedHashMap<>();
+        if (previousKeys == null || previousKeys.isBlank()) return keys;
+
+        for (String entry : previousKeys.split(",")) {
+            String[] parts = entry.trim().split(":", 2);
+            if (parts.length != 2)
+                throw new IllegalArgumentException("JWT previous keys must be formatted as 'kid:key'");
+            checkKeyId(parts[0]);
+            keys.put(parts[0], parts[1]);
+        }
+        return keys;
+    }
+
+    /**
+     * Key ids are written into token headers verbatim, so they are limited to characters that need no JSON escaping.
+     */
+    private static void checkKeyId(String keyId) {
+        if (keyId == null || !KEY_ID_PATTERN.matcher(keyId).matches())
+            throw new IllegalArgumentException("JWT key id must match " + KEY_ID_PATTERN.pattern());
+    }
+
+    private static byte[] decodePem(String key) {
+        String base64 = key.replaceAll("-----[A-Z ]+-----", "").replaceAll("\\s", "");
+        return Base64.getDecoder().decode(base64);
+    }
+
+    private static JsonWebKey toJsonWebKey(String keyId, ECPublicKey publicKey) {
+        Base64.Encoder encoder = Base64.getUrlEncoder().withoutPadding();
+        String x = encoder.encodeToString(toUnsignedBytes(publicKey.getW().getAffineX().toByteArray()));
+        String y = encoder.encodeToString(toUnsignedBytes(publicKey.getW().getAffineY().toByteArray()));
+        return new JsonWebKey("EC", "P-256", x, y, "sig", SignatureAlgorithm.ES256.getValue(), keyId);
+    }
+
+    /**
+     * Left pads or trims a big-endian coordinate to the 32 bytes required for P-256 JWK coordinates.
+     */
+    private static byte[] toUnsignedBytes(byte[] value) {
+        byte[] result = new byte[32];
+        int length = Math.min(value.length, result.length);
+        System.arraycopy(value, value.length - length, result, result.length - length, length);
+        return result;
+    }
+
+    private static JwtParser buildParser(String activeKeyId, Map<String, Key> keys) {
+        Map<String, Key> verificationKeys = Map.copyOf(keys);
+        return Jwts.parserBuilder()
+                .setSigningKeyResolver(new SigningKeyResolverAdapter() {
+                    @Override
+                    public Key resolveSigningKey(JwsHeader header, Claims claims) {
+                        // Tokens issued before key ids were introduced carry no kid and use the active key
+                        String keyId = header.getKeyId() == null ? activeKeyId : header.getKeyId();
+                        Key key = verificationKeys.get(keyId);
+                        if (key == null)
+                            throw new SignatureException("Unknown JWT key id: " + keyId);
+                        return key;
+                    }
+                })
+                .build();
+    }
+
+    private record KeySet(
+            String keyId,
+            Key signingKey,
+            SignatureAlgorithm algorithm,
+            JwtParser parser,
+            List<JsonWebKey> publicKeys
+    ) {}
+
+}
@@ -1,6 +1,8 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.AuthTokens;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 
@@ -14,18 +16,24 @@ public interface JwtService {
 
     void setAuthCookies(HttpServletResponse response, AuthDetails authDetails, UUID tokenId);
 
+    AuthTokens createAuthTokens(AuthDetails authDetails, UUID tokenId);
+
+    void setAuthCookies(HttpServletResponse response, AuthTokens authTokens);
+
     void clearAuthCookies(HttpServletResponse response);
 
     String extractAccessToken(HttpServletRequest request);
 
     String extractRefreshToken(HttpServletRequest request);
 
-    void validateAccessToken(String token);
+    VerifiedToken validateAccessToken(String token);
+
+    VerifiedToken validateRefreshToken(String token);
 
-    void validateRefreshToken(String token);
+    VerifiedToken parseRefreshToken(String token);
 
-    UUID extractUserIdFromToken(String token, String tokenName);
+    void checkSessionEpoch(VerifiedToken verifiedToken);
 
-    UUID extractRefreshTokenId(String token);
+    void revokeAccessToken(String token);
 
 }
@@ -1,16 +1,25 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.AuthTokens;
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
 import com.mariuszilinskas.vsp.authservice.exception.JwtTokenGenerationException;
 import com.mariuszilinskas.vsp.authservice.exception.JwtTokenValidationException;
-import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
+import com.mariuszilinskas.vsp.authservice.producer.RabbitMQProducer;
 import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.EnumBitmask;
 import io.jsonwebtoken.Claims;
 import io.jsonwebtoken.Jws;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtBuilder;
 import io.jsonwebtoken.JwtException;
 import io.jsonwebtoken.Jwts;
-import io.jsonwebtoken.io.Decoders;
-import io.jsonwebtoken.security.Keys;
+import io.jsonwebtoken.RequiredTypeException;
 import jakarta.servlet.http.Cookie;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
@@ -21,10 +30,8 @@ import org.springframework.beans.factory.annotation.Value;
 import org.springframework.http.ResponseCookie;
 import org.springframework.stereotype.Service;
 
-import javax.crypto.SecretKey;
 import java.time.Instant;
 import java.util.*;
-import java.util.function.Function;
 import java.util.stream.Collectors;
 
 /**
@@ -41,24 +48,47 @@ public class JwtServiceImpl implements JwtService {
     @Value("${app.environment:production}")
     private String environment;
 
-    @Value("${app.accessTokenSecret}")
-    private String accessTokenSecret;
+    @Value("${app.accessTokenProfile:STANDARD}")
+    private AccessTokenProfile accessTokenProfile = AccessTokenProfile.STANDARD;
 
-    @Value("${app.refreshTokenSecret}")
-    private String refreshTokenSecret;
+    @Value("${app.refreshTokenMode:STATEFUL}")
+    private RefreshTokenMode refreshTokenMode = RefreshTokenMode.STATEFUL;
 
-    private final RefreshTokenService refreshTokenService;
+    private final JwtKeyRing jwtKeyRing;
+    private final AccessTokenMinter accessTokenMinter;
+    private final TokenLifetimePolicy tokenLifetimePolicy;
+    private final SessionEpochService sessionEpochService;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final RabbitMQProducer rabbitMQProducer;
 
     @Override
     public String generateAccessToken(AuthDetails authDetails) {
+        return generateAccessToken(authDetails, tokenLifetimePolicy.accessTokenLifetime(System.currentTimeMillis()));
+    }
+
+    private String generateAccessToken(AuthDetails authDetails, TokenLifetime lifetime) {
+        UUID jwtId = UUID.randomUUID();
+        if (jwtKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME).isHmac())
+            return accessTokenMinter.mint(authDetails, jwtId, lifetime);
+
         try {
-            return Jwts.builder()
+            JwtBuilder builder = Jwts.builder()
+                    .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getKeyId(AuthUtils.ACCESS_TOKEN_NAME))
                     .setSubject(authDetails.userId().toString())
-                    .setIssuedAt(new Date())
-                    .setExpiration(createExpirationDate(AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS))
-                    .claim("roles", convertListToString(authDetails.roles()))
-                    .claim("authorities", convertListToString(authDetails.authorities()))
-                    .signWith(getAccessTokenSecret())
+                    .setIssuedAt(new Date(lifetime.issuedAtMillis()))
+                    .setExpiration(new Date(lifetime.expiresAtMillis()))
+                    .setId(jwtId.toString())
+                    .claim(AuthUtils.REFRESH_AFTER_CLAIM, lifetime.refreshAfterMillis() / 1000);
+            if (accessTokenProfile == AccessTokenProfile.COMPACT)
+                builder.claim(AuthUtils.COMPACT_ROLES_CLAIM, EnumBitmask.encode(authDetails.roles()))
+                        .claim(AuthUtils.COMPACT_AUTHORITIES_CLAIM, EnumBitmask.encode(authDetails.authorities()));
+            else
+                builder.claim(AuthUtils.ROLES_CLAIM, convertListToString(authDetails.roles()))
+                        .claim(AuthUtils.AUTHORITIES_CLAIM, convertListToString(authDetails.authorities()));
+
+            return builder
+                    .signWith(jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME),
+                            jwtKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME))
                     .compact();
         } catch (JwtException ex) {
             throw new JwtTokenGenerationException("Access Token");
@@ -67,23 +97,27 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public String generateRefreshToken(UUID tokenId, AuthDetails authDetails) {
+        return generateRefreshToken(tokenId, authDetails, tokenLifetimePolicy.refreshTokenLifetime(System.currentTimeMillis()));
+    }
+
+    private String generateRefreshToken(UUID tokenId, AuthDetails authDetails, TokenLifetime lifetime) {
         try {
             return Jwts.builder()
+                    .setHeaderParam(JwsHeader.KEY_ID, jwtKeyRing.getKeyId(AuthUtils.REFRESH_TOKEN_NAME))
                     .setSubject(authDetails.userId().toString())
-                    .setIssuedAt(new Date())
-                    .setExpiration(createExpirationDate(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS))
+                    .setIssuedAt(new Date(lifetime.issuedAtMillis()))
+                    .setExpiration(new Date(lifetime.expiresAtMillis()))
                     .claim("tokenId", tokenId.toString())
-                    .signWith(getRefreshTokenSecret())
+                    // iat has second precision, too coarse to tell a new login from a revocation in the same second
+                    .claim(AuthUtils.ISSUED_AT_MILLIS_CLAIM, lifetime.issuedAtMillis())
+                    .signWith(jwtKeyRing.getSigningKey(AuthUtils.REFRESH_TOKEN_NAME),
+                            jwtKeyRing.getSignatureAlgorithm(AuthUtils.REFRESH_TOKEN_NAME))
                     .compact();
         } catch (JwtException ex) {
             throw new JwtTokenGenerationException("Refresh Token");
         }
     }
 
-    private static Date createExpirationDate(long expirationTime) {
-        return new Date((new Date()).getTime() + expirationTime);
-    }
-
     private <T> List<String> convertListToString(List<T> list) {
         return list.stream()
                 .map(Object::toString)
@@ -92,21 +126,39 @@ public class JwtServiceImpl implements JwtService {
 
     @Override
     public void setAuthCookies(HttpServletResponse response, AuthDetails authDetails, UUID tokenId) {
-        response.addHeader("Set-Cookie", createAccessCookie(authDetails).toString());
-        response.addHeader("Set-Cookie", createRefreshCookie(tokenId, authDetails).toString());
+        setAuthCookies(response, createAuthTokens(authDetails, tokenId));
         logger.info("Auth cookies set for user id: {}", authDetails.userId());
     }
 
-    private ResponseCookie createAccessCookie(AuthDetails authDetails) {
-        String accessToken = generateAccessToken(authDetails);
-        int accessTokenMaxAge = (int) (AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS / 1000);
-        return buildCookie(AuthUtils.ACCESS_TOKEN_NAME, accessToken, accessTokenMaxAge);
+    @Override
+    public AuthTokens createAuthTokens(AuthDetails authDetails, UUID tokenId) {
+        long now = System.currentTimeMillis();
+        TokenLifetime accessTokenLifetime = tokenLifetimePolicy.accessTokenLifetime(now);
+        TokenLifetime refreshTokenLifetime = tokenLifetimePolicy.refreshTokenLifetime(now);
+
+        return new AuthTokens(
+                createAccessCookie(authDetails, accessTokenLifetime).toString(),
+                createRefreshCookie(tokenId, authDetails, refreshTokenLifetime).toString(),
+                accessTokenLifetime.refreshAfterMillis() / 1000
+        );
+    }
+
+    @Override
+    public void setAuthCookies(HttpServletResponse response, AuthTokens authTokens) {
+        response.addHeader("Set-Cookie", authTokens.accessCookie());
+        response.addHeader("Set-Cookie", authTokens.refreshCookie());
+        // The access token cookie is HttpOnly, so clients learn when to refresh from this header
+        response.setHeader(AuthUtils.REFRESH_AFTER_HEADER, String.valueOf(authTokens.refreshAfterSeconds()));
+    }
+
+    private ResponseCookie createAccessCookie(AuthDetails authDetails, TokenLifetime lifetime) {
+        String accessToken = generateAccessToken(authDetails, lifetime);
+        return buildCookie(AuthUtils.ACCESS_TOKEN_NAME, accessToken, lifetime.maxAgeSeconds());
     }
 
-    private ResponseCookie createRefreshCookie( UUID tokenId, AuthDetails authDetails) {
-        String refreshToken = generateRefreshToken(tokenId, authDetails);
-        int refreshTokenMaxAge = (int) (AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS / 1000);
-        return buildCookie(AuthUtils.REFRESH_TOKEN_NAME, refreshToken, refreshTokenMaxAge);
+    private ResponseCookie createRefreshCookie(UUID tokenId, AuthDetails authDetails, TokenLifetime lifetime) {
+        String refreshToken = generateRefreshToken(tokenId, authDetails, lifetime);
+        return buildCookie(AuthUtils.REFRESH_TOKEN_NAME, refreshToken, lifetime.maxAgeSeconds());
     }
 
     private ResponseCookie buildCookie(String name, String value, int maxAge) {
@@ -159,82 +211,127 @@ public class JwtServiceImpl implements JwtService {
     }
 
     @Override
-    public void validateAccessToken(String token) {
-        checkTokenExpiration(token, AuthUtils.ACCESS_TOKEN_NAME);
+    public VerifiedToken validateAccessToken(String token) {
+        VerifiedToken verifiedToken = verifyToken(token, AuthUtils.ACCESS_TOKEN_NAME);
+        if (verifiedToken.jwtId() != null && accessTokenDenylist.isRevoked(verifiedToken.jwtId()))
+            throw new JwtTokenValidationException();
+        return verifiedToken;
     }
 
     @Override
-    public void validateRefreshToken(String token) {
-        checkTokenExpiration(token, AuthUtils.REFRESH_TOKEN_NAME);
-        checkValidRefreshTokenExists(token);
+    public VerifiedToken validateRefreshToken(String token) {
+        VerifiedToken verifiedToken = parseRefreshToken(token);
+        // Revoking a stored token deletes it, which its rotation finds out, so only stateless tokens need the epoch
+        if (refreshTokenMode == RefreshTokenMode.STATELESS)
+            checkSessionEpoch(verifiedToken);
+        return verifiedToken;
     }
 
-    protected void checkTokenExpiration(String token, String tokenName) {
-        Date expiration = extractClaim(token, Claims::getExpiration, tokenName);
-        if (expiration.before(new Date()))
+    @Override
+    public VerifiedToken parseRefreshToken(String token) {
+        VerifiedToken verifiedToken = verifyToken(token, AuthUtils.REFRESH_TOKEN_NAME);
+        if (verifiedToken.tokenId() == null)
             throw new JwtTokenValidationException();
+        return verifiedToken;
     }
 
-    private void checkValidRefreshTokenExists(String token) {
-        UUID tokenId = extractRefreshTokenId(token);
-        RefreshToken refreshToken = refreshTokenService.getRefreshToken(tokenId);
+    @Override
+    public void revokeAccessToken(String token) {
+        VerifiedToken verifiedToken;
+        try {
+            verifiedToken = verifyToken(token, AuthUtils.ACCESS_TOKEN_NAME);
+        } catch (JwtTokenValidationException ex) {
+            return; // Invalid or expired tokens are already unusable
+        }
+        if (verifiedToken.jwtId() == null) return;
+
+        accessTokenDenylist.revoke(verifiedToken.jwtId());
+        rabbitMQProducer.sendRevokeAccessTokenMessage(verifiedToken.jwtId());
+        logger.info("Access Token revoked for user id: {}", verifiedToken.userId());
+    }
 
-        if (refreshToken == null) {
-            UUID userId = extractUserIdFromToken(token, AuthUtils.REFRESH_TOKEN_NAME);
-            refreshTokenService.deleteUserRefreshTokens(userId);
+    /**
+     * Rejects tokens issued at or before the user's (or the global) session epoch. This is normally served
+     * from cache.
+     */
+    @Override
+    public void checkSessionEpoch(VerifiedToken verifiedToken) {
+        Instant validAfter = sessionEpochService.getSessionsValidAfter(verifiedToken.userId());
+        if (verifiedToken.issuedAt() == null || !verifiedToken.issuedAt().isAfter(validAfter))
             throw new JwtTokenValidationException();
-        }
+    }
+
+    /**
+     * Parses the token and verifies its signature and expiry exactly once,
+     * returning every claim the callers need.
+     */
+    private VerifiedToken verifyToken(String token, String tokenName) {
+        Claims claims = parseToken(token, tokenName).getBody();
+        checkTokenExpiration(claims);
 
-        else if (refreshToken.getExpiryDate().isBefore(Instant.now())) {
-            refreshTokenService.deleteRefreshToken(tokenId);
+        try {
+            return new VerifiedToken(
+                    UUID.fromString(claims.getSubject()),
+                    extractTokenId(claims),
+                    claims.getId() == null ? null : UUID.fromString(claims.getId()),
+                    extractEnumList(claims, AuthUtils.ROLES_CLAIM, AuthUtils.COMPACT_ROLES_CLAIM, UserRole.class),
+                    extractEnumList(claims, AuthUtils.AUTHORITIES_CLAIM, AuthUtils.COMPACT_AUTHORITIES_CLAIM, UserAuthority.class),
+                    extractIssuedAt(claims),
+                    claims.getExpiration().toInstant()
+            );
+        } catch (IllegalArgumentException | NullPointerException | RequiredTypeException ex) {
             throw new JwtTokenValidationException();
         }
     }
 
-    @Override
-    public UUID extractUserIdFromToken(String token, String tokenName) {
-        return UUID.fromString(extractClaim(token, Claims::getSubject, tokenName));
+    private void checkTokenExpiration(Claims claims) {
+        Date expiration = claims.getExpiration();
+        if (expiration == null || expiration.before(new Date()))
+            throw new JwtTokenValidationException();
     }
 
-    @Override
-    public UUID extractRefreshTokenId(String token) {
-        String tokenId = extractClaim(token, claims -> claims.get("tokenId", String.class), AuthUtils.REFRESH_TOKEN_NAME);
-        return UUID.fromString(tokenId);
+    /**
+     * Prefers the millisecond issue time; tokens issued before it was added fall back to iat, which rounds
+     * down, so such a token can only look older than it is, never newer than a revocation.
+     */
+    private Instant extractIssuedAt(Claims claims) {
+        Number issuedAtMillis = claims.get(AuthUtils.ISSUED_AT_MILLIS_CLAIM, Number.class);
+        if (issuedAtMillis != null)
+            return Instant.ofEpochMilli(issuedAtMillis.longValue());
+        return claims.getIssuedAt() == null ? null : claims.getIssuedAt().toInstant();
     }
 
-    private <T> T extractClaim(String token, Function<Claims, T> claimsResolver, String tokenName) {
-        Claims claims = extractAllClaims(token, tokenName);
-        return claimsResolver.apply(claims);
+    private UUID extractTokenId(Claims claims) {
+        String tokenId = claims.get("tokenId", String.class);
+        return tokenId == null ? null : UUID.fromString(tokenId);
     }
 
-    private Claims extractAllClaims(String token, String tokenName) {
-        return parseToken(token, tokenName).getBody();
+    /**
+     * Reads an enum list from either the compact bitmask claim or the standard list of names,
+     * so tokens minted with either profile stay valid while the profile is switched.
+     */
+    private <E extends Enum<E>> List<E> extractEnumList(
+            Claims claims, String claimName, String compactClaimName, Class<E> enumType
+    ) {
+        Number mask = claims.get(compactClaimName, Number.class);
+        if (mask != null)
+            return EnumBitmask.decode(mask.longValue(), enumType);
+
+        List<?> values = claims.get(claimName, List.class);
+        if (values == null) return List.of();
+
+        return values.stream()
+                .map(value -> Enum.valueOf(enumType, value.toString()))
+                .toList();
     }
 
     private Jws<Claims> parseToken(String token, String tokenName) {
         try {
-            return Jwts.parserBuilder()
-                    .setSigningKey(getAuthTokenSecret(tokenName))
-                    .build()
-                    .parseClaimsJws(token);
-        } catch (JwtException ex) {
-            System.out.println(ex.getMessage());
+            return jwtKeyRing.getParser(tokenName).parseClaimsJws(token);
+        } catch (JwtException | IllegalArgumentException ex) {
+            logger.debug("JWT parsing failed: {}", ex.getMessage());
             throw new JwtTokenValidationException();
         }
     }
 
-    private SecretKey getAuthTokenSecret(String tokenName) {
-        if (AuthUtils.REFRESH_TOKEN_NAME.equals(tokenName))
-            return getRefreshTokenSecret();
-        return getAccessTokenSecret();
-    }
-
-    private SecretKey getAccessTokenSecret() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(accessTokenSecret));
-    }
-
-    private SecretKey getRefreshTokenSecret() {
-        return Keys.hmacShaKeyFor(Decoders.BASE64.decode(refreshTokenSecret));
-    }
-
 }
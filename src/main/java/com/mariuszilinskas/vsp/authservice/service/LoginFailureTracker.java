@@ -0,0 +1,178 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.LoginFailures;
+import com.mariuszilinskas.vsp.authservice.model.Password;
+import com.mariuszilinskas.vsp.authservice.repository.LoginFailureRepository;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Counts failed password checks per user, so users with too many recent failures are refused before any hashing.
+ * <p>
+ * Each user's state is one long, holding the failure count and the time of the last failure, updated with
+ * compare-and-set, so recording a failure takes no lock. Failures decay: one is forgiven for every decay interval
+ * since the last one, so once locked out, a user regains one attempt per interval. Changed counts are written back
+ * to the passwords table in batches, rather than once per failed login, and stored counts seed the tracker the
+ * first time a user is seen after a restart.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class LoginFailureTracker {
+
+    private static final Logger logger = LoggerFactory.getLogger(LoginFailureTracker.class);
+    private static final int COUNT_BITS = 16;
+    private static final long COUNT_MASK = (1L << COUNT_BITS) - 1;
+
+    private final LoginFailureRepository loginFailureRepository;
+    private final int maxFailures;
+    private final long decaySeconds;
+    private final LongSupplier clock;
+    private final ConcurrentHashMap<UUID, AtomicLong> states = new ConcurrentHashMap<>();
+    private final Set<UUID> changed = ConcurrentHashMap.newKeySet();
+
+    @Autowired
+    public LoginFailureTracker(
+            LoginFailureRepository loginFailureRepository,
+            @Value("${app.loginMaxFailures:10}") int maxFailures,
+            @Value("${app.loginFailureDecaySeconds:300}") long decaySeconds
+    ) {
+        this(loginFailureRepository, maxFailures, decaySeconds, System::currentTimeMillis);
+    }
+
+    LoginFailureTracker(LoginFailureRepository loginFailureRepository, int maxFailures, long decaySeconds, LongSupplier clock) {
+        this.loginFailureRepository = loginFailureRepository;
+        this.maxFailures = maxFailures;
+        this.decaySeconds = decaySeconds;
+        this.clock = clock;
+    }
+
+    /**
+     * Returns how long the user has to wait for another attempt, or zero if they may try now.
+     */
+    public Duration getLockoutRemaining(Password password) {
+        AtomicLong current = states.get(password.getUserId());
+        long state = current != null ? current.get() : storedState(password);
+        long now = nowSeconds();
+        long failures = decayedCount(state, now);
+        if (failures < maxFailures) return Duration.ZERO;
+
+        // The user is let in again once enough failures have decayed to drop below the limit
+        long unlockAt = lastFailureSeconds(state) + (count(state) - maxFailures + 1) * decaySeconds;
+        return Duration.ofSeconds(Math.max(1, unlockAt - now));
+    }
+
+    public void recordFailure(Password password) {
+        UUID userId = password.getUserId();
+        AtomicLong state;
+        do {
+            state = stateOf(password);
+            long now = nowSeconds();
+            state.updateAndGet(current -> pack(now, Math.min(COUNT_MASK, decayedCount(current, now) + 1)));
+            // Retried if an idle entry was evicted meanwhile, so the failure lands in the map
+        } while (states.get(userId) != state);
+        changed.add(userId);
+    }
+
+    public void recordSuccess(Password password) {
+        AtomicLong state = states.get(password.getUserId());
+        long previous = state != null ? state.getAndSet(0) : storedState(password);
+        if (previous != 0)
+            changed.add(password.getUserId());
+    }
+
+    /**
+     * Forgets the user's failures, for when their password has been replaced and the stored count cleared with it.
+     * A user with state in memory is still marked as changed, so a flush already holding the old count is overwritten.
+     */
+    public void clearFailures(UUID userId) {
+        if (states.remove(userId) != null)
+            changed.add(userId);
+    }
+
+    /**
+     * Returns the user's state, seeded from the stored count if the user has no state in memory yet.
+     */
+    private AtomicLong stateOf(Password password) {
+        AtomicLong state = states.get(password.getUserId());
+        if (state != null) return state;
+
+        long seed = storedState(password);
+        return states.computeIfAbsent(password.getUserId(), userId -> new AtomicLong(seed));
+    }
+
+    private static long storedState(Password password) {
+        if (password.getIncorrectEntries() <= 0 || password.getLastFailedAt() == null) return 0;
+        return pack(password.getLastFailedAt().getEpochSecond(), Math.min(COUNT_MASK, password.getIncorrectEntries()));
+    }
+
+    /**
+     * Writes changed counts to the database, and drops users whose failures have all decayed.
+     */
+    @PreDestroy
+    @Scheduled(fixedDelayString = "${app.loginFailureFlushMillis:5000}")
+    public void flush() {
+        long now = nowSeconds();
+        List<LoginFailures> batch = new ArrayList<>();
+        for (UUID userId : changed) {
+            changed.remove(userId);
+            AtomicLong state = states.get(userId);
+            long current = state == null ? 0 : state.get();
+            Instant lastFailedAt = current == 0 ? null : Instant.ofEpochSecond(lastFailureSeconds(current));
+            // Stored undecayed, as decay is applied from lastFailedAt again when the row seeds the tracker
+            batch.add(new LoginFailures(userId, (int) count(current), lastFailedAt));
+        }
+
+        if (!batch.isEmpty()) {
+            try {
+                loginFailureRepository.updateFailures(batch);
+            } catch (RuntimeException ex) {
+                logger.error("Failed to store failed login counts for {} Users, retrying on the next flush", batch.size(), ex);
+                batch.forEach(entry -> changed.add(entry.userId()));
+            }
+        }
+
+        states.forEach((userId, state) -> {
+            if (!changed.contains(userId) && decayedCount(state.get(), now) == 0)
+                states.computeIfPresent(userId, (id, current) -> decayedCount(current.get(), now) == 0 ? null : current);
+        });
+    }
+
+    private long decayedCount(long state, long now) {
+        if (state == 0) return 0;
+        long forgiven = Math.max(0, now - lastFailureSeconds(state)) / decaySeconds;
+        return Math.max(0, count(state) - forgiven);
+    }
+
+    private long nowSeconds() {
+        return clock.getAsLong() / 1000;
+    }
+
+    private static long pack(long lastFailureSeconds, long count) {
+        return (lastFailureSeconds << COUNT_BITS) | count;
+    }
+
+    private static long lastFailureSeconds(long state) {
+        return state >>> COUNT_BITS;
+    }
+
+    private static long count(long state) {
+        return state & COUNT_MASK;
+    }
+
+}
@@ -1,7 +1,9 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.dto.VerifyPasscodeRequest;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface PasscodeService {
@@ -14,6 +16,6 @@ public interface PasscodeService {
 
     void deleteUserPasscodes(UUID userId);
 
-    void deleteExpiredPasscodes();
+    PurgedChunk deleteExpiredPasscodes(Instant cutoff, UUID afterId, int chunkSize);
 
 }
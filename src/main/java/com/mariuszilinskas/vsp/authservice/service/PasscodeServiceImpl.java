@@ -85,16 +85,10 @@ public class PasscodeServiceImpl implements PasscodeService {
     }
 
     private String createNewPasscode(UUID userId) {
-        Passcode passcode = findOrCreatePasscode(userId);
-        passcode.setPasscode(tokenGenerationService.generatePasscode());
-        passcode.setExpiryDate(Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS));
-        passcodeRepository.save(passcode);
-        return passcode.getPasscode();
-    }
-
-    private Passcode findOrCreatePasscode(UUID userId) {
-        return passcodeRepository.findByUserId(userId)
-                .orElse(new Passcode(userId));
+        String passcode = tokenGenerationService.generatePasscode();
+        Instant expiryDate = Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS);
+        passcodeRepository.upsertPasscode(UUID.randomUUID(), userId, passcode, expiryDate);
+        return passcode;
     }
 
     private Passcode findPasscodeByUserId(UUID userId) {
@@ -120,10 +114,8 @@ public class PasscodeServiceImpl implements PasscodeService {
     }
 
     @Override
-    @Transactional
-    public void deleteExpiredPasscodes() {
-        logger.info("Deleting Expired Passcodes");
-        passcodeRepository.deleteAllByExpiryDateBefore(Instant.now());
+    public PurgedChunk deleteExpiredPasscodes(Instant cutoff, UUID afterId, int chunkSize) {
+        return passcodeRepository.deleteExpiredChunk(cutoff, afterId, chunkSize);
     }
 
 }
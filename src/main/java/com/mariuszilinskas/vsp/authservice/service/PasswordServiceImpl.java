@@ -13,9 +13,10 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
 import org.springframework.stereotype.Service;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.UUID;
 
@@ -32,7 +33,8 @@ public class PasswordServiceImpl implements PasswordService {
     private final UserService userService;
     private final PasswordRepository passwordRepository;
     private final ResetTokenService resetTokenService;
-    private final BCryptPasswordEncoder passwordEncoder;
+    private final PasswordEncoder passwordEncoder;
+    private final LoginFailureTracker loginFailureTracker;
     private final RabbitMQProducer rabbitMQProducer;
     private final UserFeignClient userFeignClient;
 
@@ -48,6 +50,24 @@ public class PasswordServiceImpl implements PasswordService {
         logger.info("Verifying Password for User [userId: '{}']", request.userId());
         Password storedPassword = getPasswordByUserId(request.userId());
         validatePassword(request.password(), storedPassword);
+        rehashIfOutdated(storedPassword, request.password());
+    }
+
+    /**
+     * Redoes a hash made with an older algorithm or lower cost, while the raw password is at hand.
+     * A failed rehash keeps the old hash, which still verifies, and is retried on the next login. The hash is
+     * replaced in its own transaction, so a failure there never rolls back the login.
+     */
+    private void rehashIfOutdated(Password password, String rawPassword) {
+        if (!passwordEncoder.upgradeEncoding(password.getPasswordHash())) return;
+
+        try {
+            String newHash = passwordEncoder.encode(rawPassword);
+            if (passwordRepository.replacePasswordHash(password.getUserId(), password.getPasswordHash(), newHash) == 1)
+                logger.info("Rehashed Password for User [userId: '{}']", password.getUserId());
+        } catch (RuntimeException ex) {
+            logger.warn("Failed to rehash Password for User [userId: '{}']", password.getUserId(), ex);
+        }
     }
 
     @Override
@@ -100,13 +120,8 @@ public class PasswordServiceImpl implements PasswordService {
     }
 
     private void createEncryptedPassword(UUID userId, String newPassword) {
-        Password password = getOrCreateHashedPassword(userId);
-        setHashedPassword(password, newPassword);
-    }
-
-    private Password getOrCreateHashedPassword(UUID userId) {
-        return passwordRepository.findByUserId(userId)
-                .orElse(new Password(userId));
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, passwordEncoder.encode(newPassword));
+        loginFailureTracker.clearFailures(userId);
     }
 
     @Override
@@ -123,9 +138,19 @@ public class PasswordServiceImpl implements PasswordService {
                 .orElseThrow(() -> new ResourceNotFoundException(Password.class, "userId", userId));
     }
 
+    /**
+     * Checks the password, unless the user has failed too often recently, in which case no hashing is done at all.
+     */
     private void validatePassword(String providedPassword, Password storedPassword) {
-        if (!passwordEncoder.matches(providedPassword, storedPassword.getPasswordHash()))
+        Duration lockoutRemaining = loginFailureTracker.getLockoutRemaining(storedPassword);
+        if (!lockoutRemaining.isZero())
+            throw new LoginAttemptsExceededException(lockoutRemaining.toSeconds());
+
+        if (!passwordEncoder.matches(providedPassword, storedPassword.getPasswordHash())) {
+            loginFailureTracker.recordFailure(storedPassword);
             throw new CredentialsValidationException();
+        }
+        loginFailureTracker.recordSuccess(storedPassword);
     }
 
     private void setHashedPassword(Password password, String newPassword) {
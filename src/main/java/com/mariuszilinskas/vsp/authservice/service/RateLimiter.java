@@ -0,0 +1,140 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mariuszilinskas.vsp.authservice.enums.RateLimitedEndpoint;
+import com.mariuszilinskas.vsp.authservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.EnumMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Rate limits the endpoints that trigger expensive work, such as password hashing, calls to the user service or
+ * emails, per client IP and per account.
+ * <p>
+ * Every endpoint, key type and key has a token bucket holding up to the endpoint's limit, refilled at the limit
+ * per minute. A bucket is one long, holding the time of its last update and its tokens in thousandths,
+ * updated with compare-and-set, so checking a limit takes no lock. Buckets live in a bounded cache and expire
+ * after a minute without requests, by which time they would be full again anyway.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class RateLimiter {
+
+    private static final long PERIOD_MILLIS = Duration.ofMinutes(1).toMillis();
+    private static final int TOKEN_BITS = 24;
+    private static final long TOKEN_MASK = (1L << TOKEN_BITS) - 1;
+    private static final long TOKEN = 1000;
+
+    private final Map<RateLimitedEndpoint, EndpointLimits> limits = new EnumMap<>(RateLimitedEndpoint.class);
+    private final Cache<BucketKey, AtomicLong> buckets;
+    private final LongSupplier clock;
+    private final long startMillis;
+
+    @Autowired
+    public RateLimiter(
+            MeterRegistry meterRegistry,
+            @Value("${app.loginRateLimitPerIp:30}") int loginPerIp,
+            @Value("${app.loginRateLimitPerAccount:10}") int loginPerAccount,
+            @Value("${app.forgotPasswordRateLimitPerIp:10}") int forgotPasswordPerIp,
+            @Value("${app.forgotPasswordRateLimitPerAccount:3}") int forgotPasswordPerAccount,
+            @Value("${app.resetPasscodeRateLimitPerIp:10}") int resetPasscodePerIp,
+            @Value("${app.resetPasscodeRateLimitPerAccount:3}") int resetPasscodePerAccount,
+            @Value("${app.rateLimitMaxKeys:100000}") long maxKeys
+    ) {
+        this(maxKeys, System::currentTimeMillis);
+        addLimits(meterRegistry, RateLimitedEndpoint.LOGIN, loginPerIp, loginPerAccount);
+        addLimits(meterRegistry, RateLimitedEndpoint.FORGOT_PASSWORD, forgotPasswordPerIp, forgotPasswordPerAccount);
+        addLimits(meterRegistry, RateLimitedEndpoint.RESET_PASSCODE, resetPasscodePerIp, resetPasscodePerAccount);
+    }
+
+    RateLimiter(long maxKeys, LongSupplier clock) {
+        this.clock = clock;
+        this.startMillis = clock.getAsLong();
+        this.buckets = Caffeine.newBuilder()
+                .maximumSize(maxKeys)
+                .expireAfterAccess(Duration.ofMillis(PERIOD_MILLIS))
+                .build();
+    }
+
+    /**
+     * Sets an endpoint's requests per minute per client IP and per account. A limit of zero or less disables it.
+     */
+    void addLimits(MeterRegistry meterRegistry, RateLimitedEndpoint endpoint, int perIp, int perAccount) {
+        if (Math.max(perIp, perAccount) * TOKEN > TOKEN_MASK)
+            throw new IllegalArgumentException("Rate limit too high for " + endpoint + ": at most " + TOKEN_MASK / TOKEN);
+        limits.put(endpoint, new EndpointLimits(
+                new Limit(perIp, rejectedCounter(meterRegistry, endpoint, "ip")),
+                new Limit(perAccount, rejectedCounter(meterRegistry, endpoint, "account"))));
+    }
+
+    private static Counter rejectedCounter(MeterRegistry meterRegistry, RateLimitedEndpoint endpoint, String key) {
+        return Counter.builder("auth.rate.limit.rejected")
+                .description("Requests rejected by the rate limiter")
+                .tag("endpoint", endpoint.name())
+                .tag("key", key)
+                .register(meterRegistry);
+    }
+
+    /**
+     * Takes a token from the client IP's and the account's buckets for the endpoint, or throws
+     * {@link RateLimitExceededException} telling the client when to retry.
+     */
+    public void checkLimit(RateLimitedEndpoint endpoint, String clientIp, String account) {
+        EndpointLimits endpointLimits = limits.get(endpoint);
+        if (endpointLimits == null) return;
+
+        acquire(new BucketKey(endpoint, false, clientIp), endpointLimits.perIp());
+        if (account != null)
+            acquire(new BucketKey(endpoint, true, account), endpointLimits.perAccount());
+    }
+
+    private void acquire(BucketKey key, Limit limit) {
+        if (limit.capacity() <= 0) return;
+
+        long capacity = limit.capacity() * TOKEN;
+        AtomicLong bucket = buckets.get(key, k -> new AtomicLong(pack(elapsedMillis(), capacity)));
+        while (true) {
+            long state = bucket.get();
+            long now = elapsedMillis();
+            long lastUpdate = state >>> TOKEN_BITS;
+            // Any bucket is full again after one period, which also keeps the product below from overflowing
+            long elapsed = Math.min(PERIOD_MILLIS, Math.max(0, now - lastUpdate));
+            long refill = elapsed * capacity / PERIOD_MILLIS;
+            long tokens = Math.min(capacity, (state & TOKEN_MASK) + refill);
+
+            if (tokens < TOKEN) {
+                limit.rejected().increment();
+                long waitMillis = (TOKEN - tokens) * PERIOD_MILLIS / capacity;
+                throw new RateLimitExceededException(Math.max(1, (waitMillis + 999) / 1000));
+            }
+            if (bucket.compareAndSet(state, pack(now, tokens - TOKEN))) return;
+        }
+    }
+
+    private long elapsedMillis() {
+        return clock.getAsLong() - startMillis;
+    }
+
+    private static long pack(long elapsedMillis, long tokens) {
+        return (elapsedMillis << TOKEN_BITS) | tokens;
+    }
+
+    // ------------------------------------
+
+    private record BucketKey(RateLimitedEndpoint endpoint, boolean perAccount, String value) {}
+
+    private record Limit(int capacity, Counter rejected) {}
+
+    private record EndpointLimits(Limit perIp, Limit perAccount) {}
+
+}
@@ -1,6 +1,6 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
-import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
 
 import java.util.UUID;
 
@@ -8,12 +8,16 @@ public interface RefreshTokenService {
 
     void createNewRefreshToken(UUID tokenId, UUID userId);
 
-    RefreshToken getRefreshToken(UUID tokenId);
+    RefreshTokenRotation rotateRefreshToken(UUID oldTokenId, UUID newTokenId, UUID userId);
 
     void deleteRefreshToken(UUID tokenId);
 
+    void revokeRefreshToken(UUID tokenId, UUID userId);
+
     void deleteUserRefreshTokens(UUID userId);
 
-    void deleteExpiredRefreshTokens();
+    int createRefreshTokenPartitions(int daysAhead);
+
+    int dropExpiredRefreshTokenPartitions();
 
 }
@@ -1,6 +1,7 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
-import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
 import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
 import com.mariuszilinskas.vsp.authservice.repository.RefreshTokenRepository;
 import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
@@ -8,6 +9,7 @@ import jakarta.transaction.Transactional;
 import lombok.RequiredArgsConstructor;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 
 import java.time.Instant;
@@ -15,6 +17,9 @@ import java.util.UUID;
 
 /**
  * Service implementation for managing User Refresh Tokens.
+ * <p>
+ * In stateless mode refresh tokens are not stored: the signed token is self-contained and is revoked
+ * through the user's session epoch, so issuing and rotating a token needs no database round trip.
  *
  * @author Marius Zilinskas
  */
@@ -24,45 +29,78 @@ public class RefreshTokenServiceImpl implements RefreshTokenService {
 
     private static final Logger logger = LoggerFactory.getLogger(RefreshTokenServiceImpl.class);
     private final RefreshTokenRepository refreshTokenRepository;
+    private final SessionEpochService sessionEpochService;
+
+    @Value("${app.refreshTokenMode:STATEFUL}")
+    private RefreshTokenMode refreshTokenMode = RefreshTokenMode.STATEFUL;
 
     @Override
     @Transactional
     public void createNewRefreshToken(UUID tokenId, UUID userId) {
-        RefreshToken refreshToken = findOrCreateRefreshToken(tokenId, userId);
+        if (refreshTokenMode == RefreshTokenMode.STATELESS) return;
+
+        // Token ids are freshly generated, so this is always a plain INSERT
+        RefreshToken refreshToken = new RefreshToken(tokenId, userId);
         refreshToken.setExpiryDate(Instant.now().plusMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS));
         refreshTokenRepository.save(refreshToken);
     }
 
-    private RefreshToken findOrCreateRefreshToken(UUID tokenId, UUID userId) {
-        return refreshTokenRepository.findByIdAndUserId(tokenId, userId)
-                .orElse(new RefreshToken(tokenId, userId));
-    }
-
     @Override
-    public RefreshToken getRefreshToken(UUID tokenId) {
-        return refreshTokenRepository.findById(tokenId)
-                .orElseThrow(() -> new ResourceNotFoundException(RefreshToken.class, "id", tokenId));
+    @Transactional
+    public RefreshTokenRotation rotateRefreshToken(UUID oldTokenId, UUID newTokenId, UUID userId) {
+        if (refreshTokenMode == RefreshTokenMode.STATELESS) return RefreshTokenRotation.ROTATED;
+
+        Instant now = Instant.now();
+        Instant newExpiryDate = now.plusMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS);
+        RefreshTokenRotation rotation = RefreshTokenRotation.valueOf(
+                refreshTokenRepository.rotate(oldTokenId, newTokenId, userId, newExpiryDate, now));
+        logger.info("Refresh token [id: '{}'] rotation: {}", oldTokenId, rotation);
+        return rotation;
     }
 
     @Override
     @Transactional
     public void deleteRefreshToken(UUID tokenId) {
+        if (refreshTokenMode == RefreshTokenMode.STATELESS) return;
+
         refreshTokenRepository.deleteById(tokenId);
         logger.info("Refresh token [id: '{}'] have been deleted", tokenId);
     }
 
+    @Override
+    @Transactional
+    public void revokeRefreshToken(UUID tokenId, UUID userId) {
+        // Stateless tokens cannot be revoked one by one, so this ends all the user's sessions
+        if (refreshTokenMode == RefreshTokenMode.STATELESS)
+            sessionEpochService.revokeUserSessions(userId);
+        else
+            deleteRefreshToken(tokenId);
+    }
+
     @Override
     @Transactional
     public void deleteUserRefreshTokens(UUID userId) {
         logger.info("Deleting Refresh Tokens for User [userId: '{}']", userId);
-        refreshTokenRepository.deleteByUserId(userId);
+        // The epoch also revokes tokens issued in stateless mode, so switching modes is safe
+        sessionEpochService.revokeUserSessions(userId);
+        if (refreshTokenMode == RefreshTokenMode.STATEFUL)
+            refreshTokenRepository.deleteByUserId(userId);
     }
 
     @Override
-    @Transactional
-    public void deleteExpiredRefreshTokens() {
-        logger.info("Deleting Expired Refresh Tokens");
-        refreshTokenRepository.deleteAllByExpiryDateBefore(Instant.now());
+    public int createRefreshTokenPartitions(int daysAhead) {
+        int created = refreshTokenRepository.createPartitions(daysAhead);
+        if (created > 0)
+            logger.info("Created {} Refresh Token partition(s)", created);
+        return created;
+    }
+
+    @Override
+    public int dropExpiredRefreshTokenPartitions() {
+        int dropped = refreshTokenRepository.dropExpiredPartitions();
+        if (dropped > 0)
+            logger.info("Dropped {} expired Refresh Token partition(s)", dropped);
+        return dropped;
     }
 
 }
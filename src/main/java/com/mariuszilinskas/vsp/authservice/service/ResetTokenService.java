@@ -1,7 +1,9 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.model.ResetToken;
 
+import java.time.Instant;
 import java.util.UUID;
 
 public interface ResetTokenService {
@@ -12,6 +14,6 @@ public interface ResetTokenService {
 
     void deleteUserResetTokens(UUID userid);
 
-    void deleteExpiredResetTokens();
+    PurgedChunk deleteExpiredResetTokens(Instant cutoff, UUID afterId, int chunkSize);
 
 }
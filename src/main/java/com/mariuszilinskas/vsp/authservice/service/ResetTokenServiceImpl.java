@@ -1,5 +1,6 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
 import com.mariuszilinskas.vsp.authservice.model.ResetToken;
 import com.mariuszilinskas.vsp.authservice.repository.ResetTokenRepository;
@@ -30,16 +31,10 @@ public class ResetTokenServiceImpl implements ResetTokenService {
     @Transactional
     public String createResetToken(UUID userId) {
         logger.info("Creating Reset Token for User [userId: '{}']", userId);
-        ResetToken resetToken = findOrCreateResetToken(userId);
-        resetToken.setToken(tokenGenerationService.generateResetToken());
-        resetToken.setExpiryDate(Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS));
-        resetTokenRepository.save(resetToken);
-        return resetToken.getToken();
-    }
-
-    private ResetToken findOrCreateResetToken(UUID userId) {
-        return resetTokenRepository.findByUserId(userId)
-                .orElse(new ResetToken(userId));
+        String token = tokenGenerationService.generateResetToken();
+        Instant expiryDate = Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS);
+        resetTokenRepository.upsertResetToken(UUID.randomUUID(), userId, token, expiryDate);
+        return token;
     }
 
     @Override
@@ -58,10 +53,8 @@ public class ResetTokenServiceImpl implements ResetTokenService {
     }
 
     @Override
-    @Transactional
-    public void deleteExpiredResetTokens() {
-        logger.info("Deleting Expired Reset Tokens");
-        resetTokenRepository.deleteAllByExpiryDateBefore(Instant.now());
+    public PurgedChunk deleteExpiredResetTokens(Instant cutoff, UUID afterId, int chunkSize) {
+        return resetTokenRepository.deleteExpiredChunk(cutoff, afterId, chunkSize);
     }
 
 }
@@ -0,0 +1,19 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+public interface SessionEpochService {
+
+    Instant getSessionsValidAfter(UUID userId);
+
+    void revokeUserSessions(UUID userId);
+
+    void revokeSessionsNow(Collection<UUID> userIds);
+
+    PurgedChunk deleteExpiredEpochs(Instant cutoff, UUID afterId, int chunkSize);
+
+}
@@ -0,0 +1,115 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.LoadingCache;
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import com.mariuszilinskas.vsp.authservice.repository.SessionEpochRepository;
+import com.mariuszilinskas.vsp.authservice.repository.SessionRevocationRepository;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.Collection;
+import java.util.UUID;
+
+/**
+ * Service implementation for managing session epochs: stateless refresh tokens issued at or before
+ * a user's epoch, or the global epoch, are no longer accepted. The global epoch is the row for the nil
+ * UUID, which operators can set directly to end every stateless session.
+ * <p>
+ * Epochs change rarely and are read on every stateless refresh, so they are served from a small cache.
+ * Other instances pick up a new epoch once their cached copy expires.
+ * <p>
+ * An epoch older than the longest refresh token lifetime no longer rejects any token, as every token issued
+ * before it has expired, so such epochs are purged.
+ *
+ * @author Marius Zilinskas
+ */
+@Service
+public class SessionEpochServiceImpl implements SessionEpochService {
+
+    private static final Logger logger = LoggerFactory.getLogger(SessionEpochServiceImpl.class);
+    static final UUID GLOBAL_SUBJECT_ID = new UUID(0, 0);
+
+    private final SessionEpochRepository sessionEpochRepository;
+    private final SessionRevocationRepository sessionRevocationRepository;
+    private final LoadingCache<UUID, Instant> epochs;
+
+    @Value("${app.refreshTokenMode:STATEFUL}")
+    private RefreshTokenMode refreshTokenMode = RefreshTokenMode.STATEFUL;
+
+    public SessionEpochServiceImpl(
+            SessionEpochRepository sessionEpochRepository,
+            SessionRevocationRepository sessionRevocationRepository,
+            @Value("${app.sessionEpochCacheSeconds:30}") long sessionEpochCacheSeconds,
+            @Value("${app.sessionEpochCacheMaxSize:100000}") long sessionEpochCacheMaxSize
+    ) {
+        this.sessionEpochRepository = sessionEpochRepository;
+        this.sessionRevocationRepository = sessionRevocationRepository;
+        this.epochs = Caffeine.newBuilder()
+                .maximumSize(sessionEpochCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(sessionEpochCacheSeconds))
+                .build(this::loadEpoch);
+    }
+
+    @Override
+    public Instant getSessionsValidAfter(UUID userId) {
+        Instant global = epochs.get(GLOBAL_SUBJECT_ID);
+        Instant user = epochs.get(userId);
+        return user.isAfter(global) ? user : global;
+    }
+
+    @Override
+    public void revokeUserSessions(UUID userId) {
+        logger.info("Revoking all sessions for User [userId: '{}']", userId);
+        bumpEpoch(userId);
+    }
+
+    /**
+     * Ends the stateless sessions of many users with a single statement. Stateful sessions already end when
+     * the users' refresh tokens are deleted, so in stateful mode no epoch is written.
+     */
+    @Override
+    public void revokeSessionsNow(Collection<UUID> userIds) {
+        if (refreshTokenMode != RefreshTokenMode.STATELESS || userIds.isEmpty()) return;
+
+        Instant validAfter = newEpoch();
+        sessionRevocationRepository.revokeSessions(userIds, validAfter);
+        userIds.forEach(userId -> epochs.put(userId, validAfter));
+    }
+
+    /**
+     * Deletes up to {@code chunkSize} epochs that stopped mattering before the cutoff. The global epoch is never
+     * deleted, as the nil UUID sorts before every id a chunk starts after.
+     */
+    @Override
+    public PurgedChunk deleteExpiredEpochs(Instant cutoff, UUID afterId, int chunkSize) {
+        Instant setBefore = cutoff.minusMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS);
+        return sessionEpochRepository.deleteExpiredChunk(setBefore, afterId, chunkSize);
+    }
+
+    private void bumpEpoch(UUID subjectId) {
+        Instant validAfter = newEpoch();
+        sessionEpochRepository.save(new SessionEpoch(subjectId, validAfter));
+        epochs.put(subjectId, validAfter);
+    }
+
+    private static Instant newEpoch() {
+        // Refresh tokens carry their issue time in milliseconds, so a login right after this still gets a valid token
+        return Instant.now().truncatedTo(ChronoUnit.MILLIS);
+    }
+
+    private Instant loadEpoch(UUID subjectId) {
+        return sessionEpochRepository.findById(subjectId)
+                .map(SessionEpoch::getValidAfter)
+                .orElse(Instant.EPOCH);
+    }
+
+}
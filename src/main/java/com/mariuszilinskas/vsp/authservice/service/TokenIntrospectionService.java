@@ -0,0 +1,13 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.TokenIntrospectionResponse;
+
+import java.util.List;
+
+public interface TokenIntrospectionService {
+
+    TokenIntrospectionResponse introspectToken(String token);
+
+    List<TokenIntrospectionResponse> introspectTokens(List<String> tokens);
+
+}
@@ -0,0 +1,137 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Expiry;
+import com.mariuszilinskas.vsp.authservice.dto.TokenIntrospectionResponse;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
+import com.mariuszilinskas.vsp.authservice.exception.JwtTokenValidationException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Service implementation for introspecting access tokens on behalf of the gateway.
+ * <p>
+ * Verified tokens are kept in a bounded in-process cache keyed by the SHA-256 digest of the token,
+ * so repeated introspections of the same token skip signature verification and claims parsing.
+ * Each entry expires together with its token. Invalid tokens are never cached, and cached tokens
+ * are still checked against the {@link AccessTokenDenylist} so a logout takes effect immediately.
+ *
+ * @author Marius Zilinskas
+ */
+@Service
+public class TokenIntrospectionServiceImpl implements TokenIntrospectionService {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenIntrospectionServiceImpl.class);
+
+    private static final ThreadLocal<MessageDigest> SHA_256 = ThreadLocal.withInitial(() -> {
+        try {
+            return MessageDigest.getInstance("SHA-256");
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException("SHA-256 is not available", ex);
+        }
+    });
+
+    private final JwtService jwtService;
+    private final AccessTokenDenylist accessTokenDenylist;
+    private final Cache<TokenDigest, VerifiedToken> verifiedTokens;
+
+    public TokenIntrospectionServiceImpl(
+            JwtService jwtService,
+            AccessTokenDenylist accessTokenDenylist,
+            @Value("${app.introspectionCacheMaxSize:100000}") long introspectionCacheMaxSize
+    ) {
+        this.jwtService = jwtService;
+        this.accessTokenDenylist = accessTokenDenylist;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(introspectionCacheMaxSize)
+                .expireAfter(new TokenExpiry())
+                .build();
+    }
+
+    @Override
+    public TokenIntrospectionResponse introspectToken(String token) {
+        VerifiedToken verifiedToken = getVerifiedToken(token);
+        return verifiedToken == null
+                ? TokenIntrospectionResponse.INACTIVE
+                : TokenIntrospectionResponse.active(verifiedToken);
+    }
+
+    @Override
+    public List<TokenIntrospectionResponse> introspectTokens(List<String> tokens) {
+        List<TokenIntrospectionResponse> responses = new ArrayList<>(tokens.size());
+        for (String token : tokens)
+            responses.add(introspectToken(token));
+        logger.debug("Introspected {} tokens", tokens.size());
+        return responses;
+    }
+
+    private VerifiedToken getVerifiedToken(String token) {
+        if (token == null || token.isBlank()) return null;
+
+        TokenDigest digest = TokenDigest.of(token);
+        VerifiedToken cached = verifiedTokens.getIfPresent(digest);
+        if (cached != null && cached.expiresAt().isAfter(Instant.now()))
+            return cached.jwtId() != null && accessTokenDenylist.isRevoked(cached.jwtId()) ? null : cached;
+
+        try {
+            VerifiedToken verifiedToken = jwtService.validateAccessToken(token);
+            if (verifiedToken.tokenId() != null)
+                return null; // Refresh tokens are never valid for resource access
+
+            verifiedTokens.put(digest, verifiedToken);
+            return verifiedToken;
+        } catch (JwtTokenValidationException ex) {
+            return null;
+        }
+    }
+
+    // ------------------------------------
+
+    /**
+     * SHA-256 digest of a token, held as four longs so cache keys stay small and cheap to compare.
+     */
+    private record TokenDigest(long first, long second, long third, long fourth) {
+
+        static TokenDigest of(String token) {
+            MessageDigest sha256 = SHA_256.get();
+            ByteBuffer digest = ByteBuffer.wrap(sha256.digest(token.getBytes(StandardCharsets.UTF_8)));
+            return new TokenDigest(digest.getLong(), digest.getLong(), digest.getLong(), digest.getLong());
+        }
+
+    }
+
+    /**
+     * Expires each cache entry at the expiry time of its token.
+     */
+    private static final class TokenExpiry implements Expiry<TokenDigest, VerifiedToken> {
+
+        @Override
+        public long expireAfterCreate(TokenDigest key, VerifiedToken value, long currentTime) {
+            return Math.max(0, Duration.between(Instant.now(), value.expiresAt()).toNanos());
+        }
+
+        @Override
+        public long expireAfterUpdate(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return expireAfterCreate(key, value, currentTime);
+        }
+
+        @Override
+        public long expireAfterRead(TokenDigest key, VerifiedToken value, long currentTime, long currentDuration) {
+            return currentDuration;
+        }
+
+    }
+
+}
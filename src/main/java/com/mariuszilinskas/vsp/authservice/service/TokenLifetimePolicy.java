@@ -0,0 +1,59 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Decides how long each issued token lives.
+ * <p>
+ * Tokens issued together, e.g. after a deploy or a mass re-login, would otherwise all expire in the same second
+ * and come back to POST /token together. Each lifetime is therefore shortened by a random amount of up to the
+ * configured jitter fraction; jitter never extends a token beyond its nominal lifetime. Access tokens also get
+ * a refresh-after time, a fraction of their lifetime, after which clients should refresh proactively.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class TokenLifetimePolicy {
+
+    private final double accessTokenExpiryJitter;
+    private final double refreshTokenExpiryJitter;
+    private final double accessTokenRefreshAfter;
+
+    public TokenLifetimePolicy(
+            @Value("${app.accessTokenExpiryJitter:0.1}") double accessTokenExpiryJitter,
+            @Value("${app.refreshTokenExpiryJitter:0.05}") double refreshTokenExpiryJitter,
+            @Value("${app.accessTokenRefreshAfter:0.8}") double accessTokenRefreshAfter
+    ) {
+        if (accessTokenExpiryJitter < 0 || accessTokenExpiryJitter >= 1
+                || refreshTokenExpiryJitter < 0 || refreshTokenExpiryJitter >= 1)
+            throw new IllegalArgumentException("Token expiry jitter must be in [0, 1)");
+        if (accessTokenRefreshAfter <= 0 || accessTokenRefreshAfter > 1)
+            throw new IllegalArgumentException("Access token refresh-after must be in (0, 1]");
+
+        this.accessTokenExpiryJitter = accessTokenExpiryJitter;
+        this.refreshTokenExpiryJitter = refreshTokenExpiryJitter;
+        this.accessTokenRefreshAfter = accessTokenRefreshAfter;
+    }
+
+    public TokenLifetime accessTokenLifetime(long issuedAtMillis) {
+        long lifetime = jitter(AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS, accessTokenExpiryJitter);
+        long refreshAfter = (long) (lifetime * accessTokenRefreshAfter);
+        return new TokenLifetime(issuedAtMillis, issuedAtMillis + refreshAfter, issuedAtMillis + lifetime);
+    }
+
+    public TokenLifetime refreshTokenLifetime(long issuedAtMillis) {
+        long expiresAt = issuedAtMillis + jitter(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS, refreshTokenExpiryJitter);
+        return new TokenLifetime(issuedAtMillis, expiresAt, expiresAt);
+    }
+
+    private static long jitter(long lifetimeMillis, double jitter) {
+        if (jitter == 0) return lifetimeMillis;
+        return lifetimeMillis - (long) (ThreadLocalRandom.current().nextDouble() * jitter * lifetimeMillis);
+    }
+
+}
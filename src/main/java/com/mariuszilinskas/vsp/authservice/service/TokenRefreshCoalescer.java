@@ -0,0 +1,99 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.github.benmanes.caffeine.cache.AsyncCache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.mariuszilinskas.vsp.authservice.dto.AuthTokens;
+import com.mariuszilinskas.vsp.authservice.exception.SessionExpiredException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Coalesces concurrent rotations of the same refresh token within this instance.
+ * <p>
+ * Browsers with several tabs open often send the same refresh cookie at once. The first request rotates
+ * the token, and every request for the same token id that arrives while it runs, or within a short grace
+ * window after it completes, receives the same new token pair instead of failing on the deleted row.
+ * Failed rotations are not remembered, so the next request tries again. A request waits for an in-flight
+ * rotation only for a bounded time, so one stuck rotation cannot hold every other request for the token.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class TokenRefreshCoalescer {
+
+    private static final Logger logger = LoggerFactory.getLogger(TokenRefreshCoalescer.class);
+
+    private final AsyncCache<UUID, AuthTokens> rotations;
+    private final long joinTimeoutMillis;
+
+    public TokenRefreshCoalescer(
+            @Value("${app.refreshGraceSeconds:10}") long refreshGraceSeconds,
+            @Value("${app.refreshGraceCacheMaxSize:100000}") long refreshGraceCacheMaxSize,
+            @Value("${app.refreshJoinTimeoutMillis:5000}") long joinTimeoutMillis
+    ) {
+        this.joinTimeoutMillis = joinTimeoutMillis;
+        // In-flight rotations never expire, the grace window starts once a rotation completes
+        this.rotations = Caffeine.newBuilder()
+                .maximumSize(refreshGraceCacheMaxSize)
+                .expireAfterWrite(Duration.ofSeconds(refreshGraceSeconds))
+                .buildAsync();
+    }
+
+    /**
+     * Rotates the refresh token with the given id, or joins a rotation of it that is in flight or just completed.
+     * The rotation runs on the calling thread, so it keeps the caller's context. A joined pair is only handed
+     * back once {@code joinCheck} passes, as the token may have been revoked since that rotation started.
+     */
+    public AuthTokens rotate(UUID tokenId, Supplier<AuthTokens> rotation, Runnable joinCheck) {
+        CompletableFuture<AuthTokens> future = new CompletableFuture<>();
+        CompletableFuture<AuthTokens> existing = rotations.asMap().putIfAbsent(tokenId, future);
+        if (existing != null) {
+            AuthTokens authTokens = await(existing);
+            joinCheck.run();
+            return authTokens;
+        }
+
+        try {
+            AuthTokens authTokens = rotation.get();
+            future.complete(authTokens);
+            return authTokens;
+        } catch (RuntimeException | Error ex) {
+            future.completeExceptionally(ex);
+            throw ex;
+        }
+    }
+
+    /**
+     * Forgets a completed rotation, so the old token no longer returns the new pair.
+     */
+    public void invalidate(UUID tokenId) {
+        rotations.synchronous().invalidate(tokenId);
+    }
+
+    private AuthTokens await(CompletableFuture<AuthTokens> future) {
+        try {
+            return future.get(joinTimeoutMillis, TimeUnit.MILLISECONDS);
+        } catch (TimeoutException ex) {
+            logger.warn("Gave up waiting {} ms for an in-flight refresh token rotation", joinTimeoutMillis);
+            throw new SessionExpiredException();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+            throw new SessionExpiredException();
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException cause) throw cause;
+            if (ex.getCause() instanceof Error cause) throw cause;
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+}
@@ -0,0 +1,68 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * Records token refresh requests, both as a plain counter and as a distribution of requests per second,
+ * so refresh storms show up as a high max and p99 rather than being averaged away by a rate.
+ * <p>
+ * Each one-second window is recorded when the first refresh of a later second arrives. Quiet seconds in between
+ * are recorded as zeros, up to a minute of them, so the distribution reflects idle periods too.
+ *
+ * @author Marius Zilinskas
+ */
+@Component
+public class TokenRefreshMetrics {
+
+    private static final int MAX_IDLE_SECONDS_RECORDED = 60;
+
+    private final Counter refreshes;
+    private final DistributionSummary refreshesPerSecond;
+    private final LongSupplier clock;
+    private final AtomicLong currentCount = new AtomicLong();
+    private volatile long currentSecond;
+
+    @Autowired
+    public TokenRefreshMetrics(MeterRegistry meterRegistry) {
+        this(meterRegistry, System::currentTimeMillis);
+    }
+
+    TokenRefreshMetrics(MeterRegistry meterRegistry, LongSupplier clock) {
+        this.refreshes = Counter.builder("auth.token.refreshes")
+                .description("Token refresh requests")
+                .register(meterRegistry);
+        this.refreshesPerSecond = DistributionSummary.builder("auth.token.refreshes.per.second")
+                .description("Token refresh requests within each one-second window")
+                .publishPercentiles(0.5, 0.95, 0.99)
+                .register(meterRegistry);
+        this.clock = clock;
+        this.currentSecond = clock.getAsLong() / 1000;
+    }
+
+    public void recordRefresh() {
+        refreshes.increment();
+        long second = clock.getAsLong() / 1000;
+        if (second != currentSecond)
+            closeWindow(second);
+        currentCount.incrementAndGet();
+    }
+
+    private synchronized void closeWindow(long second) {
+        long previousSecond = currentSecond;
+        if (second <= previousSecond) return;
+
+        refreshesPerSecond.record(currentCount.getAndSet(0));
+        long idleSeconds = Math.min(second - previousSecond - 1, MAX_IDLE_SECONDS_RECORDED);
+        for (long i = 0; i < idleSeconds; i++)
+            refreshesPerSecond.record(0);
+        currentSecond = second;
+    }
+
+}
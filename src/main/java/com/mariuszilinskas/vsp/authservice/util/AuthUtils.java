@@ -4,6 +4,7 @@ import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
 import com.mariuszilinskas.vsp.authservice.exception.UserStatusAccessException;
 
 import java.util.EnumSet;
+import java.util.Locale;
 
 public abstract class AuthUtils {
 
@@ -25,6 +26,30 @@ public abstract class AuthUtils {
 
     public static final long REFRESH_TOKEN_EXPIRATION_MILLIS = 7 * 24 * 60 * 60 * 1000L; // 7 days
 
+    public static final int MAX_INTROSPECTION_BATCH_SIZE = 500;
+
+    public static final String REFRESH_AFTER_CLAIM = "rfa";
+
+    public static final String ISSUED_AT_MILLIS_CLAIM = "iatms";
+
+    public static final String REFRESH_AFTER_HEADER = "X-Refresh-After";
+
+    public static final String ROLES_CLAIM = "roles";
+
+    public static final String AUTHORITIES_CLAIM = "authorities";
+
+    public static final String COMPACT_ROLES_CLAIM = "r";
+
+    public static final String COMPACT_AUTHORITIES_CLAIM = "a";
+
+    /**
+     * Returns the email in the form used to key per-account limits and counters, so that changing its case
+     * or padding it with whitespace does not make it count as another account.
+     */
+    public static String normalizeEmail(String email) {
+        return email == null ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
     public static void checkUserSuspended(UserStatus status) {
         if (EnumSet.of(UserStatus.SUSPENDED, UserStatus.LOCKED, UserStatus.INACTIVE).contains(status)) {
             throw new UserStatusAccessException(status.toString());
@@ -0,0 +1,38 @@
+package com.mariuszilinskas.vsp.authservice.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Encodes lists of enum constants as bitmasks, with bit {@code n} set for the constant with ordinal {@code n}.
+ * Used by compact access tokens, so constants of encoded enums must only ever be appended, never reordered.
+ */
+public abstract class EnumBitmask {
+
+    private EnumBitmask() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static <E extends Enum<E>> long encode(List<E> values) {
+        long mask = 0;
+        for (E value : values) {
+            if (value.ordinal() >= Long.SIZE)
+                throw new IllegalArgumentException("Enum ordinal too large for a bitmask: " + value);
+            mask |= 1L << value.ordinal();
+        }
+        return mask;
+    }
+
+    public static <E extends Enum<E>> List<E> decode(long mask, Class<E> enumType) {
+        E[] constants = enumType.getEnumConstants();
+        List<E> values = new ArrayList<>(Long.bitCount(mask));
+        for (long remaining = mask; remaining != 0; remaining &= remaining - 1) {
+            int ordinal = Long.numberOfTrailingZeros(remaining);
+            if (ordinal >= constants.length)
+                throw new IllegalArgumentException("Unknown " + enumType.getSimpleName() + " bit: " + ordinal);
+            values.add(constants[ordinal]);
+        }
+        return List.copyOf(values);
+    }
+
+}
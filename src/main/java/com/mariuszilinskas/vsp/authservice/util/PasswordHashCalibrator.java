@@ -0,0 +1,100 @@
+package com.mariuszilinskas.vsp.authservice.util;
+
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.function.IntToLongFunction;
+
+/**
+ * Picks password hashing costs that fit a target verify time on the current hardware.
+ * <p>
+ * Costs are raised one step at a time from a minimum, and the highest one whose verify time stays within the target
+ * is kept. The minimum is never undercut, however slow the machine. Used at startup when calibration is enabled,
+ * and can be run on its own with {@link #main} to pick costs for the config.
+ */
+public abstract class PasswordHashCalibrator {
+
+    private PasswordHashCalibrator() {
+        // Private constructor to prevent instantiation
+    }
+
+    public static final int MIN_BCRYPT_STRENGTH = 10;
+
+    public static final int MAX_BCRYPT_STRENGTH = 16;
+
+    public static final int MIN_ARGON2_ITERATIONS = 2;
+
+    public static final int MAX_ARGON2_ITERATIONS = 20;
+
+    private static final int ARGON2_SALT_LENGTH = 16;
+
+    private static final int ARGON2_HASH_LENGTH = 32;
+
+    private static final int ARGON2_PARALLELISM = 1;
+
+    private static final int RUNS = 3;
+
+    private static final String SAMPLE_PASSWORD = "calibration-Password-1";
+
+    public static BCryptPasswordEncoder newBcryptEncoder(int strength) {
+        return new BCryptPasswordEncoder(strength);
+    }
+
+    public static Argon2PasswordEncoder newArgon2Encoder(int memoryKib, int iterations) {
+        return new Argon2PasswordEncoder(ARGON2_SALT_LENGTH, ARGON2_HASH_LENGTH, ARGON2_PARALLELISM, memoryKib, iterations);
+    }
+
+    public static int calibrateBcryptStrength(int minStrength, Duration target) {
+        return calibrate(minStrength, MAX_BCRYPT_STRENGTH, target.toNanos(),
+                strength -> measureVerifyNanos(newBcryptEncoder(strength)));
+    }
+
+    /**
+     * Argon2 memory is fixed by config, as it is bounded by what the service can afford per concurrent hash,
+     * so only the iterations are calibrated.
+     */
+    public static int calibrateArgon2Iterations(int minIterations, int memoryKib, Duration target) {
+        return calibrate(minIterations, MAX_ARGON2_ITERATIONS, target.toNanos(),
+                iterations -> measureVerifyNanos(newArgon2Encoder(memoryKib, iterations)));
+    }
+
+    static int calibrate(int minCost, int maxCost, long targetNanos, IntToLongFunction verifyNanos) {
+        int cost = minCost;
+        for (int candidate = minCost + 1; candidate <= maxCost; candidate++) {
+            if (verifyNanos.applyAsLong(candidate) > targetNanos) break;
+            cost = candidate;
+        }
+        return cost;
+    }
+
+    /**
+     * Returns the fastest of a few verifications, which is the least affected by warm-up and other load.
+     */
+    private static long measureVerifyNanos(PasswordEncoder encoder) {
+        String hash = encoder.encode(SAMPLE_PASSWORD);
+        long fastest = Long.MAX_VALUE;
+        for (int i = 0; i < RUNS; i++) {
+            long start = System.nanoTime();
+            encoder.matches(SAMPLE_PASSWORD, hash);
+            fastest = Math.min(fastest, System.nanoTime() - start);
+        }
+        return fastest;
+    }
+
+    /**
+     * Prints the costs that fit a target verify time. Arguments: target millis (default 250)
+     * and Argon2 memory in KiB (default 19456).
+     */
+    public static void main(String[] args) {
+        Duration target = Duration.ofMillis(args.length > 0 ? Long.parseLong(args[0]) : 250);
+        int memoryKib = args.length > 1 ? Integer.parseInt(args[1]) : 19456;
+
+        System.out.printf("Target verify time: %d ms%n", target.toMillis());
+        System.out.printf("bcrypt strength: %d%n", calibrateBcryptStrength(MIN_BCRYPT_STRENGTH, target));
+        System.out.printf("argon2id iterations: %d (memory %d KiB)%n",
+                calibrateArgon2Iterations(MIN_ARGON2_ITERATIONS, memoryKib, target), memoryKib);
+    }
+
+}
@@ -0,0 +1,95 @@
+-- Refresh tokens are range partitioned by expiry date, one partition per UTC day, so expired tokens are
+-- removed by dropping whole partitions instead of deleting rows one by one.
+
+-- Creates the daily partitions from today up to days_ahead days from now. Each partition is built as a plain table
+-- and then attached, which takes a weaker lock on refresh_tokens than CREATE TABLE ... PARTITION OF, and lets any
+-- tokens that landed in the default partition for that day be moved over first.
+CREATE OR REPLACE FUNCTION create_refresh_token_partitions(days_ahead integer)
+RETURNS integer
+LANGUAGE plpgsql
+SET lock_timeout = '5s'
+AS $$
+DECLARE
+    first_day date := (now() AT TIME ZONE 'UTC')::date;
+    partition_day date;
+    partition_name text;
+    range_start timestamptz;
+    range_end timestamptz;
+    created integer := 0;
+BEGIN
+    FOR offset_days IN 0..days_ahead LOOP
+        partition_day := first_day + offset_days;
+        partition_name := 'refresh_tokens_p' || to_char(partition_day, 'YYYYMMDD');
+        CONTINUE WHEN to_regclass(partition_name) IS NOT NULL;
+
+        range_start := partition_day::timestamp AT TIME ZONE 'UTC';
+        range_end := (partition_day + 1)::timestamp AT TIME ZONE 'UTC';
+        EXECUTE format('CREATE TABLE %I (LIKE refresh_tokens INCLUDING DEFAULTS INCLUDING CONSTRAINTS)',
+                partition_name);
+        EXECUTE format(
+                'WITH moved AS (DELETE FROM refresh_tokens_default WHERE expiry_date >= %L AND expiry_date < %L '
+                || 'RETURNING id, user_id, expiry_date) INSERT INTO %I SELECT id, user_id, expiry_date FROM moved',
+                range_start, range_end, partition_name);
+        EXECUTE format('ALTER TABLE refresh_tokens ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                partition_name, range_start, range_end);
+        created := created + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$;
+
+-- Drops the daily partitions whose whole range has expired. The lock timeout keeps a drop, which needs a brief
+-- exclusive lock on refresh_tokens, from queueing up token traffic behind it. A failed drop is retried next run.
+CREATE OR REPLACE FUNCTION drop_expired_refresh_token_partitions()
+RETURNS integer
+LANGUAGE plpgsql
+SET lock_timeout = '5s'
+AS $$
+DECLARE
+    partition_name text;
+    dropped integer := 0;
+BEGIN
+    FOR partition_name IN
+        SELECT child.relname
+        FROM pg_inherits
+        JOIN pg_class parent ON parent.oid = pg_inherits.inhparent
+        JOIN pg_class child ON child.oid = pg_inherits.inhrelid
+        WHERE parent.relname = 'refresh_tokens'
+          AND child.relname ~ '^refresh_tokens_p[0-9]{8}$'
+          AND to_date(substring(child.relname FROM 17), 'YYYYMMDD') + 1 <= (now() AT TIME ZONE 'UTC')::date
+        ORDER BY child.relname
+    LOOP
+        EXECUTE format('DROP TABLE %I', partition_name);
+        dropped := dropped + 1;
+    END LOOP;
+    -- Normally empty, the default partition only fills up if maintenance has not run for days
+    DELETE FROM refresh_tokens_default WHERE expiry_date <= now();
+    RETURN dropped;
+END;
+$$;
+
+-- Tables created by Hibernate before this migration are replaced, keeping the tokens that are still valid
+ALTER TABLE IF EXISTS refresh_tokens RENAME TO refresh_tokens_unpartitioned;
+
+CREATE TABLE refresh_tokens (
+    id          uuid                        NOT NULL,
+    user_id     uuid                        NOT NULL,
+    expiry_date timestamp(6) with time zone NOT NULL,
+    -- The partition key must be part of the primary key
+    PRIMARY KEY (id, expiry_date)
+) PARTITION BY RANGE (expiry_date);
+
+-- Catches tokens outside the daily partitions, so a late maintenance run never fails a login
+CREATE TABLE refresh_tokens_default PARTITION OF refresh_tokens DEFAULT;
+
+SELECT create_refresh_token_partitions(10);
+
+DO $$
+BEGIN
+    IF to_regclass('refresh_tokens_unpartitioned') IS NOT NULL THEN
+        INSERT INTO refresh_tokens (id, user_id, expiry_date)
+        SELECT id, user_id, expiry_date FROM refresh_tokens_unpartitioned WHERE expiry_date > now();
+        DROP TABLE refresh_tokens_unpartitioned;
+    END IF;
+END;
+$$;
@@ -0,0 +1,39 @@
+-- The tables Hibernate used to create with ddl-auto. IF NOT EXISTS keeps this a no-op on databases it already built.
+
+CREATE TABLE IF NOT EXISTS passwords (
+    id                uuid                        NOT NULL PRIMARY KEY,
+    user_id           uuid                        NOT NULL,
+    password_hash     varchar(255)                NOT NULL,
+    incorrect_entries integer                     NOT NULL DEFAULT 0,
+    last_updated      timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS passcodes (
+    id          uuid                        NOT NULL PRIMARY KEY,
+    user_id     uuid                        NOT NULL,
+    passcode    varchar(255)                NOT NULL,
+    expiry_date timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS reset_tokens (
+    id          uuid                        NOT NULL PRIMARY KEY,
+    user_id     uuid                        NOT NULL,
+    token       varchar(255)                NOT NULL,
+    expiry_date timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS session_epochs (
+    subject_id  uuid                        NOT NULL PRIMARY KEY,
+    valid_after timestamp(6) with time zone NOT NULL
+);
+
+CREATE TABLE IF NOT EXISTS job_leases (
+    job_name         varchar(100)                NOT NULL PRIMARY KEY,
+    owner            varchar(255)                NOT NULL,
+    lease_until      timestamp(6) with time zone NOT NULL,
+    last_started_at  timestamp(6) with time zone NOT NULL,
+    last_finished_at timestamp(6) with time zone,
+    last_duration_ms bigint,
+    last_status      varchar(20),
+    last_error       varchar(500)
+);
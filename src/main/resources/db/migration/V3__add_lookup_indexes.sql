@@ -0,0 +1,16 @@
+-- Every lookup and delete by user, reset token lookups and the expiry purges previously scanned the whole table.
+
+CREATE INDEX IF NOT EXISTS idx_passwords_user_id ON passwords (user_id);
+
+CREATE INDEX IF NOT EXISTS idx_passcodes_user_id ON passcodes (user_id);
+CREATE INDEX IF NOT EXISTS idx_passcodes_expiry_date ON passcodes (expiry_date);
+
+CREATE INDEX IF NOT EXISTS idx_reset_tokens_user_id ON reset_tokens (user_id);
+CREATE INDEX IF NOT EXISTS idx_reset_tokens_expiry_date ON reset_tokens (expiry_date);
+
+-- Reset tokens are random, and a duplicate would make the lookup by token ambiguous
+ALTER TABLE reset_tokens ADD CONSTRAINT uk_reset_tokens_token UNIQUE (token);
+
+-- Created on every partition, including the ones attached later. The expiry date needs no index,
+-- as it is the partition key.
+CREATE INDEX IF NOT EXISTS idx_refresh_tokens_user_id ON refresh_tokens (user_id);
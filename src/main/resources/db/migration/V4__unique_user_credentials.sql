@@ -0,0 +1,21 @@
+-- Every user has at most one password, passcode and reset token. Concurrent find-or-create calls could insert
+-- duplicates before, so only the most recent row per user is kept before the constraints are added.
+-- The unique constraints replace the plain user_id indexes.
+
+DELETE FROM passwords p USING passwords newer
+WHERE p.user_id = newer.user_id AND (p.last_updated, p.id) < (newer.last_updated, newer.id);
+
+DELETE FROM passcodes p USING passcodes newer
+WHERE p.user_id = newer.user_id AND (p.expiry_date, p.id) < (newer.expiry_date, newer.id);
+
+DELETE FROM reset_tokens t USING reset_tokens newer
+WHERE t.user_id = newer.user_id AND (t.expiry_date, t.id) < (newer.expiry_date, newer.id);
+
+ALTER TABLE passwords ADD CONSTRAINT uk_passwords_user_id UNIQUE (user_id);
+DROP INDEX IF EXISTS idx_passwords_user_id;
+
+ALTER TABLE passcodes ADD CONSTRAINT uk_passcodes_user_id UNIQUE (user_id);
+DROP INDEX IF EXISTS idx_passcodes_user_id;
+
+ALTER TABLE reset_tokens ADD CONSTRAINT uk_reset_tokens_user_id UNIQUE (user_id);
+DROP INDEX IF EXISTS idx_reset_tokens_user_id;
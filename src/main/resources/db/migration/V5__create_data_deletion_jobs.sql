@@ -0,0 +1,23 @@
+-- Bulk user data deletions run in the background. Each job keeps the users it has yet to process in
+-- data_deletion_job_users, which is drained one chunk at a time, so a job survives restarts and its progress
+-- is exact.
+
+CREATE TABLE IF NOT EXISTS data_deletion_jobs (
+    id              uuid                        NOT NULL PRIMARY KEY,
+    status          varchar(20)                 NOT NULL,
+    total_users     integer                     NOT NULL,
+    processed_users integer                     NOT NULL,
+    deleted_rows    bigint                      NOT NULL,
+    created_at      timestamp(6) with time zone NOT NULL,
+    started_at      timestamp(6) with time zone,
+    finished_at     timestamp(6) with time zone,
+    last_error      varchar(500)
+);
+
+CREATE INDEX IF NOT EXISTS idx_data_deletion_jobs_status_created_at ON data_deletion_jobs (status, created_at);
+
+CREATE TABLE IF NOT EXISTS data_deletion_job_users (
+    job_id  uuid NOT NULL REFERENCES data_deletion_jobs (id) ON DELETE CASCADE,
+    user_id uuid NOT NULL,
+    PRIMARY KEY (job_id, user_id)
+);
@@ -0,0 +1,3 @@
+-- Failed logins decay over time, so the failure count is stored along with the time of the last failure.
+
+ALTER TABLE passwords ADD COLUMN IF NOT EXISTS last_failed_at timestamp(6) with time zone;
@@ -0,0 +1,3 @@
+-- Epochs older than the longest refresh token lifetime no longer reject any token, and are purged by valid_after.
+
+CREATE INDEX IF NOT EXISTS idx_session_epochs_valid_after ON session_epochs (valid_after);
@@ -0,0 +1,114 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.service.DataDeletionJobService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataDeletionJobRunnerTest {
+
+    @Mock
+    private DataDeletionJobService dataDeletionJobService;
+
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    private DataDeletionJobRunner jobRunner;
+
+    private final UUID jobId = UUID.randomUUID();
+    private final UUID otherJobId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        jobRunner = newJobRunner(60_000);
+    }
+
+    private DataDeletionJobRunner newJobRunner(long maxRunMillis) {
+        return new DataDeletionJobRunner(dataDeletionJobService, jobCoordinator, 2, 0, maxRunMillis);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testRunPendingJobs_NoActiveJobs() {
+        // Arrange
+        when(dataDeletionJobService.hasActiveJobs()).thenReturn(false);
+
+        // Act
+        jobRunner.runPendingJobs();
+
+        // Assert
+        verifyNoInteractions(jobCoordinator);
+    }
+
+    @Test
+    void testRunPendingJobs_RunsUnderJobLease() {
+        // Arrange
+        when(dataDeletionJobService.hasActiveJobs()).thenReturn(true);
+
+        // Act
+        jobRunner.runPendingJobs();
+
+        // Assert
+        verify(jobCoordinator, times(1)).runExclusively(eq("data-deletion-jobs"),
+                eq(Duration.ZERO), eq(Duration.ofMinutes(2)), any(Runnable.class));
+    }
+
+    @Test
+    void testRunJobs_WorksThroughJobsUntilShortChunk() {
+        // Arrange
+        when(dataDeletionJobService.findNextJobId())
+                .thenReturn(Optional.of(jobId), Optional.of(otherJobId), Optional.empty());
+        when(dataDeletionJobService.processNextChunk(jobId, 2)).thenReturn(2, 2, 1);
+        when(dataDeletionJobService.processNextChunk(otherJobId, 2)).thenReturn(0);
+
+        // Act
+        jobRunner.runJobs();
+
+        // Assert
+        verify(dataDeletionJobService, times(3)).processNextChunk(jobId, 2);
+        verify(dataDeletionJobService, times(1)).processNextChunk(otherJobId, 2);
+        verify(dataDeletionJobService, never()).failJob(any(UUID.class), anyString());
+    }
+
+    @Test
+    void testRunJobs_FailingChunkFailsJobAndMovesOn() {
+        // Arrange
+        when(dataDeletionJobService.findNextJobId())
+                .thenReturn(Optional.of(jobId), Optional.of(otherJobId), Optional.empty());
+        when(dataDeletionJobService.processNextChunk(jobId, 2)).thenThrow(new IllegalStateException("boom"));
+        when(dataDeletionJobService.processNextChunk(otherJobId, 2)).thenReturn(1);
+
+        // Act
+        jobRunner.runJobs();
+
+        // Assert
+        verify(dataDeletionJobService, times(1)).failJob(eq(jobId), contains("boom"));
+        verify(dataDeletionJobService, times(1)).processNextChunk(otherJobId, 2);
+    }
+
+    @Test
+    void testRunJobs_StopsWhenOutOfTime() {
+        // Arrange
+        jobRunner = newJobRunner(0);
+        when(dataDeletionJobService.findNextJobId()).thenReturn(Optional.of(jobId));
+        when(dataDeletionJobService.processNextChunk(jobId, 2)).thenReturn(2);
+
+        // Act
+        jobRunner.runJobs();
+
+        // Assert
+        verify(dataDeletionJobService, times(1)).findNextJobId();
+        verify(dataDeletionJobService, times(1)).processNextChunk(jobId, 2);
+    }
+
+}
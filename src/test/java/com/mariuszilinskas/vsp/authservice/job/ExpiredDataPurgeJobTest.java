@@ -0,0 +1,168 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.service.PasscodeService;
+import com.mariuszilinskas.vsp.authservice.service.ResetTokenService;
+import com.mariuszilinskas.vsp.authservice.service.SessionEpochService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class ExpiredDataPurgeJobTest {
+
+    @Mock
+    private PasscodeService passcodeService;
+
+    @Mock
+    private ResetTokenService resetTokenService;
+
+    @Mock
+    private SessionEpochService sessionEpochService;
+
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    private SimpleMeterRegistry meterRegistry;
+    private ExpiredDataPurgeJob purgeJob;
+
+    private static final UUID FIRST_ID = new UUID(0, 0);
+    private final UUID lastId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        purgeJob = newPurgeJob(60_000);
+    }
+
+    private ExpiredDataPurgeJob newPurgeJob(long maxRunMillis) {
+        return new ExpiredDataPurgeJob(passcodeService, resetTokenService, sessionEpochService, meterRegistry, jobCoordinator,
+                2, 0, maxRunMillis, 300_000);
+    }
+
+    private static PurgedChunk chunk(long scanned, long deleted, UUID lastId) {
+        return new PurgedChunk() {
+            @Override
+            public long getScanned() {
+                return scanned;
+            }
+
+            @Override
+            public long getDeleted() {
+                return deleted;
+            }
+
+            @Override
+            public UUID getLastId() {
+                return lastId;
+            }
+        };
+    }
+
+    private double rowsDeleted(String table) {
+        return meterRegistry.get("auth.purge.rows.deleted").tag("table", table).counter().count();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testPurgeExpiredData_RunsUnderJobLease() {
+        // Act
+        purgeJob.purgeExpiredData();
+
+        // Assert
+        verify(jobCoordinator, times(1)).runExclusively(eq("expired-data-purge"),
+                eq(Duration.ofMinutes(5)), eq(Duration.ofMinutes(2)), any(Runnable.class));
+        verifyNoInteractions(passcodeService, resetTokenService, sessionEpochService);
+    }
+
+    @Test
+    void testPurgeAll_WalksChunksUntilShortChunk() {
+        // Arrange
+        when(passcodeService.deleteExpiredPasscodes(any(Instant.class), eq(FIRST_ID), eq(2)))
+                .thenReturn(chunk(1, 1, lastId));
+        when(resetTokenService.deleteExpiredResetTokens(any(Instant.class), eq(FIRST_ID), eq(2)))
+                .thenReturn(chunk(2, 2, lastId));
+        when(resetTokenService.deleteExpiredResetTokens(any(Instant.class), eq(lastId), eq(2)))
+                .thenReturn(chunk(1, 1, UUID.randomUUID()));
+        when(sessionEpochService.deleteExpiredEpochs(any(Instant.class), eq(FIRST_ID), eq(2)))
+                .thenReturn(chunk(1, 1, lastId));
+
+        // Act
+        purgeJob.purgeAll();
+
+        // Assert
+        verify(passcodeService, times(1)).deleteExpiredPasscodes(any(Instant.class), any(UUID.class), anyInt());
+        verify(resetTokenService, times(2)).deleteExpiredResetTokens(any(Instant.class), any(UUID.class), anyInt());
+
+        assertEquals(1, rowsDeleted("passcodes"));
+        assertEquals(3, rowsDeleted("reset_tokens"));
+        assertEquals(1, rowsDeleted("session_epochs"));
+        assertEquals(1, meterRegistry.get("auth.purge.duration").tag("table", "reset_tokens").timer().count());
+    }
+
+    @Test
+    void testPurgeAll_UsesSameCutoffForEveryChunk() {
+        // Arrange
+        when(passcodeService.deleteExpiredPasscodes(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(2, 2, lastId), chunk(0, 0, null));
+        when(resetTokenService.deleteExpiredResetTokens(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(0, 0, null));
+        when(sessionEpochService.deleteExpiredEpochs(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(0, 0, null));
+
+        // Act
+        purgeJob.purgeAll();
+
+        // Assert
+        Instant cutoff = mockingDetails(passcodeService).getInvocations().iterator().next().getArgument(0);
+        verify(passcodeService, times(2)).deleteExpiredPasscodes(eq(cutoff), any(UUID.class), anyInt());
+        verify(resetTokenService).deleteExpiredResetTokens(eq(cutoff), any(UUID.class), anyInt());
+        verify(sessionEpochService).deleteExpiredEpochs(eq(cutoff), any(UUID.class), anyInt());
+    }
+
+    @Test
+    void testPurgeAll_StopsWhenTimeBudgetIsSpent() {
+        // Arrange
+        purgeJob = newPurgeJob(0);
+        when(passcodeService.deleteExpiredPasscodes(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(2, 2, lastId));
+
+        // Act
+        purgeJob.purgeAll();
+
+        // Assert
+        verify(passcodeService, times(1)).deleteExpiredPasscodes(any(Instant.class), any(UUID.class), anyInt());
+        verifyNoInteractions(resetTokenService, sessionEpochService);
+        assertEquals(2, rowsDeleted("passcodes"));
+    }
+
+    @Test
+    void testPurgeAll_FailingTableDoesNotStopOthers() {
+        // Arrange
+        when(passcodeService.deleteExpiredPasscodes(any(Instant.class), any(UUID.class), anyInt()))
+                .thenThrow(new RuntimeException("Connection lost"));
+        when(resetTokenService.deleteExpiredResetTokens(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(1, 1, lastId));
+        when(sessionEpochService.deleteExpiredEpochs(any(Instant.class), any(UUID.class), anyInt()))
+                .thenReturn(chunk(0, 0, null));
+
+        // Act
+        purgeJob.purgeAll();
+
+        // Assert
+        verify(resetTokenService, times(1)).deleteExpiredResetTokens(any(Instant.class), any(UUID.class), anyInt());
+        assertEquals(1, rowsDeleted("reset_tokens"));
+    }
+
+}
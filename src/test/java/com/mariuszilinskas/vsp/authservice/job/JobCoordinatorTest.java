@@ -0,0 +1,110 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.repository.JobLeaseRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class JobCoordinatorTest {
+
+    @Mock
+    private JobLeaseRepository jobLeaseRepository;
+
+    private JobCoordinator jobCoordinator;
+
+    private static final String OWNER = "test-instance";
+    private static final String JOB_NAME = "test-job";
+    private static final Duration MIN_INTERVAL = Duration.ofMinutes(5);
+    private static final Duration LEASE = Duration.ofMinutes(2);
+
+    private final AtomicInteger runs = new AtomicInteger();
+
+    @BeforeEach
+    void setUp() {
+        jobCoordinator = new JobCoordinator(jobLeaseRepository, OWNER);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testRunExclusively_LeaseAcquired() {
+        // Arrange
+        when(jobLeaseRepository.acquire(JOB_NAME, OWNER, LEASE.toMillis(), MIN_INTERVAL.toMillis())).thenReturn(1);
+        when(jobLeaseRepository.release(eq(JOB_NAME), eq(OWNER), anyLong(), eq("SUCCEEDED"), isNull())).thenReturn(1);
+
+        // Act
+        boolean ran = jobCoordinator.runExclusively(JOB_NAME, MIN_INTERVAL, LEASE, runs::incrementAndGet);
+
+        // Assert
+        assertTrue(ran);
+        assertEquals(1, runs.get());
+        verify(jobLeaseRepository, times(1)).release(eq(JOB_NAME), eq(OWNER), anyLong(), eq("SUCCEEDED"), isNull());
+    }
+
+    @Test
+    void testRunExclusively_LeaseHeldElsewhere() {
+        // Arrange
+        when(jobLeaseRepository.acquire(JOB_NAME, OWNER, LEASE.toMillis(), MIN_INTERVAL.toMillis())).thenReturn(0);
+
+        // Act
+        boolean ran = jobCoordinator.runExclusively(JOB_NAME, MIN_INTERVAL, LEASE, runs::incrementAndGet);
+
+        // Assert
+        assertFalse(ran);
+        assertEquals(0, runs.get());
+        verify(jobLeaseRepository, never()).release(anyString(), anyString(), anyLong(), anyString(), any());
+    }
+
+    @Test
+    void testRunExclusively_AcquireFails() {
+        // Arrange
+        when(jobLeaseRepository.acquire(anyString(), anyString(), anyLong(), anyLong()))
+                .thenThrow(new RuntimeException("Connection refused"));
+
+        // Act
+        boolean ran = jobCoordinator.runExclusively(JOB_NAME, MIN_INTERVAL, LEASE, runs::incrementAndGet);
+
+        // Assert
+        assertFalse(ran);
+        assertEquals(0, runs.get());
+    }
+
+    @Test
+    void testRunExclusively_JobFails() {
+        // Arrange
+        when(jobLeaseRepository.acquire(JOB_NAME, OWNER, LEASE.toMillis(), MIN_INTERVAL.toMillis())).thenReturn(1);
+        when(jobLeaseRepository.release(eq(JOB_NAME), eq(OWNER), anyLong(), eq("FAILED"), anyString())).thenReturn(1);
+
+        // Act
+        boolean ran = jobCoordinator.runExclusively(JOB_NAME, MIN_INTERVAL, LEASE, () -> {
+            throw new IllegalStateException("Boom");
+        });
+
+        // Assert
+        assertTrue(ran);
+        verify(jobLeaseRepository, times(1))
+                .release(eq(JOB_NAME), eq(OWNER), anyLong(), eq("FAILED"), contains("Boom"));
+    }
+
+    @Test
+    void testReleaseAll_ReleasesOwnLeases() {
+        // Arrange
+        when(jobLeaseRepository.releaseAll(OWNER)).thenReturn(1);
+
+        // Act
+        jobCoordinator.releaseAll();
+
+        // Assert
+        verify(jobLeaseRepository, times(1)).releaseAll(OWNER);
+    }
+
+}
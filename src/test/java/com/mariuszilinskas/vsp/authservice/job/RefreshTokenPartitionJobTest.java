@@ -0,0 +1,74 @@
+package com.mariuszilinskas.vsp.authservice.job;
+
+import com.mariuszilinskas.vsp.authservice.service.RefreshTokenService;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.InOrder;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class RefreshTokenPartitionJobTest {
+
+    @Mock
+    private RefreshTokenService refreshTokenService;
+
+    @Mock
+    private JobCoordinator jobCoordinator;
+
+    private RefreshTokenPartitionJob partitionJob;
+
+    @BeforeEach
+    void setUp() {
+        partitionJob = new RefreshTokenPartitionJob(refreshTokenService, jobCoordinator, 10);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testConstructor_TooFewDaysAhead() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> new RefreshTokenPartitionJob(refreshTokenService, jobCoordinator, 7));
+    }
+
+    @Test
+    void testMaintainPartitions_RunsUnderJobLease() {
+        // Act
+        partitionJob.maintainPartitions();
+
+        // Assert
+        verify(jobCoordinator, times(1)).runExclusively(eq("refresh-token-partitions"),
+                any(Duration.class), any(Duration.class), any(Runnable.class));
+        verifyNoInteractions(refreshTokenService);
+    }
+
+    @Test
+    void testRunMaintenance_CreatesBeforeDropping() {
+        // Act
+        partitionJob.runMaintenance();
+
+        // Assert
+        InOrder inOrder = inOrder(refreshTokenService);
+        inOrder.verify(refreshTokenService).createRefreshTokenPartitions(10);
+        inOrder.verify(refreshTokenService).dropExpiredRefreshTokenPartitions();
+    }
+
+    @Test
+    void testRunMaintenance_DropFailureIsTolerated() {
+        // Arrange
+        when(refreshTokenService.dropExpiredRefreshTokenPartitions())
+                .thenThrow(new RuntimeException("canceling statement due to lock timeout"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> partitionJob.runMaintenance());
+        verify(refreshTokenService, times(1)).createRefreshTokenPartitions(10);
+    }
+
+}
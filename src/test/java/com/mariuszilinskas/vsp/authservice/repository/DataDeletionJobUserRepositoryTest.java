@@ -0,0 +1,83 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.model.DataDeletionJob;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.util.Comparator;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(DataDeletionJobUserRepository.class)
+public class DataDeletionJobUserRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private DataDeletionJobUserRepository dataDeletionJobUserRepository;
+
+    @Autowired
+    private DataDeletionJobRepository dataDeletionJobRepository;
+
+    // PostgreSQL compares uuids as unsigned bytes, the same order as their lowercase hex strings
+    private static final Comparator<UUID> IN_POSTGRES_ORDER = Comparator.comparing(UUID::toString);
+
+    private UUID jobId;
+
+    @BeforeEach
+    void setUp() {
+        jobId = dataDeletionJobRepository.saveAndFlush(new DataDeletionJob()).getId();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testAddUsers_SkipsDuplicates() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        UUID otherUserId = UUID.randomUUID();
+        dataDeletionJobUserRepository.addUsers(jobId, List.of(userId));
+
+        // Act
+        int added = dataDeletionJobUserRepository.addUsers(jobId, List.of(userId, otherUserId, otherUserId));
+
+        // Assert
+        assertEquals(1, added);
+        assertEquals(2, dataDeletionJobUserRepository.takeUsers(jobId, 10).size());
+    }
+
+    @Test
+    void testTakeUsers_RemovesChunksInUserIdOrder() {
+        // Arrange
+        List<UUID> userIds = List.of(UUID.randomUUID(), UUID.randomUUID(), UUID.randomUUID());
+        dataDeletionJobUserRepository.addUsers(jobId, userIds);
+        List<UUID> sortedUserIds = userIds.stream().sorted(IN_POSTGRES_ORDER).toList();
+
+        // Act
+        List<UUID> first = dataDeletionJobUserRepository.takeUsers(jobId, 2);
+        List<UUID> second = dataDeletionJobUserRepository.takeUsers(jobId, 2);
+        List<UUID> third = dataDeletionJobUserRepository.takeUsers(jobId, 2);
+
+        // Assert
+        assertEquals(sortedUserIds.subList(0, 2), first.stream().sorted(IN_POSTGRES_ORDER).toList());
+        assertEquals(sortedUserIds.subList(2, 3), second);
+        assertTrue(third.isEmpty());
+    }
+
+    @Test
+    void testTakeUsers_OnlyFromGivenJob() {
+        // Arrange
+        UUID otherJobId = dataDeletionJobRepository.saveAndFlush(new DataDeletionJob()).getId();
+        dataDeletionJobUserRepository.addUsers(otherJobId, List.of(UUID.randomUUID()));
+
+        // Act
+        List<UUID> taken = dataDeletionJobUserRepository.takeUsers(jobId, 10);
+
+        // Assert
+        assertTrue(taken.isEmpty());
+        assertEquals(1, dataDeletionJobUserRepository.takeUsers(otherJobId, 10).size());
+    }
+
+}
@@ -0,0 +1,117 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.enums.JobRunStatus;
+import com.mariuszilinskas.vsp.authservice.model.JobLease;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JobLeaseRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private JobLeaseRepository jobLeaseRepository;
+
+    private static final String JOB_NAME = "test-job";
+    private static final long LEASE_MILLIS = 60_000;
+
+    // ------------------------------------
+
+    @Test
+    void testAcquire_FirstRun() {
+        // Act
+        int acquired = jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+
+        // Assert
+        assertEquals(1, acquired);
+        flushAndClear();
+        JobLease lease = jobLeaseRepository.findById(JOB_NAME).orElseThrow();
+        assertEquals("instance-a", lease.getOwner());
+        assertTrue(lease.getLeaseUntil().isAfter(lease.getLastStartedAt()));
+    }
+
+    @Test
+    void testAcquire_HeldByAnotherInstance() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+
+        // Act
+        int acquired = jobLeaseRepository.acquire(JOB_NAME, "instance-b", LEASE_MILLIS, 0);
+
+        // Assert
+        assertEquals(0, acquired);
+        flushAndClear();
+        assertEquals("instance-a", jobLeaseRepository.findById(JOB_NAME).orElseThrow().getOwner());
+    }
+
+    @Test
+    void testAcquire_AfterRelease() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+        jobLeaseRepository.release(JOB_NAME, "instance-a", 10, JobRunStatus.SUCCEEDED.name(), null);
+
+        // Act
+        int acquired = jobLeaseRepository.acquire(JOB_NAME, "instance-b", LEASE_MILLIS, 0);
+
+        // Assert
+        assertEquals(1, acquired);
+    }
+
+    @Test
+    void testAcquire_AlreadyRunThisInterval() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+        jobLeaseRepository.release(JOB_NAME, "instance-a", 10, JobRunStatus.SUCCEEDED.name(), null);
+
+        // Act
+        int acquired = jobLeaseRepository.acquire(JOB_NAME, "instance-b", LEASE_MILLIS, 300_000);
+
+        // Assert
+        assertEquals(0, acquired);
+    }
+
+    @Test
+    void testRelease_RecordsRunStats() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+
+        // Act
+        int released = jobLeaseRepository.release(JOB_NAME, "instance-a", 42, JobRunStatus.FAILED.name(), "Boom");
+
+        // Assert
+        assertEquals(1, released);
+        flushAndClear();
+        JobLease lease = jobLeaseRepository.findById(JOB_NAME).orElseThrow();
+        assertEquals(42L, lease.getLastDurationMillis());
+        assertEquals(JobRunStatus.FAILED, lease.getLastStatus());
+        assertEquals("Boom", lease.getLastError());
+        assertNotNull(lease.getLastFinishedAt());
+    }
+
+    @Test
+    void testRelease_NotOwner() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+
+        // Act
+        int released = jobLeaseRepository.release(JOB_NAME, "instance-b", 10, JobRunStatus.SUCCEEDED.name(), null);
+
+        // Assert
+        assertEquals(0, released);
+    }
+
+    @Test
+    void testReleaseAll_OnlyOwnLeases() {
+        // Arrange
+        jobLeaseRepository.acquire(JOB_NAME, "instance-a", LEASE_MILLIS, 0);
+        jobLeaseRepository.acquire("other-job", "instance-b", LEASE_MILLIS, 0);
+
+        // Act
+        int released = jobLeaseRepository.releaseAll("instance-a");
+
+        // Assert
+        assertEquals(1, released);
+        assertEquals(0, jobLeaseRepository.acquire("other-job", "instance-a", LEASE_MILLIS, 0));
+    }
+
+}
@@ -0,0 +1,71 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.dto.LoginFailures;
+import com.mariuszilinskas.vsp.authservice.model.Password;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(LoginFailureRepository.class)
+public class LoginFailureRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private LoginFailureRepository loginFailureRepository;
+
+    @Autowired
+    private PasswordRepository passwordRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    // ------------------------------------
+
+    @Test
+    void testUpdateFailures_WritesEveryUser() {
+        // Arrange
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, "hash");
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), otherUserId, "hash");
+        Instant lastFailedAt = Instant.now().truncatedTo(ChronoUnit.SECONDS);
+
+        // Act
+        loginFailureRepository.updateFailures(List.of(
+                new LoginFailures(userId, 3, lastFailedAt),
+                new LoginFailures(otherUserId, 0, null)
+        ));
+        flushAndClear();
+
+        // Assert
+        Password password = passwordRepository.findByUserId(userId).orElseThrow();
+        assertEquals(3, password.getIncorrectEntries());
+        assertEquals(lastFailedAt, password.getLastFailedAt());
+
+        Password otherPassword = passwordRepository.findByUserId(otherUserId).orElseThrow();
+        assertEquals(0, otherPassword.getIncorrectEntries());
+        assertNull(otherPassword.getLastFailedAt());
+    }
+
+    @Test
+    void testUpsertPasswordHash_ClearsFailures() {
+        // Arrange
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, "hash");
+        loginFailureRepository.updateFailures(List.of(new LoginFailures(userId, 10, Instant.now())));
+
+        // Act
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, "newHash");
+        flushAndClear();
+
+        // Assert
+        Password password = passwordRepository.findByUserId(userId).orElseThrow();
+        assertEquals("newHash", password.getPasswordHash());
+        assertEquals(0, password.getIncorrectEntries());
+        assertNull(password.getLastFailedAt());
+    }
+
+}
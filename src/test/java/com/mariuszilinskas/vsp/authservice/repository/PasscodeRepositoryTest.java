@@ -0,0 +1,87 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.model.Passcode;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasscodeRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private PasscodeRepository passcodeRepository;
+
+    private Passcode newPasscode(Instant expiryDate) {
+        Passcode passcode = new Passcode(UUID.randomUUID());
+        passcode.setPasscode("123456");
+        passcode.setExpiryDate(expiryDate);
+        return passcode;
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testDeleteExpiredChunk_DeletesOneChunkInIdOrder() {
+        // Arrange
+        for (int i = 0; i < 3; i++)
+            passcodeRepository.save(newPasscode(Instant.now().minusSeconds(60)));
+        Passcode validPasscode = passcodeRepository.save(newPasscode(Instant.now().plusSeconds(3600)));
+        flushAndClear();
+        Instant cutoff = Instant.now();
+
+        // Act
+        PurgedChunk first = passcodeRepository.deleteExpiredChunk(cutoff, new UUID(0, 0), 2);
+        PurgedChunk second = passcodeRepository.deleteExpiredChunk(cutoff, first.getLastId(), 2);
+
+        // Assert
+        assertEquals(2, first.getScanned());
+        assertEquals(2, first.getDeleted());
+        assertEquals(1, second.getScanned());
+        assertEquals(1, second.getDeleted());
+        assertEquals(1, passcodeRepository.count());
+        assertTrue(passcodeRepository.existsById(validPasscode.getId()));
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testUpsertPasscode_NewUser() {
+        // Arrange
+        UUID userId = UUID.randomUUID();
+        Statistics statistics = resetStatistics();
+
+        // Act
+        int upserted = passcodeRepository.upsertPasscode(UUID.randomUUID(), userId, "111111", Instant.now());
+
+        // Assert
+        assertEquals(1, upserted);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals("111111", passcodeRepository.findByUserId(userId).orElseThrow().getPasscode());
+    }
+
+    @Test
+    void testUpsertPasscode_ReplacesExistingPasscode() {
+        // Arrange
+        Passcode existingPasscode = passcodeRepository.save(newPasscode(Instant.now()));
+        UUID userId = existingPasscode.getUserId();
+        flushAndClear();
+        Instant newExpiryDate = Instant.now().plusSeconds(900);
+
+        // Act
+        passcodeRepository.upsertPasscode(UUID.randomUUID(), userId, "222222", newExpiryDate);
+        flushAndClear();
+
+        // Assert
+        Passcode passcode = passcodeRepository.findByUserId(userId).orElseThrow();
+        assertEquals(existingPasscode.getId(), passcode.getId());
+        assertEquals("222222", passcode.getPasscode());
+        assertEquals(newExpiryDate.toEpochMilli(), passcode.getExpiryDate().toEpochMilli());
+        assertEquals(1, passcodeRepository.count());
+    }
+
+}
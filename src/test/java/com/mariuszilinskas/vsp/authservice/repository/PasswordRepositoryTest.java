@@ -0,0 +1,69 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.model.Password;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.dao.DataAccessException;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs without the usual test transaction, so each test controls its own transactions like a login does.
+ */
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+public class PasswordRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private PasswordRepository passwordRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate transactionTemplate;
+    private final UUID userId = UUID.randomUUID();
+
+    @BeforeEach
+    void setUp() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, "oldHash");
+    }
+
+    @AfterEach
+    void tearDown() {
+        transactionTemplate.executeWithoutResult(status -> passwordRepository.deleteByUserId(userId));
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testReplacePasswordHash_CommitsWithinOuterTransaction() {
+        // Act
+        transactionTemplate.executeWithoutResult(status ->
+                assertEquals(1, passwordRepository.replacePasswordHash(userId, "oldHash", "newHash")));
+
+        // Assert
+        assertEquals("newHash", passwordRepository.findByUserId(userId).map(Password::getPasswordHash).orElseThrow());
+    }
+
+    @Test
+    void testReplacePasswordHash_FailureLeavesOuterTransactionUsable() {
+        // Act & Assert
+        assertDoesNotThrow(() -> transactionTemplate.executeWithoutResult(status -> {
+            // A null hash violates the not-null constraint
+            assertThrows(DataAccessException.class,
+                    () -> passwordRepository.replacePasswordHash(userId, "oldHash", null));
+            assertTrue(passwordRepository.findByUserId(userId).isPresent());
+        }));
+
+        assertEquals("oldHash", passwordRepository.findByUserId(userId).map(Password::getPasswordHash).orElseThrow());
+    }
+
+}
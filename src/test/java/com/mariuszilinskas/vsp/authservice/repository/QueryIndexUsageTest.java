@@ -0,0 +1,168 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+
+import java.time.OffsetDateTime;
+import java.time.ZoneOffset;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs EXPLAIN on the SQL behind every repository lookup and delete, and fails if any of them needs a full table scan.
+ * Test tables are tiny, so sequential scans are disabled for the transaction. The planner then only falls back to one
+ * when no index can serve the query.
+ * <p>
+ * Native statements are explained from the repositories' own constants, with their parameters bound, so a change
+ * to one of them is checked here as well. Derived and JPQL queries are covered by the SQL Hibernate generates for
+ * them. A new query belongs in this test. {@link JobLeaseRepository#RELEASE_ALL} is left out, as job_leases holds
+ * one row per scheduled job.
+ */
+public class QueryIndexUsageTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private NamedParameterJdbcTemplate jdbcTemplate;
+
+    private final UUID userId = UUID.randomUUID();
+    private final OffsetDateTime now = OffsetDateTime.now(ZoneOffset.UTC);
+
+    @BeforeEach
+    void setUp() {
+        entityManager.createNativeQuery("SET LOCAL enable_seqscan = off").executeUpdate();
+    }
+
+    private void assertUsesIndex(String sql) {
+        assertUsesIndex(sql, new MapSqlParameterSource());
+    }
+
+    private void assertUsesIndex(String sql, MapSqlParameterSource params) {
+        List<String> plan = jdbcTemplate.queryForList("EXPLAIN " + sql, params, String.class);
+        String planText = String.join("\n", plan);
+        assertFalse(planText.contains("Seq Scan"), () -> "Full table scan in plan for: " + sql + "\n" + planText);
+    }
+
+    private MapSqlParameterSource purgeChunkParams() {
+        return new MapSqlParameterSource()
+                .addValue("cutoff", now)
+                .addValue("afterId", new UUID(0, 0))
+                .addValue("chunkSize", 1000);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testPasswordQueries_UseIndexes() {
+        assertUsesIndex("SELECT * FROM passwords WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex("DELETE FROM passwords WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex(PasswordRepository.UPSERT_PASSWORD_HASH, new MapSqlParameterSource()
+                .addValue("id", UUID.randomUUID())
+                .addValue("userId", userId)
+                .addValue("passwordHash", "hash"));
+        assertUsesIndex(PasswordRepository.REPLACE_PASSWORD_HASH, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("oldHash", "old")
+                .addValue("newHash", "new"));
+    }
+
+    @Test
+    void testLoginFailureQueries_UseIndexes() {
+        assertUsesIndex(LoginFailureRepository.UPDATE_FAILURES, new MapSqlParameterSource()
+                .addValue("userId", userId)
+                .addValue("failures", 1)
+                .addValue("lastFailedAt", now));
+    }
+
+    @Test
+    void testPasscodeQueries_UseIndexes() {
+        assertUsesIndex("SELECT * FROM passcodes WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex("DELETE FROM passcodes WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex(PasscodeRepository.UPSERT_PASSCODE, new MapSqlParameterSource()
+                .addValue("id", UUID.randomUUID())
+                .addValue("userId", userId)
+                .addValue("passcode", "123456")
+                .addValue("expiryDate", now));
+        assertUsesIndex(PasscodeRepository.DELETE_EXPIRED_CHUNK, purgeChunkParams());
+    }
+
+    @Test
+    void testResetTokenQueries_UseIndexes() {
+        assertUsesIndex("SELECT * FROM reset_tokens WHERE token = :token",
+                new MapSqlParameterSource("token", "abc"));
+        assertUsesIndex("SELECT * FROM reset_tokens WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex("DELETE FROM reset_tokens WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex(ResetTokenRepository.UPSERT_RESET_TOKEN, new MapSqlParameterSource()
+                .addValue("id", UUID.randomUUID())
+                .addValue("userId", userId)
+                .addValue("token", "abc")
+                .addValue("expiryDate", now));
+        assertUsesIndex(ResetTokenRepository.DELETE_EXPIRED_CHUNK, purgeChunkParams());
+    }
+
+    @Test
+    void testRefreshTokenQueries_UseIndexes() {
+        assertUsesIndex("SELECT * FROM refresh_tokens WHERE id = :id",
+                new MapSqlParameterSource("id", UUID.randomUUID()));
+        assertUsesIndex("DELETE FROM refresh_tokens WHERE user_id = :userId",
+                new MapSqlParameterSource("userId", userId));
+        assertUsesIndex(RefreshTokenRepository.ROTATE, new MapSqlParameterSource()
+                .addValue("oldTokenId", UUID.randomUUID())
+                .addValue("newTokenId", UUID.randomUUID())
+                .addValue("userId", userId)
+                .addValue("newExpiryDate", now.plusDays(7))
+                .addValue("now", now));
+    }
+
+    @Test
+    void testUserAuthDataQueries_UseIndexes() {
+        assertUsesIndex(UserAuthDataRepository.DELETE_USER_AUTH_DATA,
+                new MapSqlParameterSource("userIds", List.of(userId, UUID.randomUUID())));
+    }
+
+    @Test
+    void testDataDeletionJobQueries_UseIndexes() {
+        UUID jobId = UUID.randomUUID();
+        assertUsesIndex("SELECT * FROM data_deletion_jobs WHERE status IN ('PENDING', 'RUNNING') "
+                + "ORDER BY created_at LIMIT 1");
+        assertUsesIndex(DataDeletionJobUserRepository.ADD_USERS, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("userIds", List.of(userId)));
+        assertUsesIndex(DataDeletionJobUserRepository.TAKE_USERS, new MapSqlParameterSource()
+                .addValue("jobId", jobId)
+                .addValue("limit", 500));
+    }
+
+    @Test
+    void testSessionEpochAndJobLeaseQueries_UseIndexes() {
+        assertUsesIndex("SELECT * FROM session_epochs WHERE subject_id = :subjectId",
+                new MapSqlParameterSource("subjectId", userId));
+        assertUsesIndex(SessionRevocationRepository.REVOKE_SESSIONS, new MapSqlParameterSource()
+                .addValue("subjectIds", List.of(userId))
+                .addValue("validAfter", now));
+        assertUsesIndex(SessionEpochRepository.DELETE_EXPIRED_CHUNK, purgeChunkParams());
+        assertUsesIndex("SELECT * FROM job_leases WHERE job_name = :jobName",
+                new MapSqlParameterSource("jobName", "test-job"));
+        assertUsesIndex(JobLeaseRepository.ACQUIRE, new MapSqlParameterSource()
+                .addValue("jobName", "test-job")
+                .addValue("owner", "a")
+                .addValue("leaseMillis", 60_000L)
+                .addValue("minIntervalMillis", 0L));
+        assertUsesIndex(JobLeaseRepository.RELEASE, new MapSqlParameterSource()
+                .addValue("jobName", "test-job")
+                .addValue("owner", "a")
+                .addValue("durationMillis", 10L)
+                .addValue("status", "FAILED")
+                .addValue("error", "error"));
+    }
+
+}
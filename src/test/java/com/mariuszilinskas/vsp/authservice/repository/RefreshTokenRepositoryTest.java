@@ -0,0 +1,205 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
+import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RefreshTokenRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final UUID userId = UUID.randomUUID();
+
+    private RefreshToken newRefreshToken() {
+        RefreshToken refreshToken = new RefreshToken(UUID.randomUUID(), userId);
+        refreshToken.setExpiryDate(Instant.now().plusSeconds(3600));
+        return refreshToken;
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testSave_NewTokenIsSingleInsert() {
+        // Arrange
+        RefreshToken refreshToken = newRefreshToken();
+        Statistics statistics = resetStatistics();
+
+        // Act
+        refreshTokenRepository.save(refreshToken);
+        entityManager.flush();
+
+        // Assert
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(1, statistics.getEntityInsertCount());
+        assertFalse(refreshToken.isNew());
+    }
+
+    @Test
+    void testSave_LoadedTokenIsUpdated() {
+        // Arrange
+        RefreshToken refreshToken = refreshTokenRepository.save(newRefreshToken());
+        flushAndClear();
+        RefreshToken loadedToken = refreshTokenRepository.findById(refreshToken.getId()).orElseThrow();
+        Statistics statistics = resetStatistics();
+
+        // Act
+        loadedToken.setExpiryDate(Instant.now().plusSeconds(60));
+        refreshTokenRepository.save(loadedToken);
+        entityManager.flush();
+
+        // Assert
+        assertFalse(loadedToken.isNew());
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityInsertCount());
+        assertEquals(1, statistics.getEntityUpdateCount());
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testRotate_ValidToken() {
+        // Arrange
+        RefreshToken refreshToken = refreshTokenRepository.save(newRefreshToken());
+        UUID newTokenId = UUID.randomUUID();
+        Instant newExpiryDate = Instant.now().plusSeconds(7200);
+        flushAndClear();
+        Statistics statistics = resetStatistics();
+
+        // Act
+        String rotation = refreshTokenRepository.rotate(refreshToken.getId(), newTokenId, userId,
+                newExpiryDate, Instant.now());
+
+        // Assert
+        assertEquals(RefreshTokenRotation.ROTATED.name(), rotation);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertFalse(refreshTokenRepository.existsById(refreshToken.getId()));
+        RefreshToken newToken = refreshTokenRepository.findById(newTokenId).orElseThrow();
+        assertEquals(userId, newToken.getUserId());
+        assertEquals(newExpiryDate.getEpochSecond(), newToken.getExpiryDate().getEpochSecond());
+    }
+
+    @Test
+    void testRotate_ExpiredToken() {
+        // Arrange
+        RefreshToken refreshToken = newRefreshToken();
+        refreshToken.setExpiryDate(Instant.now().minusSeconds(60));
+        refreshTokenRepository.save(refreshToken);
+        UUID newTokenId = UUID.randomUUID();
+        flushAndClear();
+
+        // Act
+        String rotation = refreshTokenRepository.rotate(refreshToken.getId(), newTokenId, userId,
+                Instant.now().plusSeconds(7200), Instant.now());
+
+        // Assert
+        assertEquals(RefreshTokenRotation.EXPIRED.name(), rotation);
+        assertFalse(refreshTokenRepository.existsById(refreshToken.getId()));
+        assertFalse(refreshTokenRepository.existsById(newTokenId));
+    }
+
+    @Test
+    void testRotate_TokenNotFound() {
+        // Arrange
+        UUID newTokenId = UUID.randomUUID();
+
+        // Act
+        String rotation = refreshTokenRepository.rotate(UUID.randomUUID(), newTokenId, userId,
+                Instant.now().plusSeconds(7200), Instant.now());
+
+        // Assert
+        assertEquals(RefreshTokenRotation.NOT_FOUND.name(), rotation);
+        assertFalse(refreshTokenRepository.existsById(newTokenId));
+    }
+
+    @Test
+    void testRotate_TokenOfAnotherUser() {
+        // Arrange
+        RefreshToken refreshToken = refreshTokenRepository.save(newRefreshToken());
+        flushAndClear();
+
+        // Act
+        String rotation = refreshTokenRepository.rotate(refreshToken.getId(), UUID.randomUUID(), UUID.randomUUID(),
+                Instant.now().plusSeconds(7200), Instant.now());
+
+        // Assert
+        assertEquals(RefreshTokenRotation.NOT_FOUND.name(), rotation);
+        assertTrue(refreshTokenRepository.existsById(refreshToken.getId()));
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testDeleteByUserId_SingleBulkStatement() {
+        // Arrange
+        refreshTokenRepository.save(newRefreshToken());
+        refreshTokenRepository.save(newRefreshToken());
+        flushAndClear();
+        Statistics statistics = resetStatistics();
+
+        // Act
+        int deleted = refreshTokenRepository.deleteByUserId(userId);
+
+        // Assert
+        assertEquals(2, deleted);
+        assertEquals(1, statistics.getPrepareStatementCount());
+        assertEquals(0, statistics.getEntityLoadCount());
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testSave_GoesToDailyPartition() {
+        // Arrange
+        RefreshToken refreshToken = refreshTokenRepository.save(newRefreshToken());
+        entityManager.flush();
+
+        // Act
+        String partition = (String) entityManager.createNativeQuery(
+                        "SELECT tableoid::regclass::text FROM refresh_tokens WHERE id = :id")
+                .setParameter("id", refreshToken.getId())
+                .getSingleResult();
+
+        // Assert
+        assertTrue(partition.matches("refresh_tokens_p\\d{8}"), partition);
+    }
+
+    @Test
+    void testCreatePartitions_OnlyMissingOnes() {
+        // Act
+        int created = refreshTokenRepository.createPartitions(12);
+        int createdAgain = refreshTokenRepository.createPartitions(12);
+
+        // Assert
+        assertTrue(created > 0);
+        assertEquals(0, createdAgain);
+    }
+
+    @Test
+    void testDropExpiredPartitions_KeepsCurrentPartitions() {
+        // Arrange
+        entityManager.createNativeQuery("CREATE TABLE refresh_tokens_p20200101 PARTITION OF refresh_tokens "
+                + "FOR VALUES FROM ('2020-01-01 00:00:00+00') TO ('2020-01-02 00:00:00+00')").executeUpdate();
+        RefreshToken expiredToken = newRefreshToken();
+        expiredToken.setExpiryDate(Instant.parse("2020-01-01T12:00:00Z"));
+        refreshTokenRepository.save(expiredToken);
+        RefreshToken validToken = refreshTokenRepository.save(newRefreshToken());
+        flushAndClear();
+
+        // Act
+        int dropped = refreshTokenRepository.dropExpiredPartitions();
+
+        // Assert
+        assertEquals(1, dropped);
+        assertFalse(refreshTokenRepository.existsById(expiredToken.getId()));
+        assertTrue(refreshTokenRepository.existsById(validToken.getId()));
+    }
+
+}
@@ -0,0 +1,45 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+
+import java.time.Instant;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class SessionEpochRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private SessionEpochRepository sessionEpochRepository;
+
+    // ------------------------------------
+
+    @Test
+    void testDeleteExpiredChunk_DeletesOneChunkInIdOrderAndKeepsGlobalEpoch() {
+        // Arrange
+        UUID globalId = new UUID(0, 0);
+        Instant oldEpoch = Instant.now().minusSeconds(3600);
+        sessionEpochRepository.save(new SessionEpoch(globalId, oldEpoch));
+        for (int i = 0; i < 3; i++)
+            sessionEpochRepository.save(new SessionEpoch(UUID.randomUUID(), oldEpoch));
+        UUID recentId = sessionEpochRepository.save(new SessionEpoch(UUID.randomUUID(), Instant.now())).getSubjectId();
+        flushAndClear();
+        Instant cutoff = Instant.now().minusSeconds(60);
+
+        // Act
+        PurgedChunk first = sessionEpochRepository.deleteExpiredChunk(cutoff, globalId, 2);
+        PurgedChunk second = sessionEpochRepository.deleteExpiredChunk(cutoff, first.getLastId(), 2);
+
+        // Assert
+        assertEquals(2, first.getDeleted());
+        assertEquals(1, second.getScanned());
+        assertEquals(1, second.getDeleted());
+        assertEquals(2, sessionEpochRepository.count());
+        assertTrue(sessionEpochRepository.existsById(globalId));
+        assertTrue(sessionEpochRepository.existsById(recentId));
+    }
+
+}
@@ -0,0 +1,60 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(SessionRevocationRepository.class)
+public class SessionRevocationRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private SessionRevocationRepository sessionRevocationRepository;
+
+    @Autowired
+    private SessionEpochRepository sessionEpochRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    private Instant validAfter(UUID subjectId) {
+        return sessionEpochRepository.findById(subjectId).map(SessionEpoch::getValidAfter).orElseThrow();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testRevokeSessions_CreatesAndMovesEpochs() {
+        // Arrange
+        sessionEpochRepository.save(new SessionEpoch(userId, Instant.now().minusSeconds(3600).truncatedTo(ChronoUnit.MILLIS)));
+        flushAndClear();
+        Instant validAfter = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+
+        // Act
+        int revoked = sessionRevocationRepository.revokeSessions(List.of(userId, otherUserId, userId), validAfter);
+        flushAndClear();
+
+        // Assert
+        assertEquals(2, revoked);
+        assertEquals(validAfter, validAfter(userId));
+        assertEquals(validAfter, validAfter(otherUserId));
+    }
+
+    @Test
+    void testRevokeSessions_NoSubjects() {
+        // Act
+        int revoked = sessionRevocationRepository.revokeSessions(List.of(), Instant.now());
+
+        // Assert
+        assertEquals(0, revoked);
+        assertEquals(0, sessionEpochRepository.count());
+    }
+
+}
@@ -0,0 +1,90 @@
+package com.mariuszilinskas.vsp.authservice.repository;
+
+import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.Import;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+@Import(UserAuthDataRepository.class)
+public class UserAuthDataRepositoryTest extends AbstractRepositoryTest {
+
+    @Autowired
+    private UserAuthDataRepository userAuthDataRepository;
+
+    @Autowired
+    private PasswordRepository passwordRepository;
+
+    @Autowired
+    private PasscodeRepository passcodeRepository;
+
+    @Autowired
+    private ResetTokenRepository resetTokenRepository;
+
+    @Autowired
+    private RefreshTokenRepository refreshTokenRepository;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+
+    private void createAuthData(UUID userId) {
+        Instant expiryDate = Instant.now().plusSeconds(3600);
+        passwordRepository.upsertPasswordHash(UUID.randomUUID(), userId, "hash");
+        passcodeRepository.upsertPasscode(UUID.randomUUID(), userId, "123456", expiryDate);
+        resetTokenRepository.upsertResetToken(UUID.randomUUID(), userId, UUID.randomUUID().toString(), expiryDate);
+        RefreshToken refreshToken = new RefreshToken(UUID.randomUUID(), userId);
+        refreshToken.setExpiryDate(expiryDate);
+        refreshTokenRepository.save(refreshToken);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testDeleteUserAuthData_DeletesOnlyGivenUsers() {
+        // Arrange
+        createAuthData(userId);
+        createAuthData(otherUserId);
+        flushAndClear();
+
+        // Act
+        int deleted = userAuthDataRepository.deleteUserAuthData(List.of(userId));
+
+        // Assert
+        assertEquals(4, deleted);
+        assertEquals(1, passwordRepository.count());
+        assertEquals(1, passcodeRepository.count());
+        assertEquals(1, resetTokenRepository.count());
+        assertEquals(1, refreshTokenRepository.count());
+    }
+
+    @Test
+    void testDeleteUserAuthData_MultipleUsers() {
+        // Arrange
+        createAuthData(userId);
+        createAuthData(otherUserId);
+        flushAndClear();
+
+        // Act
+        int deleted = userAuthDataRepository.deleteUserAuthData(List.of(userId, otherUserId, userId));
+
+        // Assert
+        assertEquals(8, deleted);
+        assertEquals(0, passwordRepository.count());
+        assertEquals(0, refreshTokenRepository.count());
+    }
+
+    @Test
+    void testDeleteUserAuthData_NoUsers() {
+        // Act
+        int deleted = userAuthDataRepository.deleteUserAuthData(List.of());
+
+        // Assert
+        assertEquals(0, deleted);
+    }
+
+}
@@ -0,0 +1,98 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenDenylistTest {
+
+    private static final long GENERATION_MILLIS = 1000;
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(100, GENERATION_MILLIS, now::get);
+
+    // ------------------------------------
+
+    @Test
+    void testIsRevoked_EmptyDenylist() {
+        // Act & Assert
+        assertFalse(accessTokenDenylist.isRevoked(UUID.randomUUID()));
+    }
+
+    @Test
+    void testIsRevoked_RevokedId() {
+        // Arrange
+        UUID jwtId = UUID.randomUUID();
+
+        // Act
+        accessTokenDenylist.revoke(jwtId);
+
+        // Assert
+        assertTrue(accessTokenDenylist.isRevoked(jwtId));
+        assertFalse(accessTokenDenylist.isRevoked(UUID.randomUUID()));
+    }
+
+    @Test
+    void testIsRevoked_NoFalsePositivesBeyondCapacity() {
+        // Arrange
+        List<UUID> revoked = new ArrayList<>();
+        for (int i = 0; i < 5_000; i++) {
+            UUID jwtId = UUID.randomUUID();
+            revoked.add(jwtId);
+            accessTokenDenylist.revoke(jwtId);
+        }
+
+        // Act & Assert
+        revoked.forEach(jwtId -> assertTrue(accessTokenDenylist.isRevoked(jwtId)));
+        for (int i = 0; i < 5_000; i++)
+            assertFalse(accessTokenDenylist.isRevoked(UUID.randomUUID()));
+    }
+
+    @Test
+    void testIsRevoked_KeptForAtLeastOneGeneration() {
+        // Arrange
+        UUID jwtId = UUID.randomUUID();
+        now.addAndGet(GENERATION_MILLIS - 1);
+        accessTokenDenylist.revoke(jwtId);
+
+        // Act
+        now.addAndGet(GENERATION_MILLIS);
+
+        // Assert
+        assertTrue(accessTokenDenylist.isRevoked(jwtId));
+    }
+
+    @Test
+    void testIsRevoked_AgesOutAfterTwoGenerations() {
+        // Arrange
+        UUID jwtId = UUID.randomUUID();
+        accessTokenDenylist.revoke(jwtId);
+
+        // Act
+        now.addAndGet(GENERATION_MILLIS);
+        accessTokenDenylist.revoke(UUID.randomUUID());
+        now.addAndGet(GENERATION_MILLIS);
+
+        // Assert
+        assertFalse(accessTokenDenylist.isRevoked(jwtId));
+    }
+
+    @Test
+    void testIsRevoked_IdleDenylistClearsBothGenerations() {
+        // Arrange
+        UUID jwtId = UUID.randomUUID();
+        accessTokenDenylist.revoke(jwtId);
+
+        // Act
+        now.addAndGet(2 * GENERATION_MILLIS);
+
+        // Assert
+        assertFalse(accessTokenDenylist.isRevoked(jwtId));
+    }
+
+}
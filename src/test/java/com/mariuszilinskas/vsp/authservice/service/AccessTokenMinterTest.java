@@ -0,0 +1,137 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.TestUtils;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.Jwts;
+import org.junit.jupiter.api.Test;
+
+import java.util.Date;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AccessTokenMinterTest {
+
+    private final JwtKeyRing jwtKeyRing = new JwtKeyRing(JwtSigningAlgorithm.HS384,
+            TestUtils.secretKey, "", "", "primary", "", TestUtils.secretKey, "primary", "");
+    private final AccessTokenMinter accessTokenMinter = new AccessTokenMinter(jwtKeyRing, AccessTokenProfile.STANDARD);
+    private final long issuedAtMillis = 1717543870123L;
+    private final UUID jwtId = UUID.fromString("0b3f4c9e-5a61-4d7b-9c2e-8f1a2b3c4d5e");
+
+    // ------------------------------------
+
+    @Test
+    void testMint_MatchesJjwtBuilder() {
+        // Arrange
+        var authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+
+        // Act
+        String token = accessTokenMinter.mint(authDetails, jwtId, lifetime(issuedAtMillis));
+
+        // Assert
+        assertEquals(buildWithJjwt(authDetails), token);
+    }
+
+    @Test
+    void testMint_MatchesJjwtBuilderWithEmptyAuthorities() {
+        // Arrange
+        var authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER), List.of(), UserStatus.ACTIVE);
+
+        // Act
+        String token = accessTokenMinter.mint(authDetails, jwtId, lifetime(issuedAtMillis));
+
+        // Assert
+        assertEquals(buildWithJjwt(authDetails), token);
+    }
+
+    @Test
+    void testMint_MatchesJjwtBuilderForManyUsers() {
+        for (int i = 0; i < 100; i++) {
+            // Arrange
+            var authDetails = new AuthDetails(UUID.randomUUID(), List.of(UserRole.ADMIN),
+                    List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+
+            // Act
+            String token = accessTokenMinter.mint(authDetails, jwtId, lifetime(issuedAtMillis + i * 997L));
+
+            // Assert
+            assertEquals(buildWithJjwt(authDetails, issuedAtMillis + i * 997L), token);
+        }
+    }
+
+    @Test
+    void testMint_CompactProfileMatchesJjwtBuilder() {
+        // Arrange
+        var compactMinter = new AccessTokenMinter(jwtKeyRing, AccessTokenProfile.COMPACT);
+        var authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+        String expected = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "primary")
+                .setSubject(authDetails.userId().toString())
+                .setIssuedAt(new Date(issuedAtMillis))
+                .setExpiration(new Date(issuedAtMillis + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS))
+                .setId(jwtId.toString())
+                .claim("rfa", (issuedAtMillis + 720_000) / 1000)
+                .claim("r", 3L)
+                .claim("a", 1L)
+                .signWith(jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME))
+                .compact();
+
+        // Act
+        String token = compactMinter.mint(authDetails, jwtId, lifetime(issuedAtMillis));
+
+        // Assert
+        assertEquals(expected, token);
+        assertTrue(token.length() < accessTokenMinter.mint(authDetails, jwtId, lifetime(issuedAtMillis)).length());
+    }
+
+    @Test
+    void testMint_TokenAcceptedByParser() {
+        // Arrange
+        var authDetails = new AuthDetails(TestUtils.userId, List.of(UserRole.USER), List.of(), UserStatus.ACTIVE);
+        String token = accessTokenMinter.mint(authDetails, jwtId, lifetime(System.currentTimeMillis()));
+
+        // Act
+        var claims = jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token).getBody();
+
+        // Assert
+        assertEquals(TestUtils.userId.toString(), claims.getSubject());
+        assertEquals(jwtId.toString(), claims.getId());
+        assertEquals(List.of("USER"), claims.get("roles", List.class));
+    }
+
+    // ------------------------------------
+
+    private TokenLifetime lifetime(long issuedAt) {
+        return new TokenLifetime(issuedAt, issuedAt + 720_000, issuedAt + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS);
+    }
+
+    private String buildWithJjwt(AuthDetails authDetails) {
+        return buildWithJjwt(authDetails, issuedAtMillis);
+    }
+
+    private String buildWithJjwt(AuthDetails authDetails, long issuedAt) {
+        return Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "primary")
+                .setSubject(authDetails.userId().toString())
+                .setIssuedAt(new Date(issuedAt))
+                .setExpiration(new Date(issuedAt + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS))
+                .setId(jwtId.toString())
+                .claim("rfa", (issuedAt + 720_000) / 1000)
+                .claim("roles", authDetails.roles().stream().map(Enum::name).toList())
+                .claim("authorities", authDetails.authorities().stream().map(Enum::name).toList())
+                .signWith(jwtKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME))
+                .compact();
+    }
+
+}
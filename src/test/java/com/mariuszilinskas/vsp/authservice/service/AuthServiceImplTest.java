@@ -1,10 +1,10 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.dto.*;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
 import com.mariuszilinskas.vsp.authservice.enums.UserRole;
 import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
 import com.mariuszilinskas.vsp.authservice.exception.*;
-import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
 import jakarta.servlet.http.HttpServletRequest;
 import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
@@ -12,13 +12,20 @@ import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.mock.web.MockHttpServletRequest;
 import org.springframework.mock.web.MockHttpServletResponse;
 
+import java.time.Instant;
 import java.util.List;
 import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
@@ -38,6 +45,15 @@ public class AuthServiceImplTest {
     @Mock
     private UserService userService;
 
+    @Mock
+    private TokenRefreshMetrics tokenRefreshMetrics;
+
+    @Spy
+    private TokenRefreshCoalescer tokenRefreshCoalescer = new TokenRefreshCoalescer(10, 1000, 5000);
+
+    @Mock
+    private CredentialStuffingDetector credentialStuffingDetector;
+
     @Mock
     private HttpServletRequest mockRequest;
 
@@ -51,6 +67,8 @@ public class AuthServiceImplTest {
     private final UUID tokenId = UUID.randomUUID();
     private final String refreshToken = "test_refresh_token";
     private AuthDetails authDetails;
+    private VerifiedToken verifiedToken;
+    private final AuthTokens authTokens = new AuthTokens("access_cookie", "refresh_cookie", 0);
 
     // ------------------------------------
 
@@ -59,6 +77,8 @@ public class AuthServiceImplTest {
         mockRequest = new MockHttpServletRequest();
         mockResponse = new MockHttpServletResponse();
         authDetails = new AuthDetails(userId, List.of(UserRole.USER), List.of(), UserStatus.ACTIVE);
+        verifiedToken = new VerifiedToken(userId, tokenId, null, List.of(), List.of(),
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(60));
     }
 
     // ------------------------------------
@@ -77,13 +97,14 @@ public class AuthServiceImplTest {
         doNothing().when(jwtService).setAuthCookies(eq(mockResponse), eq(authDetails), any(UUID.class));
 
         // Act
-        authService.authenticateUser(loginRequest, mockResponse);
+        authService.authenticateUser(loginRequest, mockRequest, mockResponse);
 
         // Assert
         verify(userService, times(1)).getUserAuthDetailsWithEmail(email);
         verify(passwordService, times(1)).verifyPassword(passwordRequest);
         verify(refreshTokenService, times(1)).createNewRefreshToken(any(UUID.class), eq(userId));
         verify(jwtService, times(1)).setAuthCookies(eq(mockResponse), eq(authDetails), any(UUID.class));
+        verify(credentialStuffingDetector, never()).recordFailure(anyString(), anyString(), any());
     }
 
     @Test
@@ -99,7 +120,7 @@ public class AuthServiceImplTest {
 
         // Act & Assert
         assertThrows(CredentialsValidationException.class, () -> {
-            authService.authenticateUser(loginRequest, mockResponse);
+            authService.authenticateUser(loginRequest, mockRequest, mockResponse);
         });
 
         // Assert
@@ -119,7 +140,7 @@ public class AuthServiceImplTest {
 
         // Act & Assert
         assertThrows(CredentialsValidationException.class, () -> {
-            authService.authenticateUser(loginRequest, mockResponse);
+            authService.authenticateUser(loginRequest, mockRequest, mockResponse);
         });
 
         // Assert
@@ -141,7 +162,7 @@ public class AuthServiceImplTest {
 
         // Act & Assert
         assertThrows(UserStatusAccessException.class, () -> {
-            authService.authenticateUser(loginRequest, mockResponse);
+            authService.authenticateUser(loginRequest, mockRequest, mockResponse);
         });
 
         // Assert
@@ -152,19 +173,57 @@ public class AuthServiceImplTest {
                 .setAuthCookies(any(HttpServletResponse.class), any(AuthDetails.class), any(UUID.class));
     }
 
+    @Test
+    void testAuthenticateUser_RecordsFailureForStuffingDetection() {
+        // Arrange
+        String email = "user@email.com";
+        LoginRequest loginRequest = new LoginRequest(email, "wrongPassword");
+        ((MockHttpServletRequest) mockRequest).addHeader("User-Agent", "test-agent");
+
+        when(userService.getUserAuthDetailsWithEmail(email)).thenReturn(authDetails);
+        doThrow(CredentialsValidationException.class).when(passwordService).verifyPassword(any(VerifyPasswordRequest.class));
+
+        // Act & Assert
+        assertThrows(CredentialsValidationException.class, () -> {
+            authService.authenticateUser(loginRequest, mockRequest, mockResponse);
+        });
+
+        // Assert
+        verify(credentialStuffingDetector, times(1)).checkLogin("127.0.0.1", email, "test-agent");
+        verify(credentialStuffingDetector, times(1)).recordFailure("127.0.0.1", email, "test-agent");
+    }
+
+    @Test
+    void testAuthenticateUser_HeavyHitterRejected() {
+        // Arrange
+        String email = "user@email.com";
+        LoginRequest loginRequest = new LoginRequest(email, "Password1!");
+        doThrow(new RateLimitExceededException(30))
+                .when(credentialStuffingDetector).checkLogin("127.0.0.1", email, null);
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class, () -> {
+            authService.authenticateUser(loginRequest, mockRequest, mockResponse);
+        });
+
+        // Assert
+        verify(userService, never()).getUserAuthDetailsWithEmail(anyString());
+        verify(passwordService, never()).verifyPassword(any(VerifyPasswordRequest.class));
+        verify(credentialStuffingDetector, never()).recordFailure(anyString(), anyString(), any());
+    }
+
     // ------------------------------------
 
     @Test
     void testRefreshAuthTokens_Success() {
         // Arrange
         when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
-        doNothing().when(jwtService).validateRefreshToken(refreshToken);
-        when(jwtService.extractUserIdFromToken(refreshToken, AuthUtils.REFRESH_TOKEN_NAME)).thenReturn(userId);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
         when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
-        when(jwtService.extractRefreshTokenId(refreshToken)).thenReturn(tokenId);
-        doNothing().when(refreshTokenService).createNewRefreshToken(any(UUID.class), eq(userId));
-        doNothing().when(jwtService).setAuthCookies(eq(mockResponse), eq(authDetails), any(UUID.class));
-        doNothing().when(refreshTokenService).deleteRefreshToken(tokenId);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.ROTATED);
+        when(jwtService.createAuthTokens(eq(authDetails), any(UUID.class))).thenReturn(authTokens);
 
         // Act
         authService.refreshTokens(mockRequest, mockResponse);
@@ -172,12 +231,11 @@ public class AuthServiceImplTest {
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
         verify(jwtService, times(1)).validateRefreshToken(refreshToken);
-        verify(jwtService, times(1)).extractUserIdFromToken(refreshToken, AuthUtils.REFRESH_TOKEN_NAME);
         verify(userService, times(1)).getUserAuthDetailsWithId(userId);
-        verify(jwtService, times(1)).extractRefreshTokenId(refreshToken);
-        verify(refreshTokenService, times(1)).createNewRefreshToken(any(UUID.class), eq(userId));
-        verify(jwtService, times(1)).setAuthCookies(eq(mockResponse), eq(authDetails), any(UUID.class));
-        verify(refreshTokenService, times(1)).deleteRefreshToken(tokenId);
+        verify(refreshTokenService, times(1)).rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId));
+        verify(jwtService, times(1)).createAuthTokens(eq(authDetails), any(UUID.class));
+        verify(jwtService, times(1)).setAuthCookies(mockResponse, authTokens);
+        verify(tokenRefreshMetrics, times(1)).recordRefresh();
     }
 
     @Test
@@ -193,19 +251,18 @@ public class AuthServiceImplTest {
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
 
+        verify(jwtService, never()).parseRefreshToken(anyString());
         verify(jwtService, never()).validateRefreshToken(anyString());
-        verify(jwtService, never()).extractUserIdFromToken(anyString(), anyString());
         verify(userService, never()).getUserAuthDetailsWithId(any(UUID.class));
-        verify(jwtService, never()).extractRefreshTokenId(anyString());
-        verify(refreshTokenService, never()).createNewRefreshToken(any(UUID.class), any(UUID.class));
-        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthDetails.class), any(UUID.class));
-        verify(refreshTokenService, never()).deleteRefreshToken(any(UUID.class));
+        verify(refreshTokenService, never()).rotateRefreshToken(any(UUID.class), any(UUID.class), any(UUID.class));
+        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthTokens.class));
     }
 
     @Test
     void testRefreshAuthTokens_RefreshTokenNotFound() {
         // Arrange
         when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
         doThrow(new JwtTokenValidationException()).when(jwtService).validateRefreshToken(refreshToken);
 
         // Act & Assert
@@ -217,12 +274,9 @@ public class AuthServiceImplTest {
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
         verify(jwtService, times(1)).validateRefreshToken(refreshToken);
 
-        verify(jwtService, never()).extractUserIdFromToken(anyString(), anyString());
         verify(userService, never()).getUserAuthDetailsWithId(any(UUID.class));
-        verify(jwtService, never()).extractRefreshTokenId(anyString());
-        verify(refreshTokenService, never()).createNewRefreshToken(any(UUID.class), any(UUID.class));
-        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthDetails.class), any(UUID.class));
-        verify(refreshTokenService, never()).deleteRefreshToken(any(UUID.class));
+        verify(refreshTokenService, never()).rotateRefreshToken(any(UUID.class), any(UUID.class), any(UUID.class));
+        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthTokens.class));
     }
 
     @Test
@@ -231,8 +285,8 @@ public class AuthServiceImplTest {
         authDetails = new AuthDetails(userId, List.of(UserRole.USER), List.of(), UserStatus.SUSPENDED);
 
         when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
-        doNothing().when(jwtService).validateRefreshToken(refreshToken);
-        when(jwtService.extractUserIdFromToken(refreshToken, AuthUtils.REFRESH_TOKEN_NAME)).thenReturn(userId);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
         when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
 
         // Act & Assert
@@ -243,13 +297,151 @@ public class AuthServiceImplTest {
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
         verify(jwtService, times(1)).validateRefreshToken(refreshToken);
-        verify(jwtService, times(1)).extractUserIdFromToken(refreshToken, AuthUtils.REFRESH_TOKEN_NAME);
         verify(userService, times(1)).getUserAuthDetailsWithId(userId);
 
-        verify(jwtService, never()).extractRefreshTokenId(anyString());
-        verify(refreshTokenService, never()).createNewRefreshToken(any(UUID.class), any(UUID.class));
-        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthDetails.class), any(UUID.class));
-        verify(refreshTokenService, never()).deleteRefreshToken(any(UUID.class));
+        verify(refreshTokenService, never()).rotateRefreshToken(any(UUID.class), any(UUID.class), any(UUID.class));
+        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthTokens.class));
+    }
+
+    @Test
+    void testRefreshAuthTokens_ExpiredTokenInDatabase() {
+        // Arrange
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.EXPIRED);
+
+        // Act & Assert
+        assertThrows(JwtTokenValidationException.class, () -> authService.refreshTokens(mockRequest, mockResponse));
+
+        // Assert
+        verify(refreshTokenService, never()).deleteUserRefreshTokens(any(UUID.class));
+        verify(jwtService, never()).createAuthTokens(any(AuthDetails.class), any(UUID.class));
+        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthTokens.class));
+    }
+
+    @Test
+    void testRefreshAuthTokens_TokenNotInDatabase() {
+        // Arrange
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.NOT_FOUND);
+
+        // Act & Assert
+        assertThrows(JwtTokenValidationException.class, () -> authService.refreshTokens(mockRequest, mockResponse));
+
+        // Assert
+        verify(refreshTokenService, times(1)).deleteUserRefreshTokens(userId);
+        verify(jwtService, never()).createAuthTokens(any(AuthDetails.class), any(UUID.class));
+        verify(jwtService, never()).setAuthCookies(any(HttpServletResponse.class), any(AuthTokens.class));
+    }
+
+    @Test
+    void testRefreshAuthTokens_RepeatedWithinGraceWindow() {
+        // Arrange
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.ROTATED);
+        when(jwtService.createAuthTokens(eq(authDetails), any(UUID.class))).thenReturn(authTokens);
+
+        // Act
+        authService.refreshTokens(mockRequest, mockResponse);
+        authService.refreshTokens(mockRequest, mockResponse);
+
+        // Assert
+        verify(jwtService, times(1)).validateRefreshToken(refreshToken);
+        verify(jwtService, times(1)).checkSessionEpoch(verifiedToken);
+        verify(refreshTokenService, times(1)).rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId));
+        verify(jwtService, times(2)).setAuthCookies(mockResponse, authTokens);
+    }
+
+    @Test
+    void testRefreshAuthTokens_GraceWindowRefusedAfterRevocation() {
+        // Arrange
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.ROTATED);
+        when(jwtService.createAuthTokens(eq(authDetails), any(UUID.class))).thenReturn(authTokens);
+        authService.refreshTokens(mockRequest, mockResponse);
+
+        // The user's sessions are revoked while the new pair is still in the grace window
+        doThrow(new JwtTokenValidationException()).when(jwtService).checkSessionEpoch(verifiedToken);
+
+        // Act & Assert
+        assertThrows(JwtTokenValidationException.class, () -> authService.refreshTokens(mockRequest, mockResponse));
+
+        verify(refreshTokenService, times(1)).rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId));
+        verify(jwtService, times(1)).setAuthCookies(mockResponse, authTokens);
+    }
+
+    @Test
+    void testRefreshAuthTokens_ConcurrentRequestsAreCoalesced() throws Exception {
+        // Arrange
+        CountDownLatch rotationStarted = new CountDownLatch(1);
+        CountDownLatch releaseRotation = new CountDownLatch(1);
+
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken)).thenAnswer(invocation -> {
+            rotationStarted.countDown();
+            assertTrue(releaseRotation.await(5, TimeUnit.SECONDS));
+            return verifiedToken;
+        });
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.ROTATED);
+        when(jwtService.createAuthTokens(eq(authDetails), any(UUID.class))).thenReturn(authTokens);
+
+        ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            // Act
+            Future<?> first = executor.submit(() -> authService.refreshTokens(mockRequest, new MockHttpServletResponse()));
+            assertTrue(rotationStarted.await(5, TimeUnit.SECONDS));
+            Future<?> second = executor.submit(() -> authService.refreshTokens(mockRequest, new MockHttpServletResponse()));
+            releaseRotation.countDown();
+            first.get(5, TimeUnit.SECONDS);
+            second.get(5, TimeUnit.SECONDS);
+        } finally {
+            executor.shutdownNow();
+        }
+
+        // Assert
+        verify(jwtService, times(1)).validateRefreshToken(refreshToken);
+        verify(refreshTokenService, times(1)).rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId));
+        verify(jwtService, times(2)).setAuthCookies(any(HttpServletResponse.class), eq(authTokens));
+    }
+
+    @Test
+    void testRefreshAuthTokens_FailedRotationIsNotRemembered() {
+        // Arrange
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        when(jwtService.validateRefreshToken(refreshToken))
+                .thenThrow(new JwtTokenValidationException())
+                .thenReturn(verifiedToken);
+        when(userService.getUserAuthDetailsWithId(userId)).thenReturn(authDetails);
+        when(refreshTokenService.rotateRefreshToken(eq(tokenId), any(UUID.class), eq(userId)))
+                .thenReturn(RefreshTokenRotation.ROTATED);
+        when(jwtService.createAuthTokens(eq(authDetails), any(UUID.class))).thenReturn(authTokens);
+
+        // Act & Assert
+        assertThrows(JwtTokenValidationException.class, () -> authService.refreshTokens(mockRequest, mockResponse));
+        authService.refreshTokens(mockRequest, mockResponse);
+
+        // Assert
+        verify(jwtService, times(2)).validateRefreshToken(refreshToken);
+        verify(jwtService, times(1)).setAuthCookies(mockResponse, authTokens);
     }
 
     // ------------------------------------
@@ -257,19 +449,33 @@ public class AuthServiceImplTest {
     @Test
     void testLogoutUser_Success() {
         // Arrange
-        UUID tokenId = UUID.randomUUID();
-
         when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
-        when(jwtService.extractRefreshTokenId(refreshToken)).thenReturn(tokenId);
-        doNothing().when(refreshTokenService).deleteRefreshToken(tokenId);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        doNothing().when(refreshTokenService).revokeRefreshToken(tokenId, userId);
 
         // Act
         authService.logoutUser(mockRequest, mockResponse, userId);
 
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
-        verify(jwtService, times(1)).extractRefreshTokenId(refreshToken);
-        verify(refreshTokenService, times(1)).deleteRefreshToken(tokenId);
+        verify(jwtService, times(1)).parseRefreshToken(refreshToken);
+        verify(tokenRefreshCoalescer, times(1)).invalidate(tokenId);
+        verify(refreshTokenService, times(1)).revokeRefreshToken(tokenId, userId);
+        verify(jwtService, times(1)).clearAuthCookies(mockResponse);
+    }
+
+    @Test
+    void testLogoutUser_RevokesAccessToken() {
+        // Arrange
+        String accessToken = "test_access_token";
+        when(jwtService.extractAccessToken(mockRequest)).thenReturn(accessToken);
+        when(jwtService.extractRefreshToken(mockRequest)).thenReturn(null);
+
+        // Act
+        authService.logoutUser(mockRequest, mockResponse, userId);
+
+        // Assert
+        verify(jwtService, times(1)).revokeAccessToken(accessToken);
         verify(jwtService, times(1)).clearAuthCookies(mockResponse);
     }
 
@@ -283,8 +489,8 @@ public class AuthServiceImplTest {
 
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
-        verify(jwtService, never()).extractRefreshTokenId(anyString());
-        verify(refreshTokenService, never()).deleteRefreshToken(any(UUID.class));
+        verify(jwtService, never()).parseRefreshToken(anyString());
+        verify(refreshTokenService, never()).revokeRefreshToken(any(UUID.class), any(UUID.class));
         verify(jwtService, times(1)).clearAuthCookies(mockResponse);
     }
 
@@ -292,10 +498,12 @@ public class AuthServiceImplTest {
     void testLogoutUser_RefreshTokenNotFound() {
         // Arrange
         UUID nonExistingId = UUID.randomUUID();
+        verifiedToken = new VerifiedToken(userId, nonExistingId, null, List.of(), List.of(),
+                Instant.now().minusSeconds(60), Instant.now().plusSeconds(60));
 
         when(jwtService.extractRefreshToken(mockRequest)).thenReturn(refreshToken);
-        when(jwtService.extractRefreshTokenId(refreshToken)).thenReturn(nonExistingId);
-        doThrow(new DataIntegrityViolationException("Error deleting refresh token")).when(refreshTokenService).deleteRefreshToken(nonExistingId);
+        when(jwtService.parseRefreshToken(refreshToken)).thenReturn(verifiedToken);
+        doThrow(new DataIntegrityViolationException("Error deleting refresh token")).when(refreshTokenService).revokeRefreshToken(nonExistingId, userId);
 
         // Act & Assert
         assertThrows(DataIntegrityViolationException.class, () -> {
@@ -304,8 +512,8 @@ public class AuthServiceImplTest {
 
         // Assert
         verify(jwtService, times(1)).extractRefreshToken(mockRequest);
-        verify(jwtService, times(1)).extractRefreshTokenId(anyString());
-        verify(refreshTokenService, times(1)).deleteRefreshToken(any(UUID.class));
+        verify(jwtService, times(1)).parseRefreshToken(anyString());
+        verify(refreshTokenService, times(1)).revokeRefreshToken(any(UUID.class), any(UUID.class));
         verify(jwtService, times(1)).clearAuthCookies(mockResponse);
     }
 
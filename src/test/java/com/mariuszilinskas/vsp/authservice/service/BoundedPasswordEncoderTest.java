@@ -0,0 +1,148 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.exception.PasswordHashingUnavailableException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.security.crypto.password.PasswordEncoder;
+
+import java.time.Duration;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class BoundedPasswordEncoderTest {
+
+    @Mock
+    private PasswordEncoder delegate;
+
+    private SimpleMeterRegistry meterRegistry;
+    private BoundedPasswordEncoder passwordEncoder;
+
+    private final CountDownLatch started = new CountDownLatch(1);
+    private final CountDownLatch release = new CountDownLatch(1);
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+    }
+
+    @AfterEach
+    void tearDown() {
+        release.countDown();
+        if (passwordEncoder != null)
+            passwordEncoder.shutdown();
+    }
+
+    private BoundedPasswordEncoder newPasswordEncoder(int queueCapacity, Duration maxQueueWait) {
+        return new BoundedPasswordEncoder(delegate, 1, queueCapacity, maxQueueWait, meterRegistry);
+    }
+
+    /**
+     * Occupies the pool's only thread until the test releases it.
+     */
+    private CompletableFuture<String> blockPool() throws InterruptedException {
+        when(delegate.encode("blocking")).thenAnswer(invocation -> {
+            started.countDown();
+            release.await();
+            return "hash";
+        });
+        CompletableFuture<String> blocked = CompletableFuture.supplyAsync(() -> passwordEncoder.encode("blocking"));
+        assertTrue(started.await(5, TimeUnit.SECONDS));
+        return blocked;
+    }
+
+    private void awaitQueued() throws InterruptedException {
+        while (meterRegistry.get("auth.password.hashing.queue.depth").gauge().value() < 1)
+            Thread.sleep(5);
+    }
+
+    private double rejected(String reason) {
+        return meterRegistry.get("auth.password.hashing.rejected").tag("reason", reason).counter().count();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testEncodeAndMatches_RunOnHashingThread() {
+        // Arrange
+        passwordEncoder = newPasswordEncoder(1, Duration.ofSeconds(5));
+        when(delegate.encode("password")).thenAnswer(invocation -> Thread.currentThread().getName());
+        when(delegate.matches("password", "hash")).thenReturn(true);
+
+        // Act
+        String threadName = passwordEncoder.encode("password");
+        boolean matches = passwordEncoder.matches("password", "hash");
+
+        // Assert
+        assertTrue(threadName.startsWith("password-hashing-"));
+        assertTrue(matches);
+        assertEquals(2, meterRegistry.get("auth.password.hashing.queue.wait").timer().count());
+    }
+
+    @Test
+    void testEncode_DelegateExceptionIsRethrown() {
+        // Arrange
+        passwordEncoder = newPasswordEncoder(1, Duration.ofSeconds(5));
+        when(delegate.encode("password")).thenThrow(new IllegalArgumentException("bad"));
+
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> passwordEncoder.encode("password"));
+    }
+
+    @Test
+    void testMatches_QueueFull() throws Exception {
+        // Arrange
+        passwordEncoder = newPasswordEncoder(1, Duration.ofSeconds(5));
+        CompletableFuture<String> blocked = blockPool();
+        when(delegate.matches("password", "hash")).thenReturn(true);
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("password", "hash"));
+        awaitQueued();
+
+        // Act & Assert
+        assertThrows(PasswordHashingUnavailableException.class, () -> passwordEncoder.matches("password", "hash"));
+
+        assertEquals(1, rejected("queue_full"));
+        release.countDown();
+        assertEquals("hash", blocked.get(5, TimeUnit.SECONDS));
+        assertTrue(queued.get(5, TimeUnit.SECONDS));
+    }
+
+    @Test
+    void testMatches_QueueWaitExceeded() throws Exception {
+        // Arrange
+        passwordEncoder = newPasswordEncoder(1, Duration.ofMillis(10));
+        blockPool();
+        CompletableFuture<Boolean> queued = CompletableFuture.supplyAsync(() -> passwordEncoder.matches("password", "hash"));
+        awaitQueued();
+        Thread.sleep(50);
+
+        // Act
+        release.countDown();
+
+        // Assert
+        Exception ex = assertThrows(Exception.class, () -> queued.get(5, TimeUnit.SECONDS));
+        assertInstanceOf(PasswordHashingUnavailableException.class, ex.getCause());
+        assertEquals(1, rejected("queue_wait"));
+        verify(delegate, never()).matches(anyString(), anyString());
+    }
+
+    @Test
+    void testUpgradeEncoding_RunsOnCallerThread() {
+        // Arrange
+        passwordEncoder = newPasswordEncoder(1, Duration.ofSeconds(5));
+        when(delegate.upgradeEncoding("hash")).thenReturn(true);
+
+        // Act & Assert
+        assertTrue(passwordEncoder.upgradeEncoding("hash"));
+    }
+
+}
@@ -0,0 +1,174 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.HeavyHitter;
+import com.mariuszilinskas.vsp.authservice.enums.LoginFailureDimension;
+import com.mariuszilinskas.vsp.authservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class CredentialStuffingDetectorTest {
+
+    private static final long WINDOW_MILLIS = 100_000;
+    private static final String CLIENT_IP = "203.0.113.7";
+    private static final String EMAIL = "user@email.com";
+    private static final String USER_AGENT = "test-agent";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private CredentialStuffingDetector detector;
+
+    @BeforeEach
+    void setUp() {
+        detector = new CredentialStuffingDetector(WINDOW_MILLIS, 1024, 3, now::get);
+        detector.addDimension(meterRegistry, LoginFailureDimension.IP_PREFIX, 10);
+        detector.addDimension(meterRegistry, LoginFailureDimension.EMAIL, 5);
+        detector.addDimension(meterRegistry, LoginFailureDimension.USER_AGENT, 0);
+    }
+
+    private void recordFailures(String clientIp, String email, int times) {
+        for (int i = 0; i < times; i++)
+            detector.recordFailure(clientIp, email, USER_AGENT);
+    }
+
+    private double rejected(LoginFailureDimension dimension) {
+        return meterRegistry.get("auth.credential.stuffing.rejected")
+                .tag("dimension", dimension.name()).counter().count();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testCheckLogin_NoFailures() {
+        // Act & Assert
+        assertDoesNotThrow(() -> detector.checkLogin(CLIENT_IP, EMAIL, USER_AGENT));
+    }
+
+    @Test
+    void testCheckLogin_EmailThresholdReachedFromManyIps() {
+        // Arrange
+        for (int i = 0; i < 5; i++)
+            recordFailures("198.51." + i + ".1", EMAIL, 1);
+
+        // Act & Assert
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> detector.checkLogin(CLIENT_IP, EMAIL, USER_AGENT));
+
+        assertEquals(10, ex.getRetryAfterSeconds());
+        assertEquals(1, rejected(LoginFailureDimension.EMAIL));
+        assertDoesNotThrow(() -> detector.checkLogin(CLIENT_IP, "other@email.com", USER_AGENT));
+    }
+
+    @Test
+    void testCheckLogin_EmailCaseAndWhitespaceCountAsOneKey() {
+        // Arrange
+        recordFailures("198.51.0.1", "A@email.com", 3);
+        recordFailures("198.51.1.1", "a@email.com ", 2);
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class,
+                () -> detector.checkLogin(CLIENT_IP, " A@Email.com", USER_AGENT));
+
+        List<HeavyHitter> emails = detector.getHeavyHitters().get(LoginFailureDimension.EMAIL);
+        assertEquals(1, emails.size());
+        assertEquals(5, emails.get(0).failures());
+    }
+
+    @Test
+    void testCheckLogin_IpPrefixThresholdReachedAcrossEmails() {
+        // Arrange
+        for (int i = 0; i < 10; i++)
+            recordFailures("203.0.113." + i, "user" + i + "@email.com", 1);
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class,
+                () -> detector.checkLogin("203.0.113.200", "new@email.com", USER_AGENT));
+
+        assertEquals(1, rejected(LoginFailureDimension.IP_PREFIX));
+        assertDoesNotThrow(() -> detector.checkLogin("203.0.114.1", "new@email.com", USER_AGENT));
+    }
+
+    @Test
+    void testCheckLogin_UserAgentOnlyTracked() {
+        // Arrange
+        for (int i = 0; i < 50; i++)
+            recordFailures("198.51." + i + ".1", "user" + i + "@email.com", 1);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> detector.checkLogin(CLIENT_IP, EMAIL, USER_AGENT));
+    }
+
+    @Test
+    void testCheckLogin_FailuresLeaveSlidingWindow() {
+        // Arrange
+        recordFailures(CLIENT_IP, EMAIL, 3);
+        now.addAndGet(WINDOW_MILLIS / 2);
+        recordFailures(CLIENT_IP, EMAIL, 2);
+        assertThrows(RateLimitExceededException.class, () -> detector.checkLogin(CLIENT_IP, EMAIL, USER_AGENT));
+
+        // Act
+        now.addAndGet(WINDOW_MILLIS / 2);
+
+        // Assert
+        assertDoesNotThrow(() -> detector.checkLogin(CLIENT_IP, EMAIL, USER_AGENT));
+    }
+
+    @Test
+    void testGetHeavyHitters_HighestFirstAndBounded() {
+        // Arrange
+        recordFailures(CLIENT_IP, "a@email.com", 6);
+        recordFailures(CLIENT_IP, "b@email.com", 4);
+        recordFailures(CLIENT_IP, "c@email.com", 1);
+        recordFailures(CLIENT_IP, "d@email.com", 2);
+
+        // Act
+        List<HeavyHitter> emails = detector.getHeavyHitters().get(LoginFailureDimension.EMAIL);
+        List<HeavyHitter> ipPrefixes = detector.getHeavyHitters().get(LoginFailureDimension.IP_PREFIX);
+        List<HeavyHitter> userAgents = detector.getHeavyHitters().get(LoginFailureDimension.USER_AGENT);
+
+        // Assert
+        assertEquals(List.of("a***@email.com", "b***@email.com", "d***@email.com"),
+                emails.stream().map(hitter -> hitter.key().substring(0, hitter.key().indexOf('#'))).toList());
+        assertTrue(emails.get(0).key().matches("a\\*\\*\\*@email\\.com#[0-9a-f]{8}"));
+        assertEquals(6, emails.get(0).failures());
+        assertTrue(emails.get(0).blocked());
+        assertFalse(emails.get(1).blocked());
+        assertEquals(new HeavyHitter("203.0.113.0/24", 13, true), ipPrefixes.get(0));
+        assertEquals(new HeavyHitter(USER_AGENT, 13, false), userAgents.get(0));
+    }
+
+    @Test
+    void testGetHeavyHitters_EmptyAfterWindow() {
+        // Arrange
+        recordFailures(CLIENT_IP, EMAIL, 3);
+
+        // Act
+        now.addAndGet(WINDOW_MILLIS);
+
+        // Assert
+        assertTrue(detector.getHeavyHitters().get(LoginFailureDimension.EMAIL).isEmpty());
+    }
+
+    @Test
+    void testMaskEmail() {
+        // Act & Assert
+        assertEquals("u***@email.com", CredentialStuffingDetector.maskEmail("user@email.com"));
+        assertEquals("***@email.com", CredentialStuffingDetector.maskEmail("@email.com"));
+        assertEquals("***", CredentialStuffingDetector.maskEmail("not-an-email"));
+    }
+
+    @Test
+    void testIpPrefix() {
+        // Act & Assert
+        assertEquals("203.0.113.0/24", CredentialStuffingDetector.ipPrefix("203.0.113.42"));
+        assertEquals("2001:db8:1:0:0:0:0:0/48", CredentialStuffingDetector.ipPrefix("2001:db8:1:2::7"));
+        assertEquals("unknown", CredentialStuffingDetector.ipPrefix("unknown"));
+        assertNull(CredentialStuffingDetector.ipPrefix(null));
+    }
+
+}
@@ -0,0 +1,216 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.DataDeletionJobResponse;
+import com.mariuszilinskas.vsp.authservice.enums.DataDeletionJobStatus;
+import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
+import com.mariuszilinskas.vsp.authservice.exception.UserIdsValidationException;
+import com.mariuszilinskas.vsp.authservice.model.DataDeletionJob;
+import com.mariuszilinskas.vsp.authservice.repository.DataDeletionJobRepository;
+import com.mariuszilinskas.vsp.authservice.repository.DataDeletionJobUserRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.io.ByteArrayInputStream;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class DataDeletionJobServiceImplTest {
+
+    @Mock
+    private DataDeletionJobRepository dataDeletionJobRepository;
+
+    @Mock
+    private DataDeletionJobUserRepository dataDeletionJobUserRepository;
+
+    @Mock
+    private DataDeletionService dataDeletionService;
+
+    private DataDeletionJobServiceImpl dataDeletionJobService;
+
+    private final UUID jobId = UUID.randomUUID();
+    private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
+    private DataDeletionJob job;
+
+    @BeforeEach
+    void setUp() {
+        dataDeletionJobService = new DataDeletionJobServiceImpl(
+                dataDeletionJobRepository, dataDeletionJobUserRepository, dataDeletionService, 3);
+        job = new DataDeletionJob();
+        job.setId(jobId);
+    }
+
+    private static InputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    // ------------------------------------
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testCreateJob_Success() {
+        // Arrange
+        ArgumentCaptor<Collection<UUID>> captor = ArgumentCaptor.forClass(Collection.class);
+        when(dataDeletionJobRepository.saveAndFlush(any(DataDeletionJob.class))).thenReturn(job);
+        when(dataDeletionJobUserRepository.addUsers(eq(jobId), captor.capture())).thenReturn(2);
+        when(dataDeletionJobRepository.save(job)).thenReturn(job);
+
+        // Act
+        DataDeletionJobResponse response = dataDeletionJobService.createJob(stream(userId + "\n\n" + otherUserId + ", " + userId + "\n"));
+
+        // Assert
+        assertEquals(List.of(userId, otherUserId, userId), List.copyOf(captor.getValue()));
+        assertEquals(jobId, response.id());
+        assertEquals(DataDeletionJobStatus.PENDING, response.status());
+        assertEquals(2, response.totalUsers());
+        assertEquals(0, response.processedUsers());
+    }
+
+    @Test
+    void testCreateJob_InvalidUserId() {
+        // Arrange
+        when(dataDeletionJobRepository.saveAndFlush(any(DataDeletionJob.class))).thenReturn(job);
+
+        // Act & Assert
+        UserIdsValidationException ex = assertThrows(UserIdsValidationException.class,
+                () -> dataDeletionJobService.createJob(stream(userId + "\n1-2-3-4-5\n")));
+
+        assertTrue(ex.getMessage().contains("line 2"));
+        verify(dataDeletionJobRepository, never()).save(any(DataDeletionJob.class));
+    }
+
+    @Test
+    void testCreateJob_NoUserIds() {
+        // Arrange
+        when(dataDeletionJobRepository.saveAndFlush(any(DataDeletionJob.class))).thenReturn(job);
+
+        // Act & Assert
+        assertThrows(UserIdsValidationException.class, () -> dataDeletionJobService.createJob(stream("\n \n")));
+
+        verify(dataDeletionJobRepository, never()).save(any(DataDeletionJob.class));
+    }
+
+    @Test
+    void testCreateJob_TooManyUserIds() {
+        // Arrange
+        when(dataDeletionJobRepository.saveAndFlush(any(DataDeletionJob.class))).thenReturn(job);
+        String userIds = String.join("\n", List.of(userId.toString(), otherUserId.toString(),
+                UUID.randomUUID().toString(), UUID.randomUUID().toString()));
+
+        // Act & Assert
+        assertThrows(UserIdsValidationException.class, () -> dataDeletionJobService.createJob(stream(userIds)));
+
+        verify(dataDeletionJobRepository, never()).save(any(DataDeletionJob.class));
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testGetJob_Success() {
+        // Arrange
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+        // Act
+        DataDeletionJobResponse response = dataDeletionJobService.getJob(jobId);
+
+        // Assert
+        assertEquals(jobId, response.id());
+        assertEquals(DataDeletionJobStatus.PENDING, response.status());
+    }
+
+    @Test
+    void testGetJob_NonExistentJob() {
+        // Arrange
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.empty());
+
+        // Act & Assert
+        assertThrows(ResourceNotFoundException.class, () -> dataDeletionJobService.getJob(jobId));
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testProcessNextChunk_FullChunkKeepsJobRunning() {
+        // Arrange
+        List<UUID> userIds = List.of(userId, otherUserId);
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(dataDeletionJobUserRepository.takeUsers(jobId, 2)).thenReturn(userIds);
+        when(dataDeletionService.deleteUsersAuthData(userIds)).thenReturn(8);
+
+        // Act
+        int processed = dataDeletionJobService.processNextChunk(jobId, 2);
+
+        // Assert
+        assertEquals(2, processed);
+        assertEquals(DataDeletionJobStatus.RUNNING, job.getStatus());
+        assertNotNull(job.getStartedAt());
+        assertNull(job.getFinishedAt());
+        assertEquals(2, job.getProcessedUsers());
+        assertEquals(8, job.getDeletedRows());
+        verify(dataDeletionJobRepository, times(1)).save(job);
+    }
+
+    @Test
+    void testProcessNextChunk_ShortChunkFinishesJob() {
+        // Arrange
+        job.setStatus(DataDeletionJobStatus.RUNNING);
+        job.setProcessedUsers(2);
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(dataDeletionJobUserRepository.takeUsers(jobId, 2)).thenReturn(List.of(userId));
+        when(dataDeletionService.deleteUsersAuthData(List.of(userId))).thenReturn(4);
+
+        // Act
+        int processed = dataDeletionJobService.processNextChunk(jobId, 2);
+
+        // Assert
+        assertEquals(1, processed);
+        assertEquals(DataDeletionJobStatus.SUCCEEDED, job.getStatus());
+        assertNotNull(job.getFinishedAt());
+        assertEquals(3, job.getProcessedUsers());
+    }
+
+    @Test
+    void testProcessNextChunk_NoUsersLeft() {
+        // Arrange
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+        when(dataDeletionJobUserRepository.takeUsers(jobId, 2)).thenReturn(List.of());
+
+        // Act
+        int processed = dataDeletionJobService.processNextChunk(jobId, 2);
+
+        // Assert
+        assertEquals(0, processed);
+        assertEquals(DataDeletionJobStatus.SUCCEEDED, job.getStatus());
+        verifyNoInteractions(dataDeletionService);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testFailJob_Success() {
+        // Arrange
+        when(dataDeletionJobRepository.findById(jobId)).thenReturn(Optional.of(job));
+
+        // Act
+        dataDeletionJobService.failJob(jobId, "x".repeat(600));
+
+        // Assert
+        assertEquals(DataDeletionJobStatus.FAILED, job.getStatus());
+        assertEquals(500, job.getLastError().length());
+        assertNotNull(job.getFinishedAt());
+        verify(dataDeletionJobRepository, times(1)).save(job);
+    }
+
+}
@@ -1,53 +1,76 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.repository.UserAuthDataRepository;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.util.Collection;
+import java.util.List;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.Mockito.*;
 
 @ExtendWith(MockitoExtension.class)
 public class DataDeletionServiceImplTest {
 
     @Mock
-    private PasscodeService passcodeService;
+    private UserAuthDataRepository userAuthDataRepository;
 
     @Mock
-    private PasswordService passwordService;
-
-    @Mock
-    private ResetTokenService resetTokenService;
-
-    @Mock
-    private RefreshTokenService refreshTokenService;
+    private SessionEpochService sessionEpochService;
 
     @InjectMocks
     private DataDeletionServiceImpl userAuthDataService;
 
     private final UUID userId = UUID.randomUUID();
+    private final UUID otherUserId = UUID.randomUUID();
 
     // ------------------------------------
 
     @Test
     void testDeleteAllUserAuthData_Success() {
         // Arrange
-        doNothing().when(passcodeService).deleteUserPasscodes(userId);
-        doNothing().when(passwordService).deleteUserPasswords(userId);
-        doNothing().when(resetTokenService).deleteUserResetTokens(userId);
-        doNothing().when(refreshTokenService).deleteUserRefreshTokens(userId);
+        when(userAuthDataRepository.deleteUserAuthData(List.of(userId))).thenReturn(4);
 
         // Act
         userAuthDataService.deleteUserAuthData(userId);
 
         // Assert
-        verify(passcodeService, times(1)).deleteUserPasscodes(userId);
-        verify(passwordService, times(1)).deleteUserPasswords(userId);
-        verify(resetTokenService, times(1)).deleteUserResetTokens(userId);
-        verify(refreshTokenService, times(1)).deleteUserRefreshTokens(userId);
+        verify(userAuthDataRepository, times(1)).deleteUserAuthData(List.of(userId));
+        verify(sessionEpochService, times(1)).revokeSessionsNow(List.of(userId));
+    }
+
+    // ------------------------------------
+
+    @SuppressWarnings("unchecked")
+    @Test
+    void testDeleteUsersAuthData_DeduplicatesUserIds() {
+        // Arrange
+        ArgumentCaptor<Collection<UUID>> captor = ArgumentCaptor.forClass(Collection.class);
+        when(userAuthDataRepository.deleteUserAuthData(captor.capture())).thenReturn(8);
+
+        // Act
+        int deleted = userAuthDataService.deleteUsersAuthData(List.of(userId, otherUserId, userId));
+
+        // Assert
+        assertEquals(8, deleted);
+        assertEquals(List.of(userId, otherUserId), List.copyOf(captor.getValue()));
+        verify(userAuthDataRepository, times(1)).deleteUserAuthData(anyCollection());
+        verify(sessionEpochService, times(1)).revokeSessionsNow(captor.getValue());
+    }
+
+    @Test
+    void testDeleteUsersAuthData_EmptyBatch() {
+        // Act
+        userAuthDataService.deleteUsersAuthData(List.of());
+
+        // Assert
+        verifyNoInteractions(userAuthDataRepository, sessionEpochService);
     }
 
 }
@@ -0,0 +1,172 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.JsonWebKey;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import com.mariuszilinskas.vsp.authservice.util.TestUtils;
+import io.jsonwebtoken.JwsHeader;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.Jwts;
+import io.jsonwebtoken.SignatureAlgorithm;
+import io.jsonwebtoken.io.Decoders;
+import io.jsonwebtoken.security.Keys;
+import org.junit.jupiter.api.Test;
+
+import java.security.KeyPair;
+import java.util.Base64;
+import java.util.Date;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class JwtKeyRingTest {
+
+    private static final String previousSecret = TestUtils.secretKey;
+    private static final String currentSecret = "fyADv1A1+KQ3AkbqnsJJG7l7m86DWHmq80vI+pk51bKh0elECFSP8Z9W49Tsn4Jt";
+
+    private final JwtKeyRing jwtKeyRing = new JwtKeyRing(
+            JwtSigningAlgorithm.HS384, currentSecret, "", "", "v2", "v1:" + previousSecret,
+            currentSecret, "v2", ""
+    );
+
+    // ------------------------------------
+
+    @Test
+    void testGetKeyId_ReturnsActiveKeyId() {
+        // Act & Assert
+        assertEquals("v2", jwtKeyRing.getKeyId(AuthUtils.ACCESS_TOKEN_NAME));
+        assertEquals("v2", jwtKeyRing.getKeyId(AuthUtils.REFRESH_TOKEN_NAME));
+    }
+
+    @Test
+    void testGetParser_VerifiesTokenSignedWithActiveKey() {
+        // Arrange
+        String token = signToken("v2", currentSecret);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token));
+    }
+
+    @Test
+    void testGetParser_VerifiesTokenSignedWithPreviousKey() {
+        // Arrange
+        String token = signToken("v1", previousSecret);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token));
+    }
+
+    @Test
+    void testGetParser_TokenWithoutKeyIdUsesActiveKey() {
+        // Arrange
+        String token = signToken(null, currentSecret);
+
+        // Act & Assert
+        assertDoesNotThrow(() -> jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token));
+    }
+
+    @Test
+    void testGetParser_RejectsUnknownKeyId() {
+        // Arrange
+        String token = signToken("unknown", currentSecret);
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token));
+    }
+
+    @Test
+    void testGetParser_RejectsPreviousKeyNotConfiguredForTokenType() {
+        // Arrange
+        String token = signToken("v1", previousSecret);
+
+        // Act & Assert
+        assertThrows(JwtException.class, () -> jwtKeyRing.getParser(AuthUtils.REFRESH_TOKEN_NAME).parseClaimsJws(token));
+    }
+
+    @Test
+    void testConstructor_MalformedPreviousKeys() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                new JwtKeyRing(JwtSigningAlgorithm.HS384, currentSecret, "", "", "v2", previousSecret,
+                        currentSecret, "v2", ""));
+    }
+
+    @Test
+    void testGetPublicKeys_EmptyForHmac() {
+        // Act & Assert
+        assertTrue(jwtKeyRing.getPublicKeys().isEmpty());
+    }
+
+    @Test
+    void testEs256_SignsAndVerifiesAccessTokens() {
+        // Arrange
+        KeyPair keyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        JwtKeyRing ecKeyRing = buildEcKeyRing(keyPair, "");
+        String token = Jwts.builder()
+                .setHeaderParam(JwsHeader.KEY_ID, "ec-1")
+                .setSubject(TestUtils.userId.toString())
+                .signWith(ecKeyRing.getSigningKey(AuthUtils.ACCESS_TOKEN_NAME),
+                        ecKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME))
+                .compact();
+
+        // Act
+        String subject = ecKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(token).getBody().getSubject();
+
+        // Assert
+        assertEquals(SignatureAlgorithm.ES256, ecKeyRing.getSignatureAlgorithm(AuthUtils.ACCESS_TOKEN_NAME));
+        assertEquals(TestUtils.userId.toString(), subject);
+        assertEquals(SignatureAlgorithm.HS384, ecKeyRing.getSignatureAlgorithm(AuthUtils.REFRESH_TOKEN_NAME));
+    }
+
+    @Test
+    void testEs256_PublishesActiveAndPreviousPublicKeys() {
+        // Arrange
+        KeyPair previousKeyPair = Keys.keyPairFor(SignatureAlgorithm.ES256);
+        String previousKeys = "ec-0:" + encode(previousKeyPair.getPublic().getEncoded());
+
+        // Act
+        List<JsonWebKey> publicKeys = buildEcKeyRing(Keys.keyPairFor(SignatureAlgorithm.ES256), previousKeys)
+                .getPublicKeys();
+
+        // Assert
+        assertEquals(List.of("ec-1", "ec-0"), publicKeys.stream().map(JsonWebKey::kid).toList());
+        JsonWebKey activeKey = publicKeys.get(0);
+        assertEquals("EC", activeKey.kty());
+        assertEquals("P-256", activeKey.crv());
+        assertEquals("ES256", activeKey.alg());
+        assertEquals(32, Base64.getUrlDecoder().decode(activeKey.x()).length);
+        assertEquals(32, Base64.getUrlDecoder().decode(activeKey.y()).length);
+    }
+
+    @Test
+    void testEs256_InvalidKeyConfiguration() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () ->
+                new JwtKeyRing(JwtSigningAlgorithm.ES256, "", "not-a-key", "not-a-key", "ec-1", "",
+                        currentSecret, "v2", ""));
+    }
+
+    // ------------------------------------
+
+    private JwtKeyRing buildEcKeyRing(KeyPair keyPair, String previousKeys) {
+        return new JwtKeyRing(
+                JwtSigningAlgorithm.ES256, "",
+                encode(keyPair.getPrivate().getEncoded()), encode(keyPair.getPublic().getEncoded()),
+                "ec-1", previousKeys, currentSecret, "v2", ""
+        );
+    }
+
+    private static String encode(byte[] key) {
+        return Base64.getEncoder().encodeToString(key);
+    }
+
+    private String signToken(String keyId, String secret) {
+        var builder = Jwts.builder()
+                .setSubject(TestUtils.userId.toString())
+                .setExpiration(new Date(System.currentTimeMillis() + 60_000));
+        if (keyId != null)
+            builder.setHeaderParam(JwsHeader.KEY_ID, keyId);
+        return builder.signWith(Keys.hmacShaKeyFor(Decoders.BASE64.decode(secret))).compact();
+    }
+
+}
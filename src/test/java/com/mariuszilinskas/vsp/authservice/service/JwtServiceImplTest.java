@@ -1,10 +1,19 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.dto.AuthDetails;
+import com.mariuszilinskas.vsp.authservice.dto.AuthTokens;
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
+import com.mariuszilinskas.vsp.authservice.enums.AccessTokenProfile;
+import com.mariuszilinskas.vsp.authservice.enums.JwtSigningAlgorithm;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
 import com.mariuszilinskas.vsp.authservice.enums.UserRole;
 import com.mariuszilinskas.vsp.authservice.enums.UserStatus;
 import com.mariuszilinskas.vsp.authservice.exception.JwtTokenValidationException;
-import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import com.mariuszilinskas.vsp.authservice.producer.RabbitMQProducer;
+import com.mariuszilinskas.vsp.authservice.repository.SessionEpochRepository;
 import com.mariuszilinskas.vsp.authservice.util.TestUtils;
 import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
 import jakarta.servlet.http.Cookie;
@@ -13,15 +22,16 @@ import jakarta.servlet.http.HttpServletResponse;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.mock.web.MockHttpServletResponse;
 
 import java.lang.reflect.Field;
 import java.time.Instant;
+import java.time.temporal.ChronoUnit;
 import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -31,7 +41,10 @@ import static org.mockito.Mockito.*;
 public class JwtServiceImplTest {
 
     @Mock
-    private RefreshTokenService refreshTokenService;
+    private RabbitMQProducer rabbitMQProducer;
+
+    @Mock
+    private SessionEpochRepository sessionEpochRepository;
 
     @Mock
     private HttpServletRequest mockRequest;
@@ -39,7 +52,7 @@ public class JwtServiceImplTest {
     @Mock
     private HttpServletResponse mockResponse;
 
-    @InjectMocks
+    private JwtKeyRing jwtKeyRing;
     private JwtServiceImpl jwtService;
 
     private static final String secretKey = TestUtils.secretKey;
@@ -52,22 +65,20 @@ public class JwtServiceImplTest {
     private static final String invalidToken = TestUtils.invalidToken;
 
     private AuthDetails authDetails;
-    private final RefreshToken refreshToken = new RefreshToken();
 
     // ------------------------------------
 
     @BeforeEach
     void setup() throws NoSuchFieldException, IllegalAccessException {
-        setPrivateField(jwtService, "accessTokenSecret", secretKey);
-        setPrivateField(jwtService, "refreshTokenSecret", secretKey);
+        jwtKeyRing = new JwtKeyRing(JwtSigningAlgorithm.HS384,
+                secretKey, "", "", "primary", "", secretKey, "primary", "");
+        jwtService = new JwtServiceImpl(jwtKeyRing, new AccessTokenMinter(jwtKeyRing, AccessTokenProfile.STANDARD),
+                new TokenLifetimePolicy(0.1, 0.05, 0.8), new SessionEpochServiceImpl(sessionEpochRepository, 30, 1000),
+                new AccessTokenDenylist(1000), rabbitMQProducer);
         setPrivateField(jwtService, "environment", AuthUtils.PRODUCTION_ENV);
 
         authDetails = new AuthDetails(userId, List.of(UserRole.USER), List.of(), UserStatus.ACTIVE);
 
-        refreshToken.setId(tokenId);
-        refreshToken.setUserId(userId);
-        refreshToken.setExpiryDate(Instant.now().plusSeconds(10));
-
         mockRequest = mock(HttpServletRequest.class);
         mockResponse = new MockHttpServletResponse();
     }
@@ -136,6 +147,49 @@ public class JwtServiceImplTest {
         assertTrue(refreshTokenFound);
     }
 
+    @Test
+    void testSetAuthCookies_MaxAgeMatchesJitteredExpiry() {
+        // Act
+        jwtService.setAuthCookies(mockResponse, authDetails, tokenId);
+
+        // Assert
+        String accessCookie = ((MockHttpServletResponse) mockResponse).getHeaders("Set-Cookie").stream()
+                .filter(header -> header.startsWith(AuthUtils.ACCESS_TOKEN_NAME))
+                .findFirst()
+                .orElseThrow();
+        String accessToken = accessCookie.substring(AuthUtils.ACCESS_TOKEN_NAME.length() + 1, accessCookie.indexOf(';'));
+        long maxAge = Long.parseLong(accessCookie.replaceAll(".*Max-Age=(\\d+).*", "$1"));
+        var claims = jwtKeyRing.getParser(AuthUtils.ACCESS_TOKEN_NAME).parseClaimsJws(accessToken).getBody();
+        long lifetime = claims.getExpiration().getTime() / 1000 - claims.getIssuedAt().getTime() / 1000;
+        long refreshAfter = claims.get(AuthUtils.REFRESH_AFTER_CLAIM, Long.class);
+
+        assertTrue(Math.abs(lifetime - maxAge) <= 1);
+        assertTrue(maxAge <= AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS / 1000);
+        assertTrue(maxAge >= AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS * 0.9 / 1000 - 1);
+        assertTrue(refreshAfter < claims.getExpiration().getTime() / 1000);
+        assertEquals(String.valueOf(refreshAfter),
+                ((MockHttpServletResponse) mockResponse).getHeader(AuthUtils.REFRESH_AFTER_HEADER));
+    }
+
+    @Test
+    void testCreateAuthTokens_SameTokensWrittenToEveryResponse() {
+        // Arrange
+        AuthTokens authTokens = jwtService.createAuthTokens(authDetails, tokenId);
+        MockHttpServletResponse otherResponse = new MockHttpServletResponse();
+
+        // Act
+        jwtService.setAuthCookies(mockResponse, authTokens);
+        jwtService.setAuthCookies(otherResponse, authTokens);
+
+        // Assert
+        assertTrue(authTokens.accessCookie().startsWith(AuthUtils.ACCESS_TOKEN_NAME + "="));
+        assertTrue(authTokens.refreshCookie().startsWith(AuthUtils.REFRESH_TOKEN_NAME + "="));
+        assertEquals(List.of(authTokens.accessCookie(), authTokens.refreshCookie()),
+                ((MockHttpServletResponse) mockResponse).getHeaders("Set-Cookie"));
+        assertEquals(((MockHttpServletResponse) mockResponse).getHeaders("Set-Cookie"), otherResponse.getHeaders("Set-Cookie"));
+        assertEquals(String.valueOf(authTokens.refreshAfterSeconds()), otherResponse.getHeader(AuthUtils.REFRESH_AFTER_HEADER));
+    }
+
     // ------------------------------------
 
     @Test
@@ -231,6 +285,37 @@ public class JwtServiceImplTest {
         assertDoesNotThrow(() -> jwtService.validateAccessToken(validAccessToken));
     }
 
+    @Test
+    void testValidateAccessToken_ReturnsClaims() {
+        // Act
+        VerifiedToken verifiedToken = jwtService.validateAccessToken(validAccessToken);
+
+        // Assert
+        assertEquals(userId, verifiedToken.userId());
+        assertEquals(List.of(UserRole.USER, UserRole.ADMIN), verifiedToken.roles());
+        assertEquals(List.of(UserAuthority.MANAGE_SETTINGS), verifiedToken.authorities());
+        assertTrue(verifiedToken.expiresAt().isAfter(Instant.now()));
+    }
+
+    @Test
+    void testValidateAccessToken_CompactProfileToken() {
+        // Arrange
+        var compactMinter = new AccessTokenMinter(jwtKeyRing, AccessTokenProfile.COMPACT);
+        var adminDetails = new AuthDetails(userId, List.of(UserRole.USER, UserRole.ADMIN),
+                List.of(UserAuthority.MANAGE_SETTINGS), UserStatus.ACTIVE);
+        long now = System.currentTimeMillis();
+        String token = compactMinter.mint(adminDetails, UUID.randomUUID(),
+                new TokenLifetime(now, now + 60_000, now + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS));
+
+        // Act
+        VerifiedToken verifiedToken = jwtService.validateAccessToken(token);
+
+        // Assert
+        assertEquals(userId, verifiedToken.userId());
+        assertEquals(List.of(UserRole.USER, UserRole.ADMIN), verifiedToken.roles());
+        assertEquals(List.of(UserAuthority.MANAGE_SETTINGS), verifiedToken.authorities());
+    }
+
     @Test
     void testValidateAccessToken_InvalidToken() {
         // Act & Assert
@@ -243,17 +328,56 @@ public class JwtServiceImplTest {
         assertThrows(JwtTokenValidationException.class, () -> jwtService.validateAccessToken(expiredAccessToken));
     }
 
+    @Test
+    void testValidateAccessToken_RevokedToken() {
+        // Arrange
+        String accessToken = jwtService.generateAccessToken(authDetails);
+        UUID jwtId = jwtService.validateAccessToken(accessToken).jwtId();
+
+        // Act
+        jwtService.revokeAccessToken(accessToken);
+
+        // Assert
+        assertNotNull(jwtId);
+        assertThrows(JwtTokenValidationException.class, () -> jwtService.validateAccessToken(accessToken));
+        assertDoesNotThrow(() -> jwtService.validateAccessToken(jwtService.generateAccessToken(authDetails)));
+        verify(rabbitMQProducer, times(1)).sendRevokeAccessTokenMessage(jwtId);
+    }
+
+    @Test
+    void testRevokeAccessToken_ExpiredToken() {
+        // Act
+        jwtService.revokeAccessToken(expiredAccessToken);
+
+        // Assert
+        verify(rabbitMQProducer, never()).sendRevokeAccessTokenMessage(any(UUID.class));
+    }
+
     // ------------------------------------
 
     @Test
     void testValidateRefreshToken_ValidToken() {
+        // Act
+        VerifiedToken verifiedToken = jwtService.validateRefreshToken(validRefreshToken);
+
+        // Assert
+        assertEquals(userId, verifiedToken.userId());
+        assertEquals(tokenId, verifiedToken.tokenId());
+
+        verify(sessionEpochRepository, never()).findById(any(UUID.class));
+    }
+
+    @Test
+    void testValidateRefreshToken_StatelessChecksSessionEpoch() throws Exception {
         // Arrange
-        when(refreshTokenService.getRefreshToken(tokenId)).thenReturn(refreshToken);
+        setPrivateField(jwtService, "refreshTokenMode", RefreshTokenMode.STATELESS);
 
-        // Act & Assert
-        assertDoesNotThrow(() -> jwtService.validateRefreshToken(validRefreshToken));
+        // Act
+        VerifiedToken verifiedToken = jwtService.validateRefreshToken(validRefreshToken);
 
-        verify(refreshTokenService, times(1)).getRefreshToken(tokenId);
+        // Assert
+        assertEquals(tokenId, verifiedToken.tokenId());
+        verify(sessionEpochRepository, times(2)).findById(any(UUID.class));
     }
 
     @Test
@@ -269,84 +393,65 @@ public class JwtServiceImplTest {
     }
 
     @Test
-    void testValidateRefreshToken_TokenNotInDatabase() {
+    void testValidateRefreshToken_IssuedBeforeSessionEpoch() throws Exception {
         // Arrange
-        when(refreshTokenService.getRefreshToken(tokenId)).thenReturn(null);
-        doNothing().when(refreshTokenService).deleteUserRefreshTokens(userId);
+        setPrivateField(jwtService, "refreshTokenMode", RefreshTokenMode.STATELESS);
+        when(sessionEpochRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(new SessionEpoch(userId, Instant.now())));
 
         // Act & Assert
         assertThrows(JwtTokenValidationException.class, () -> jwtService.validateRefreshToken(validRefreshToken));
-
-        verify(refreshTokenService, times(1)).getRefreshToken(tokenId);
-        verify(refreshTokenService, times(1)).deleteUserRefreshTokens(userId);
     }
 
     @Test
-    void testValidateRefreshToken_ExpiredTokenInDatabase() {
+    void testValidateRefreshToken_IssuedAfterSessionEpochInSameSecond() throws Exception {
         // Arrange
-        refreshToken.setExpiryDate(Instant.now().minusMillis(3600));
-        when(refreshTokenService.getRefreshToken(tokenId)).thenReturn(refreshToken);
-        doNothing().when(refreshTokenService).deleteRefreshToken(tokenId);
-
-        // Act & Assert
-        assertThrows(JwtTokenValidationException.class, () -> jwtService.validateRefreshToken(validRefreshToken));
-
-        verify(refreshTokenService, times(1)).getRefreshToken(tokenId);
-        verify(refreshTokenService, times(1)).deleteRefreshToken(tokenId);
-        verify(refreshTokenService, never()).deleteUserRefreshTokens(userId);
-    }
-
-    // ------------------------------------
+        setPrivateField(jwtService, "refreshTokenMode", RefreshTokenMode.STATELESS);
+        Instant revokedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS).minusMillis(1);
+        when(sessionEpochRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(new SessionEpoch(userId, revokedAt)));
+        String refreshToken = jwtService.generateRefreshToken(tokenId, authDetails);
 
-    @Test
-    void testExtractUserIdFromToken_ValidAccessToken() {
         // Act
-        UUID response = jwtService.extractUserIdFromToken(validAccessToken, AuthUtils.ACCESS_TOKEN_NAME);
+        VerifiedToken verifiedToken = jwtService.validateRefreshToken(refreshToken);
 
         // Assert
-        assertEquals(userId, response);
+        assertTrue(verifiedToken.issuedAt().isAfter(revokedAt));
     }
 
     @Test
-    void testExtractUserIdFromToken_InvalidAccessToken() {
+    void testCheckSessionEpoch_AppliesInStatefulMode() {
+        // Arrange
+        VerifiedToken verifiedToken = jwtService.parseRefreshToken(validRefreshToken);
+        when(sessionEpochRepository.findById(any(UUID.class)))
+                .thenReturn(Optional.of(new SessionEpoch(userId, Instant.now())));
+
         // Act & Assert
-        assertThrows(JwtTokenValidationException.class, () -> {
-            jwtService.extractUserIdFromToken(invalidToken, AuthUtils.ACCESS_TOKEN_NAME);
-        });
+        assertThrows(JwtTokenValidationException.class, () -> jwtService.checkSessionEpoch(verifiedToken));
     }
 
+    // ------------------------------------
+
     @Test
-    void testExtractUserIdFromToken_ValidRefreshToken() {
+    void testParseRefreshToken_ValidToken() {
         // Act
-        UUID response = jwtService.extractUserIdFromToken(validRefreshToken, AuthUtils.REFRESH_TOKEN_NAME);
+        VerifiedToken verifiedToken = jwtService.parseRefreshToken(validRefreshToken);
 
         // Assert
-        assertEquals(userId, response);
+        assertEquals(userId, verifiedToken.userId());
+        assertEquals(tokenId, verifiedToken.tokenId());
     }
 
     @Test
-    void testExtractUserIdFromToken_InvalidRefreshToken() {
+    void testParseRefreshToken_AccessTokenWithoutTokenId() {
         // Act & Assert
-        assertThrows(JwtTokenValidationException.class, () -> {
-            jwtService.extractUserIdFromToken(invalidToken, AuthUtils.REFRESH_TOKEN_NAME);
-        });
-    }
-
-    // ------------------------------------
-
-    @Test
-    void testExtractRefreshTokenId_ValidToken() {
-        // Act
-        UUID refreshTokenId = jwtService.extractRefreshTokenId(validRefreshToken);
-
-        // Assert
-        assertEquals(tokenId, refreshTokenId);
+        assertThrows(JwtTokenValidationException.class, () -> jwtService.parseRefreshToken(validAccessToken));
     }
 
     @Test
-    void testExtractRefreshTokenId_InvalidToken() {
+    void testParseRefreshToken_ExpiredToken() {
         // Act & Assert
-        assertThrows(JwtTokenValidationException.class, () -> jwtService.extractRefreshTokenId(invalidToken));
+        assertThrows(JwtTokenValidationException.class, () -> jwtService.parseRefreshToken(expiredRefreshToken));
     }
 
 }
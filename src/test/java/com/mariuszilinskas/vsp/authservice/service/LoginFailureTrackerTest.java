@@ -0,0 +1,200 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.LoginFailures;
+import com.mariuszilinskas.vsp.authservice.model.Password;
+import com.mariuszilinskas.vsp.authservice.repository.LoginFailureRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class LoginFailureTrackerTest {
+
+    private static final int MAX_FAILURES = 3;
+    private static final long DECAY_SECONDS = 60;
+
+    @Mock
+    private LoginFailureRepository loginFailureRepository;
+
+    private final AtomicLong now = new AtomicLong(1_000_000_000L);
+    private LoginFailureTracker loginFailureTracker;
+    private final Password password = new Password(UUID.randomUUID());
+
+    @BeforeEach
+    void setUp() {
+        loginFailureTracker = new LoginFailureTracker(loginFailureRepository, MAX_FAILURES, DECAY_SECONDS, now::get);
+    }
+
+    private void recordFailures(int times) {
+        for (int i = 0; i < times; i++)
+            loginFailureTracker.recordFailure(password);
+    }
+
+    @SuppressWarnings("unchecked")
+    private List<LoginFailures> flushed() {
+        ArgumentCaptor<Collection<LoginFailures>> captor = ArgumentCaptor.forClass(Collection.class);
+        verify(loginFailureRepository, atLeastOnce()).updateFailures(captor.capture());
+        return List.copyOf(captor.getValue());
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testGetLockoutRemaining_BelowLimit() {
+        // Arrange
+        recordFailures(MAX_FAILURES - 1);
+
+        // Act & Assert
+        assertEquals(Duration.ZERO, loginFailureTracker.getLockoutRemaining(password));
+    }
+
+    @Test
+    void testGetLockoutRemaining_LimitReached() {
+        // Arrange
+        recordFailures(MAX_FAILURES);
+
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(DECAY_SECONDS), loginFailureTracker.getLockoutRemaining(password));
+    }
+
+    @Test
+    void testGetLockoutRemaining_FailuresDecay() {
+        // Arrange
+        recordFailures(MAX_FAILURES);
+
+        // Act
+        now.addAndGet(DECAY_SECONDS * 1000);
+
+        // Assert
+        assertEquals(Duration.ZERO, loginFailureTracker.getLockoutRemaining(password));
+        loginFailureTracker.recordFailure(password);
+        assertEquals(Duration.ofSeconds(DECAY_SECONDS), loginFailureTracker.getLockoutRemaining(password));
+    }
+
+    @Test
+    void testGetLockoutRemaining_SeededFromStoredCount() {
+        // Arrange
+        password.setIncorrectEntries(MAX_FAILURES);
+        password.setLastFailedAt(Instant.ofEpochMilli(now.get()).minusSeconds(10));
+
+        // Act & Assert
+        assertEquals(Duration.ofSeconds(DECAY_SECONDS - 10), loginFailureTracker.getLockoutRemaining(password));
+    }
+
+    @Test
+    void testRecordSuccess_ResetsFailures() {
+        // Arrange
+        recordFailures(MAX_FAILURES);
+
+        // Act
+        loginFailureTracker.recordSuccess(password);
+
+        // Assert
+        assertEquals(Duration.ZERO, loginFailureTracker.getLockoutRemaining(password));
+    }
+
+    @Test
+    void testClearFailures_LiftsLockout() {
+        // Arrange
+        recordFailures(MAX_FAILURES);
+
+        // Act
+        loginFailureTracker.clearFailures(password.getUserId());
+        loginFailureTracker.flush();
+
+        // Assert
+        assertEquals(Duration.ZERO, loginFailureTracker.getLockoutRemaining(password));
+        assertEquals(List.of(new LoginFailures(password.getUserId(), 0, null)), flushed());
+    }
+
+    @Test
+    void testClearFailures_UnknownUser() {
+        // Act
+        loginFailureTracker.clearFailures(password.getUserId());
+        loginFailureTracker.flush();
+
+        // Assert
+        verify(loginFailureRepository, never()).updateFailures(anyCollection());
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testFlush_WritesChangedCountsInOneBatch() {
+        // Arrange
+        recordFailures(2);
+
+        // Act
+        loginFailureTracker.flush();
+        loginFailureTracker.flush();
+
+        // Assert
+        List<LoginFailures> failures = flushed();
+        assertEquals(List.of(new LoginFailures(password.getUserId(), 2, Instant.ofEpochSecond(now.get() / 1000))), failures);
+        verify(loginFailureRepository, times(1)).updateFailures(argThat(batch -> !batch.isEmpty()));
+    }
+
+    @Test
+    void testFlush_WritesResetAfterSuccess() {
+        // Arrange
+        password.setIncorrectEntries(2);
+        password.setLastFailedAt(Instant.ofEpochMilli(now.get()));
+
+        // Act
+        loginFailureTracker.recordSuccess(password);
+        loginFailureTracker.flush();
+
+        // Assert
+        assertEquals(List.of(new LoginFailures(password.getUserId(), 0, null)), flushed());
+    }
+
+    @Test
+    void testFlush_StoredCountReseedsSameLockout() {
+        // Arrange
+        Instant lastFailedAt = Instant.ofEpochSecond(now.get() / 1000);
+        recordFailures(MAX_FAILURES + 2);
+        now.addAndGet(DECAY_SECONDS * 1500);
+        Duration lockout = loginFailureTracker.getLockoutRemaining(password);
+
+        // Act
+        loginFailureTracker.flush();
+        LoginFailures stored = flushed().get(0);
+        Password reloaded = new Password(password.getUserId());
+        reloaded.setIncorrectEntries(stored.failures());
+        reloaded.setLastFailedAt(stored.lastFailedAt());
+        LoginFailureTracker restarted = new LoginFailureTracker(loginFailureRepository, MAX_FAILURES, DECAY_SECONDS, now::get);
+
+        // Assert
+        assertEquals(new LoginFailures(password.getUserId(), MAX_FAILURES + 2, lastFailedAt), stored);
+        assertEquals(Duration.ofSeconds(DECAY_SECONDS * 3 / 2), lockout);
+        assertEquals(lockout, restarted.getLockoutRemaining(reloaded));
+    }
+
+    @Test
+    void testFlush_FailedWriteIsRetried() {
+        // Arrange
+        recordFailures(1);
+        doThrow(new IllegalStateException("down")).doNothing().when(loginFailureRepository).updateFailures(anyCollection());
+
+        // Act
+        loginFailureTracker.flush();
+        loginFailureTracker.flush();
+
+        // Assert
+        verify(loginFailureRepository, times(2)).updateFailures(argThat(batch -> batch.size() == 1));
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
 import com.mariuszilinskas.vsp.authservice.client.UserFeignClient;
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.dto.UserResponse;
 import com.mariuszilinskas.vsp.authservice.dto.VerificationEmailRequest;
 import com.mariuszilinskas.vsp.authservice.dto.VerifyPasscodeRequest;
@@ -11,6 +12,7 @@ import com.mariuszilinskas.vsp.authservice.exception.UserRetrievalException;
 import com.mariuszilinskas.vsp.authservice.model.Passcode;
 import com.mariuszilinskas.vsp.authservice.producer.RabbitMQProducer;
 import com.mariuszilinskas.vsp.authservice.repository.PasscodeRepository;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
 import com.mariuszilinskas.vsp.authservice.util.TestUtils;
 import feign.FeignException;
 import org.junit.jupiter.api.BeforeEach;
@@ -75,7 +77,7 @@ public class PasscodeServiceImplTest {
 
         doAnswer(invocation -> {
             when(passcodeRepository.findByUserId(userId)).thenReturn(Optional.empty());
-            return null;
+            return 1;
         }).when(passcodeRepository).deleteByUserId(userId);
 
         doNothing().when(rabbitMQProducer).sendWelcomeEmailMessage(emailRequest);
@@ -158,27 +160,25 @@ public class PasscodeServiceImplTest {
     void testCreatePasscode_Success() {
         // Arrange
         String newPasscode = "abc123";
-        passcode.setPasscode(newPasscode);
-        ArgumentCaptor<Passcode> passcodeCaptor = ArgumentCaptor.forClass(Passcode.class);
+        ArgumentCaptor<Instant> expiryCaptor = ArgumentCaptor.forClass(Instant.class);
         var emailRequest = new VerificationEmailRequest("verify", firstName, email, newPasscode);
 
-        when(passcodeRepository.findByUserId(userId)).thenReturn(Optional.of(passcode));
         when(tokenGenerationService.generatePasscode()).thenReturn(newPasscode);
-        when(passcodeRepository.save(passcodeCaptor.capture())).thenReturn(passcode);
+        when(passcodeRepository.upsertPasscode(any(UUID.class), eq(userId), eq(newPasscode), expiryCaptor.capture()))
+                .thenReturn(1);
         doNothing().when(rabbitMQProducer).sendVerificationEmailMessage(emailRequest);
 
         // Act
         passcodeService.createPasscode(userId, firstName, email);
 
         // Assert
-        verify(passcodeRepository, times(1)).findByUserId(userId);
         verify(tokenGenerationService, times(1)).generatePasscode();
-        verify(passcodeRepository, times(1)).save(passcodeCaptor.capture());
+        verify(passcodeRepository, times(1)).upsertPasscode(any(UUID.class), eq(userId), eq(newPasscode), any(Instant.class));
+        verify(passcodeRepository, never()).findByUserId(any(UUID.class));
         verify(rabbitMQProducer, times(1)).sendVerificationEmailMessage(emailRequest);
 
-        Passcode savedPasscode = passcodeCaptor.getValue();
-        assertEquals(userId, savedPasscode.getUserId());
-        assertEquals(newPasscode, savedPasscode.getPasscode());
+        long expectedExpiry = Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS).toEpochMilli();
+        assertEquals(expectedExpiry, expiryCaptor.getValue().toEpochMilli(), 1000);
     }
 
     // ------------------------------------
@@ -187,15 +187,13 @@ public class PasscodeServiceImplTest {
     void testResetPasscode_Success() {
         // Arrange
         String newPasscode = "abc123";
-        passcode.setPasscode(newPasscode);
-        ArgumentCaptor<Passcode> passcodeCaptor = ArgumentCaptor.forClass(Passcode.class);
         var userResponse = new UserResponse(firstName, "lastName", email);
         var emailRequest = new VerificationEmailRequest("verify", firstName, email, newPasscode);
 
         when(userFeignClient.getUser(userId)).thenReturn(userResponse);
-        when(passcodeRepository.findByUserId(userId)).thenReturn(Optional.of(passcode));
         when(tokenGenerationService.generatePasscode()).thenReturn(newPasscode);
-        when(passcodeRepository.save(passcodeCaptor.capture())).thenReturn(passcode);
+        when(passcodeRepository.upsertPasscode(any(UUID.class), eq(userId), eq(newPasscode), any(Instant.class)))
+                .thenReturn(1);
         doNothing().when(rabbitMQProducer).sendVerificationEmailMessage(emailRequest);
 
         // Act
@@ -203,14 +201,9 @@ public class PasscodeServiceImplTest {
 
         // Assert
         verify(userFeignClient, times(1)).getUser(userId);
-        verify(passcodeRepository, times(1)).findByUserId(userId);
         verify(tokenGenerationService, times(1)).generatePasscode();
-        verify(passcodeRepository, times(1)).save(passcodeCaptor.capture());
+        verify(passcodeRepository, times(1)).upsertPasscode(any(UUID.class), eq(userId), eq(newPasscode), any(Instant.class));
         verify(rabbitMQProducer, times(1)).sendVerificationEmailMessage(emailRequest);
-
-        Passcode savedPasscode = passcodeCaptor.getValue();
-        assertEquals(userId, savedPasscode.getUserId());
-        assertEquals(newPasscode, savedPasscode.getPasscode());
     }
 
     @Test
@@ -224,9 +217,9 @@ public class PasscodeServiceImplTest {
         // Assert
         verify(userFeignClient, times(1)).getUser(userId);
 
-        verify(passcodeRepository, never()).findByUserId(any(UUID.class));
         verify(tokenGenerationService, never()).generatePasscode();
-        verify(passcodeRepository, never()).save(any(Passcode.class));
+        verify(passcodeRepository, never())
+                .upsertPasscode(any(UUID.class), any(UUID.class), anyString(), any(Instant.class));
         verify(rabbitMQProducer, never()).sendVerificationEmailMessage(any(VerificationEmailRequest.class));
     }
 
@@ -235,7 +228,7 @@ public class PasscodeServiceImplTest {
     @Test
     void testDeleteUserPasscodes_Success() {
         // Arrange
-        doNothing().when(passcodeRepository).deleteByUserId(userId);
+        when(passcodeRepository.deleteByUserId(userId)).thenReturn(1);
         when(passcodeRepository.findByUserId(userId)).thenReturn(Optional.empty());
 
         // Act
@@ -266,11 +259,18 @@ public class PasscodeServiceImplTest {
 
     @Test
     void testDeleteExpiredPasscodes_Success() {
+        // Arrange
+        Instant cutoff = Instant.now();
+        UUID afterId = UUID.randomUUID();
+        PurgedChunk chunk = mock(PurgedChunk.class);
+        when(passcodeRepository.deleteExpiredChunk(cutoff, afterId, 500)).thenReturn(chunk);
+
         // Act
-        passcodeService.deleteExpiredPasscodes();
+        PurgedChunk result = passcodeService.deleteExpiredPasscodes(cutoff, afterId, 500);
 
         // Assert
-        verify(passcodeRepository, times(1)).deleteAllByExpiryDateBefore(any(Instant.class));
+        assertSame(chunk, result);
+        verify(passcodeRepository, times(1)).deleteExpiredChunk(cutoff, afterId, 500);
     }
 
 }
@@ -20,8 +20,10 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.security.crypto.bcrypt.BCryptPasswordEncoder;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.security.crypto.password.PasswordEncoder;
 
+import java.time.Duration;
 import java.time.Instant;
 import java.util.List;
 import java.util.Optional;
@@ -40,11 +42,14 @@ public class PasswordServiceImplTest {
     private ResetTokenService resetTokenService;
 
     @Mock
-    private BCryptPasswordEncoder passwordEncoder;
+    private PasswordEncoder passwordEncoder;
 
     @Mock
     private PasswordRepository passwordRepository;
 
+    @Mock
+    private LoginFailureTracker loginFailureTracker;
+
     @Mock
     private UserFeignClient userFeignClient;
 
@@ -66,6 +71,7 @@ public class PasswordServiceImplTest {
     @BeforeEach
     void setUp() {
         password.setPasswordHash("encodedPassword");
+        lenient().when(loginFailureTracker.getLockoutRemaining(password)).thenReturn(Duration.ZERO);
         resetToken.setToken(token);
         resetToken.setExpiryDate(Instant.now().plusMillis(AuthUtils.FIFTEEN_MINUTES_IN_MILLIS));
     }
@@ -76,23 +82,21 @@ public class PasswordServiceImplTest {
     void testCreateNewPassword_Success() {
         // Arrange
         String newPassword = "Password1";
-        ArgumentCaptor<Password> captor = ArgumentCaptor.forClass(Password.class);
         CredentialsRequest request = new CredentialsRequest(userId, "firstName", email, newPassword);
 
-        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.empty());
         when(passwordEncoder.encode(newPassword)).thenReturn(password.getPasswordHash());
-        when(passwordRepository.save(captor.capture())).thenReturn(password);
+        when(passwordRepository.upsertPasswordHash(any(UUID.class), eq(userId), eq(password.getPasswordHash())))
+                .thenReturn(1);
 
         // Act
         passwordService.createNewPassword(request);
 
         // Assert
-        verify(passwordRepository, times(1)).findByUserId(userId);
         verify(passwordEncoder, times(1)).encode(newPassword);
-        verify(passwordRepository, times(1)).save(captor.capture());
-
-        Password savedPassword = captor.getValue();
-        assertEquals(password.getPasswordHash(), savedPassword.getPasswordHash());
+        verify(passwordRepository, times(1))
+                .upsertPasswordHash(any(UUID.class), eq(userId), eq(password.getPasswordHash()));
+        verify(passwordRepository, never()).findByUserId(any(UUID.class));
+        verify(passwordRepository, never()).save(any(Password.class));
     }
 
     // ------------------------------------
@@ -111,6 +115,76 @@ public class PasswordServiceImplTest {
         // Assert
         verify(passwordRepository, times(1)).findByUserId(userId);
         verify(passwordEncoder, times(1)).matches(request.password(), password.getPasswordHash());
+        verify(loginFailureTracker, times(1)).recordSuccess(password);
+    }
+
+    @Test
+    void testVerifyPassword_RehashesOutdatedHash() {
+        // Arrange
+        var request = new VerifyPasswordRequest(userId, "Password1!");
+
+        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.of(password));
+        when(passwordEncoder.matches(request.password(), password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.encode(request.password())).thenReturn("{argon2id}newHash");
+        when(passwordRepository.replacePasswordHash(userId, password.getPasswordHash(), "{argon2id}newHash")).thenReturn(1);
+
+        // Act
+        passwordService.verifyPassword(request);
+
+        // Assert
+        verify(passwordRepository, times(1)).replacePasswordHash(userId, password.getPasswordHash(), "{argon2id}newHash");
+    }
+
+    @Test
+    void testVerifyPassword_CurrentHashIsNotRehashed() {
+        // Arrange
+        var request = new VerifyPasswordRequest(userId, "Password1!");
+
+        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.of(password));
+        when(passwordEncoder.matches(request.password(), password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(password.getPasswordHash())).thenReturn(false);
+
+        // Act
+        passwordService.verifyPassword(request);
+
+        // Assert
+        verify(passwordEncoder, never()).encode(anyString());
+        verify(passwordRepository, never()).replacePasswordHash(any(UUID.class), anyString(), anyString());
+    }
+
+    @Test
+    void testVerifyPassword_FailedRehashStillSucceeds() {
+        // Arrange
+        var request = new VerifyPasswordRequest(userId, "Password1!");
+
+        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.of(password));
+        when(passwordEncoder.matches(request.password(), password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.encode(request.password())).thenThrow(new PasswordHashingUnavailableException());
+
+        // Act & Assert
+        assertDoesNotThrow(() -> passwordService.verifyPassword(request));
+
+        verify(passwordRepository, never()).replacePasswordHash(any(UUID.class), anyString(), anyString());
+    }
+
+    @Test
+    void testVerifyPassword_FailedRehashWriteStillSucceeds() {
+        // Arrange
+        var request = new VerifyPasswordRequest(userId, "Password1!");
+
+        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.of(password));
+        when(passwordEncoder.matches(request.password(), password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.upgradeEncoding(password.getPasswordHash())).thenReturn(true);
+        when(passwordEncoder.encode(request.password())).thenReturn("newHash");
+        when(passwordRepository.replacePasswordHash(userId, password.getPasswordHash(), "newHash"))
+                .thenThrow(new DataIntegrityViolationException("constraint"));
+
+        // Act & Assert
+        assertDoesNotThrow(() -> passwordService.verifyPassword(request));
+
+        verify(loginFailureTracker, times(1)).recordSuccess(password);
     }
 
     @Test
@@ -127,6 +201,26 @@ public class PasswordServiceImplTest {
         // Assert
         verify(passwordRepository, times(1)).findByUserId(userId);
         verify(passwordEncoder, times(1)).matches(request.password(), password.getPasswordHash());
+        verify(loginFailureTracker, times(1)).recordFailure(password);
+        verify(loginFailureTracker, never()).recordSuccess(password);
+    }
+
+    @Test
+    void testVerifyPassword_LockedOut() {
+        // Arrange
+        var request = new VerifyPasswordRequest(userId, "Password1!");
+
+        when(passwordRepository.findByUserId(userId)).thenReturn(Optional.of(password));
+        when(loginFailureTracker.getLockoutRemaining(password)).thenReturn(Duration.ofSeconds(120));
+
+        // Act & Assert
+        LoginAttemptsExceededException ex = assertThrows(LoginAttemptsExceededException.class,
+                () -> passwordService.verifyPassword(request));
+
+        // Assert
+        assertEquals(120, ex.getRetryAfterSeconds());
+        verify(passwordEncoder, never()).matches(anyString(), anyString());
+        verify(loginFailureTracker, never()).recordFailure(password);
     }
 
     @Test
@@ -232,14 +326,11 @@ public class PasswordServiceImplTest {
         // Arrange
         String newPassword = "Password1";
         String newPasswordHash = "HashedPassword";
-        password.setPasswordHash(newPasswordHash);
-
-        ArgumentCaptor<Password> captor = ArgumentCaptor.forClass(Password.class);
         ResetPasswordRequest request = new ResetPasswordRequest(newPassword, resetToken.getToken());
 
         when(resetTokenService.findResetToken(request.resetToken())).thenReturn(resetToken);
         when(passwordEncoder.encode(newPassword)).thenReturn(newPasswordHash);
-        when(passwordRepository.save(captor.capture())).thenReturn(password);
+        when(passwordRepository.upsertPasswordHash(any(UUID.class), eq(userId), eq(newPasswordHash))).thenReturn(1);
 
         // Act
         passwordService.resetPassword(request);
@@ -247,10 +338,8 @@ public class PasswordServiceImplTest {
         // Assert
         verify(resetTokenService, times(1)).findResetToken(resetToken.getToken());
         verify(passwordEncoder, times(1)).encode(newPassword);
-        verify(passwordRepository, times(1)).save(captor.capture());
-
-        Password savedPassword = captor.getValue();
-        assertEquals(newPasswordHash, savedPassword.getPasswordHash());
+        verify(passwordRepository, times(1)).upsertPasswordHash(any(UUID.class), eq(userId), eq(newPasswordHash));
+        verify(loginFailureTracker, times(1)).clearFailures(userId);
     }
 
     @Test
@@ -268,7 +357,7 @@ public class PasswordServiceImplTest {
         // Assert
         verify(resetTokenService, times(1)).findResetToken(resetToken.getToken());
         verify(passwordEncoder, never()).encode(anyString());
-        verify(passwordRepository, never()).save(any(Password.class));
+        verify(passwordRepository, never()).upsertPasswordHash(any(UUID.class), any(UUID.class), anyString());
     }
 
     @Test
@@ -286,7 +375,7 @@ public class PasswordServiceImplTest {
         // Assert
         verify(resetTokenService, times(1)).findResetToken(incorrectToken);
         verify(passwordEncoder, never()).encode(anyString());
-        verify(passwordRepository, never()).save(any(Password.class));
+        verify(passwordRepository, never()).upsertPasswordHash(any(UUID.class), any(UUID.class), anyString());
     }
 
     @Test
@@ -303,7 +392,7 @@ public class PasswordServiceImplTest {
         // Assert
         verify(resetTokenService, times(1)).findResetToken(resetToken.getToken());
         verify(passwordEncoder, never()).encode(anyString());
-        verify(passwordRepository, never()).save(any(Password.class));
+        verify(passwordRepository, never()).upsertPasswordHash(any(UUID.class), any(UUID.class), anyString());
     }
 
     // ------------------------------------
@@ -355,7 +444,7 @@ public class PasswordServiceImplTest {
         verify(passwordRepository, times(1)).findByUserId(userId);
         verify(passwordEncoder, times(1)).matches(request.currentPassword(), password.getPasswordHash());
         verify(passwordEncoder, never()).encode(anyString());
-        verify(passwordRepository, never()).save(any(Password.class));
+        verify(passwordRepository, never()).upsertPasswordHash(any(UUID.class), any(UUID.class), anyString());
     }
 
     @Test
@@ -371,7 +460,7 @@ public class PasswordServiceImplTest {
         verify(passwordRepository, times(1)).findByUserId(userId);
         verify(passwordEncoder, never()).matches(anyString(), anyString());
         verify(passwordEncoder, never()).encode(anyString());
-        verify(passwordRepository, never()).save(any(Password.class));
+        verify(passwordRepository, never()).upsertPasswordHash(any(UUID.class), any(UUID.class), anyString());
     }
 
     // ------------------------------------
@@ -379,7 +468,7 @@ public class PasswordServiceImplTest {
     @Test
     void testDeleteUserPasswords_Success() {
         // Arrange
-        doNothing().when(passwordRepository).deleteByUserId(userId);
+        when(passwordRepository.deleteByUserId(userId)).thenReturn(1);
         when(passwordRepository.findByUserId(userId)).thenReturn(Optional.empty());
 
         // Act
@@ -394,7 +483,7 @@ public class PasswordServiceImplTest {
     void testDeleteUserPasswords_NonExistingPassword() {
         // Arrange
         UUID nonExistentUserId = UUID.randomUUID();
-        doNothing().when(passwordRepository).deleteByUserId(nonExistentUserId);
+        when(passwordRepository.deleteByUserId(nonExistentUserId)).thenReturn(0);
         when(passwordRepository.findByUserId(nonExistentUserId)).thenReturn(Optional.empty());
 
         // Act
@@ -0,0 +1,121 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.enums.RateLimitedEndpoint;
+import com.mariuszilinskas.vsp.authservice.exception.RateLimitExceededException;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class RateLimiterTest {
+
+    private static final String CLIENT_IP = "10.0.0.1";
+    private static final String EMAIL = "user@email.com";
+
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private RateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp() {
+        rateLimiter = new RateLimiter(1000, now::get);
+        rateLimiter.addLimits(meterRegistry, RateLimitedEndpoint.LOGIN, 6, 3);
+        rateLimiter.addLimits(meterRegistry, RateLimitedEndpoint.FORGOT_PASSWORD, 0, 0);
+    }
+
+    private void checkLogin(String clientIp, String account, int times) {
+        for (int i = 0; i < times; i++)
+            rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, clientIp, account);
+    }
+
+    private double rejected(String key) {
+        return meterRegistry.get("auth.rate.limit.rejected").tag("endpoint", "LOGIN").tag("key", key).counter().count();
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testCheckLimit_AccountLimitReached() {
+        // Arrange
+        checkLogin(CLIENT_IP, EMAIL, 3);
+
+        // Act & Assert
+        RateLimitExceededException ex = assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, EMAIL));
+
+        assertEquals(20, ex.getRetryAfterSeconds());
+        assertEquals(1, rejected("account"));
+        assertDoesNotThrow(() -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, "other@email.com"));
+    }
+
+    @Test
+    void testCheckLimit_IpLimitReachedAcrossAccounts() {
+        // Arrange
+        for (int i = 0; i < 6; i++)
+            checkLogin(CLIENT_IP, "user" + i + "@email.com", 1);
+
+        // Act & Assert
+        assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, "new@email.com"));
+
+        assertEquals(1, rejected("ip"));
+        assertDoesNotThrow(() -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, "10.0.0.2", "new@email.com"));
+    }
+
+    @Test
+    void testCheckLimit_TokensRefillOverTime() {
+        // Arrange
+        checkLogin(CLIENT_IP, EMAIL, 3);
+
+        // Act
+        now.addAndGet(20_000);
+
+        // Assert
+        assertDoesNotThrow(() -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, EMAIL));
+        assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, EMAIL));
+    }
+
+    @Test
+    void testCheckLimit_RefillIsCappedAtLimit() {
+        // Arrange
+        checkLogin(CLIENT_IP, EMAIL, 1);
+
+        // Act
+        now.addAndGet(3_600_000);
+
+        // Assert
+        checkLogin(CLIENT_IP, EMAIL, 3);
+        assertThrows(RateLimitExceededException.class,
+                () -> rateLimiter.checkLimit(RateLimitedEndpoint.LOGIN, CLIENT_IP, EMAIL));
+    }
+
+    @Test
+    void testCheckLimit_DisabledLimits() {
+        // Act & Assert
+        assertDoesNotThrow(() -> {
+            for (int i = 0; i < 100; i++)
+                rateLimiter.checkLimit(RateLimitedEndpoint.FORGOT_PASSWORD, CLIENT_IP, EMAIL);
+        });
+    }
+
+    @Test
+    void testCheckLimit_EndpointWithoutLimits() {
+        // Act & Assert
+        assertDoesNotThrow(() -> {
+            for (int i = 0; i < 100; i++)
+                rateLimiter.checkLimit(RateLimitedEndpoint.RESET_PASSCODE, CLIENT_IP, EMAIL);
+        });
+    }
+
+    @Test
+    void testAddLimits_TooHigh() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class,
+                () -> rateLimiter.addLimits(meterRegistry, RateLimitedEndpoint.RESET_PASSCODE, 100_000, 1));
+    }
+
+}
@@ -1,6 +1,7 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
-import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenRotation;
 import com.mariuszilinskas.vsp.authservice.model.RefreshToken;
 import com.mariuszilinskas.vsp.authservice.repository.RefreshTokenRepository;
 import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
@@ -12,6 +13,7 @@ import org.mockito.InjectMocks;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 
+import java.lang.reflect.Field;
 import java.time.Instant;
 import java.util.Optional;
 import java.util.UUID;
@@ -25,6 +27,9 @@ public class RefreshTokenServiceImplTest {
     @Mock
     private RefreshTokenRepository refreshTokenRepository;
 
+    @Mock
+    private SessionEpochService sessionEpochService;
+
     @InjectMocks
     private RefreshTokenServiceImpl refreshTokenService;
 
@@ -39,6 +44,12 @@ public class RefreshTokenServiceImplTest {
         refreshToken.setExpiryDate(Instant.now().plusMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS));
     }
 
+    private void setRefreshTokenMode(RefreshTokenMode mode) throws NoSuchFieldException, IllegalAccessException {
+        Field field = RefreshTokenServiceImpl.class.getDeclaredField("refreshTokenMode");
+        field.setAccessible(true);
+        field.set(refreshTokenService, mode);
+    }
+
     // ------------------------------------
 
     @Test
@@ -46,49 +57,78 @@ public class RefreshTokenServiceImplTest {
         // Arrange
         ArgumentCaptor<RefreshToken> captor = ArgumentCaptor.forClass(RefreshToken.class);
 
-        when(refreshTokenRepository.findByIdAndUserId(tokenId, userId)).thenReturn(Optional.empty());
         when(refreshTokenRepository.save(captor.capture())).thenReturn(refreshToken);
 
         // Act
         refreshTokenService.createNewRefreshToken(tokenId, userId);
 
         // Assert
-        verify(refreshTokenRepository, times(1)).findByIdAndUserId(tokenId, userId);
         verify(refreshTokenRepository, times(1)).save(captor.capture());
+        verifyNoMoreInteractions(refreshTokenRepository);
 
         RefreshToken savedToken = captor.getValue();
         assertEquals(tokenId, savedToken.getId());
         assertEquals(userId, savedToken.getUserId());
+        assertTrue(savedToken.isNew());
         assertEquals(refreshToken.getExpiryDate().toEpochMilli(), savedToken.getExpiryDate().toEpochMilli(), 1000);
     }
 
+    @Test
+    void testCreateNewRefreshToken_StatelessMode() throws NoSuchFieldException, IllegalAccessException {
+        // Arrange
+        setRefreshTokenMode(RefreshTokenMode.STATELESS);
+
+        // Act
+        refreshTokenService.createNewRefreshToken(tokenId, userId);
+
+        // Assert
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
     // ------------------------------------
 
     @Test
-    void testGetRefreshToken_Success() {
+    void testRotateRefreshToken_Success() {
         // Arrange
-        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.of(refreshToken));
+        UUID newTokenId = UUID.randomUUID();
+        when(refreshTokenRepository.rotate(eq(tokenId), eq(newTokenId), eq(userId), any(Instant.class), any(Instant.class)))
+                .thenReturn(RefreshTokenRotation.ROTATED.name());
 
         // Act
-        RefreshToken response = refreshTokenService.getRefreshToken(tokenId);
+        RefreshTokenRotation rotation = refreshTokenService.rotateRefreshToken(tokenId, newTokenId, userId);
 
         // Assert
-        assertNotNull(response);
-        assertEquals(refreshToken.getId(), response.getId());
-        assertEquals(refreshToken.getUserId(), response.getUserId());
+        assertEquals(RefreshTokenRotation.ROTATED, rotation);
+        verify(refreshTokenRepository, times(1))
+                .rotate(eq(tokenId), eq(newTokenId), eq(userId), any(Instant.class), any(Instant.class));
+        verifyNoMoreInteractions(refreshTokenRepository);
+    }
+
+    @Test
+    void testRotateRefreshToken_NotFound() {
+        // Arrange
+        UUID newTokenId = UUID.randomUUID();
+        when(refreshTokenRepository.rotate(eq(tokenId), eq(newTokenId), eq(userId), any(Instant.class), any(Instant.class)))
+                .thenReturn(RefreshTokenRotation.NOT_FOUND.name());
+
+        // Act
+        RefreshTokenRotation rotation = refreshTokenService.rotateRefreshToken(tokenId, newTokenId, userId);
 
-        verify(refreshTokenRepository, times(1)).findById(tokenId);
+        // Assert
+        assertEquals(RefreshTokenRotation.NOT_FOUND, rotation);
     }
 
     @Test
-    void testGetRefreshToken_NotFound() {
+    void testRotateRefreshToken_StatelessMode() throws NoSuchFieldException, IllegalAccessException {
         // Arrange
-        when(refreshTokenRepository.findById(tokenId)).thenReturn(Optional.empty());
+        setRefreshTokenMode(RefreshTokenMode.STATELESS);
 
-        // Act & Assert
-        assertThrows(ResourceNotFoundException.class, () -> refreshTokenService.getRefreshToken(tokenId));
+        // Act
+        RefreshTokenRotation rotation = refreshTokenService.rotateRefreshToken(tokenId, UUID.randomUUID(), userId);
 
-        verify(refreshTokenRepository, times(1)).findById(tokenId);
+        // Assert
+        assertEquals(RefreshTokenRotation.ROTATED, rotation);
+        verifyNoInteractions(refreshTokenRepository);
     }
 
     // ------------------------------------
@@ -110,27 +150,83 @@ public class RefreshTokenServiceImplTest {
 
     // ------------------------------------
 
+    @Test
+    void testRevokeRefreshToken_StatefulMode() {
+        // Act
+        refreshTokenService.revokeRefreshToken(tokenId, userId);
+
+        // Assert
+        verify(refreshTokenRepository, times(1)).deleteById(tokenId);
+        verify(sessionEpochService, never()).revokeUserSessions(any(UUID.class));
+    }
+
+    @Test
+    void testRevokeRefreshToken_StatelessMode() throws NoSuchFieldException, IllegalAccessException {
+        // Arrange
+        setRefreshTokenMode(RefreshTokenMode.STATELESS);
+
+        // Act
+        refreshTokenService.revokeRefreshToken(tokenId, userId);
+
+        // Assert
+        verify(sessionEpochService, times(1)).revokeUserSessions(userId);
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
+    // ------------------------------------
+
     @Test
     void testDeleteUserRefreshTokens_success() {
         // Arrange
-        doNothing().when(refreshTokenRepository).deleteByUserId(userId);
+        when(refreshTokenRepository.deleteByUserId(userId)).thenReturn(1);
 
         // Act
         refreshTokenService.deleteUserRefreshTokens(userId);
 
         // Assert
+        verify(sessionEpochService, times(1)).revokeUserSessions(userId);
         verify(refreshTokenRepository, times(1)).deleteByUserId(userId);
     }
 
+    @Test
+    void testDeleteUserRefreshTokens_StatelessMode() throws NoSuchFieldException, IllegalAccessException {
+        // Arrange
+        setRefreshTokenMode(RefreshTokenMode.STATELESS);
+
+        // Act
+        refreshTokenService.deleteUserRefreshTokens(userId);
+
+        // Assert
+        verify(sessionEpochService, times(1)).revokeUserSessions(userId);
+        verifyNoInteractions(refreshTokenRepository);
+    }
+
     // ------------------------------------
 
     @Test
-    void testDeleteExpiredRefreshTokens_Success() {
+    void testCreateRefreshTokenPartitions_Success() {
+        // Arrange
+        when(refreshTokenRepository.createPartitions(10)).thenReturn(1);
+
+        // Act
+        int created = refreshTokenService.createRefreshTokenPartitions(10);
+
+        // Assert
+        assertEquals(1, created);
+        verify(refreshTokenRepository, times(1)).createPartitions(10);
+    }
+
+    @Test
+    void testDropExpiredRefreshTokenPartitions_Success() {
+        // Arrange
+        when(refreshTokenRepository.dropExpiredPartitions()).thenReturn(2);
+
         // Act
-        refreshTokenService.deleteExpiredRefreshTokens();
+        int dropped = refreshTokenService.dropExpiredRefreshTokenPartitions();
 
         // Assert
-        verify(refreshTokenRepository, times(1)).deleteAllByExpiryDateBefore(any(Instant.class));
+        assertEquals(2, dropped);
+        verify(refreshTokenRepository, times(1)).dropExpiredPartitions();
     }
 
 }
@@ -1,5 +1,6 @@
 package com.mariuszilinskas.vsp.authservice.service;
 
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
 import com.mariuszilinskas.vsp.authservice.exception.ResourceNotFoundException;
 import com.mariuszilinskas.vsp.authservice.model.ResetToken;
 import com.mariuszilinskas.vsp.authservice.repository.ResetTokenRepository;
@@ -48,49 +49,23 @@ public class ResetTokenServiceImplTest {
     // ------------------------------------
 
     @Test
-    void testCreateResetToken_NewToken() {
+    void testCreateResetToken_Success() {
         // Arrange
-        ArgumentCaptor<ResetToken> captor = ArgumentCaptor.forClass(ResetToken.class);
+        ArgumentCaptor<Instant> expiryCaptor = ArgumentCaptor.forClass(Instant.class);
 
-        when(resetTokenRepository.findByUserId(userId)).thenReturn(Optional.empty());
-        when(tokenGenerationService.generateResetToken()).thenReturn(resetToken.getToken());
-        when(resetTokenRepository.save(captor.capture())).thenReturn(resetToken);
-
-        // Act
-        resetTokenService.createResetToken(userId);
-
-        // Assert
-        verify(resetTokenRepository, times(1)).findByUserId(userId);
-        verify(resetTokenRepository, times(1)).save(captor.capture());
-
-        ResetToken savedToken = captor.getValue();
-        assertEquals(userId, savedToken.getUserId());
-        assertEquals(resetToken.getToken(), savedToken.getToken());
-        assertEquals(resetToken.getExpiryDate().toEpochMilli(), savedToken.getExpiryDate().toEpochMilli(), 1000);
-    }
-
-    @Test
-    void testCreateResetToken_ExistingToken() {
-        // Arrange
-        UUID existingUserId = UUID.randomUUID();
-        resetToken.setUserId(existingUserId);
-        ArgumentCaptor<ResetToken> captor = ArgumentCaptor.forClass(ResetToken.class);
-
-        when(resetTokenRepository.findByUserId(existingUserId)).thenReturn(Optional.of(resetToken));
-        when(tokenGenerationService.generateResetToken()).thenReturn(resetToken.getToken());
-        when(resetTokenRepository.save(captor.capture())).thenReturn(resetToken);
+        when(tokenGenerationService.generateResetToken()).thenReturn(token);
+        when(resetTokenRepository.upsertResetToken(any(UUID.class), eq(userId), eq(token), expiryCaptor.capture()))
+                .thenReturn(1);
 
         // Act
-        resetTokenService.createResetToken(existingUserId);
+        String result = resetTokenService.createResetToken(userId);
 
         // Assert
-        verify(resetTokenRepository, times(1)).findByUserId(existingUserId);
-        verify(resetTokenRepository, times(1)).save(captor.capture());
-
-        ResetToken savedToken = captor.getValue();
-        assertEquals(existingUserId, savedToken.getUserId());
-        assertEquals(resetToken.getToken(), savedToken.getToken());
-        assertEquals(resetToken.getExpiryDate().toEpochMilli(), savedToken.getExpiryDate().toEpochMilli(), 1000);
+        assertEquals(token, result);
+        verify(resetTokenRepository, times(1)).upsertResetToken(any(UUID.class), eq(userId), eq(token), any(Instant.class));
+        verify(resetTokenRepository, never()).findByUserId(any(UUID.class));
+        verify(resetTokenRepository, never()).save(any(ResetToken.class));
+        assertEquals(resetToken.getExpiryDate().toEpochMilli(), expiryCaptor.getValue().toEpochMilli(), 1000);
     }
 
     // ------------------------------------
@@ -128,7 +103,7 @@ public class ResetTokenServiceImplTest {
     @Test
     void testDeleteResetToken_Success() {
         // Arrange
-        doNothing().when(resetTokenRepository).deleteByUserId(userId);
+        when(resetTokenRepository.deleteByUserId(userId)).thenReturn(1);
 
         // Act
         resetTokenService.deleteUserResetTokens(userId);
@@ -144,7 +119,7 @@ public class ResetTokenServiceImplTest {
     void testDeleteResetToken_NonExistingToken() {
         // Arrange
         UUID nonExistentUserId = UUID.randomUUID();
-        doNothing().when(resetTokenRepository).deleteByUserId(nonExistentUserId);
+        when(resetTokenRepository.deleteByUserId(nonExistentUserId)).thenReturn(0);
 
         // Act
         resetTokenService.deleteUserResetTokens(nonExistentUserId);
@@ -157,11 +132,18 @@ public class ResetTokenServiceImplTest {
 
     @Test
     void testDeleteExpiredResetTokens_Success() {
+        // Arrange
+        Instant cutoff = Instant.now();
+        UUID afterId = UUID.randomUUID();
+        PurgedChunk chunk = mock(PurgedChunk.class);
+        when(resetTokenRepository.deleteExpiredChunk(cutoff, afterId, 500)).thenReturn(chunk);
+
         // Act
-        resetTokenService.deleteExpiredResetTokens();
+        PurgedChunk result = resetTokenService.deleteExpiredResetTokens(cutoff, afterId, 500);
 
         // Assert
-        verify(resetTokenRepository, times(1)).deleteAllByExpiryDateBefore(any(Instant.class));
+        assertSame(chunk, result);
+        verify(resetTokenRepository, times(1)).deleteExpiredChunk(cutoff, afterId, 500);
     }
 
 }
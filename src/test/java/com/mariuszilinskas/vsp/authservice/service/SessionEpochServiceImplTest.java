@@ -0,0 +1,158 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.PurgedChunk;
+import com.mariuszilinskas.vsp.authservice.enums.RefreshTokenMode;
+import com.mariuszilinskas.vsp.authservice.model.SessionEpoch;
+import com.mariuszilinskas.vsp.authservice.repository.SessionEpochRepository;
+import com.mariuszilinskas.vsp.authservice.repository.SessionRevocationRepository;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.lang.reflect.Field;
+import java.time.Instant;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class SessionEpochServiceImplTest {
+
+    @Mock
+    private SessionEpochRepository sessionEpochRepository;
+
+    @Mock
+    private SessionRevocationRepository sessionRevocationRepository;
+
+    private SessionEpochServiceImpl sessionEpochService;
+
+    private final UUID userId = UUID.randomUUID();
+    private final UUID globalId = SessionEpochServiceImpl.GLOBAL_SUBJECT_ID;
+
+    @BeforeEach
+    void setUp() {
+        sessionEpochService = new SessionEpochServiceImpl(sessionEpochRepository, sessionRevocationRepository, 30, 1000);
+    }
+
+    private void setRefreshTokenMode(RefreshTokenMode mode) throws NoSuchFieldException, IllegalAccessException {
+        Field field = SessionEpochServiceImpl.class.getDeclaredField("refreshTokenMode");
+        field.setAccessible(true);
+        field.set(sessionEpochService, mode);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testGetSessionsValidAfter_NoEpochs() {
+        // Arrange
+        when(sessionEpochRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+
+        // Act
+        Instant validAfter = sessionEpochService.getSessionsValidAfter(userId);
+
+        // Assert
+        assertEquals(Instant.EPOCH, validAfter);
+    }
+
+    @Test
+    void testGetSessionsValidAfter_LaterEpochWins() {
+        // Arrange
+        Instant globalEpoch = Instant.parse("2024-06-01T00:00:00Z");
+        Instant userEpoch = Instant.parse("2024-07-01T00:00:00Z");
+        when(sessionEpochRepository.findById(globalId)).thenReturn(Optional.of(new SessionEpoch(globalId, globalEpoch)));
+        when(sessionEpochRepository.findById(userId)).thenReturn(Optional.of(new SessionEpoch(userId, userEpoch)));
+
+        // Act
+        Instant validAfter = sessionEpochService.getSessionsValidAfter(userId);
+
+        // Assert
+        assertEquals(userEpoch, validAfter);
+    }
+
+    @Test
+    void testGetSessionsValidAfter_ServedFromCache() {
+        // Arrange
+        when(sessionEpochRepository.findById(any(UUID.class))).thenReturn(Optional.empty());
+
+        // Act
+        sessionEpochService.getSessionsValidAfter(userId);
+        sessionEpochService.getSessionsValidAfter(userId);
+
+        // Assert
+        verify(sessionEpochRepository, times(1)).findById(globalId);
+        verify(sessionEpochRepository, times(1)).findById(userId);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testRevokeUserSessions_Success() {
+        // Arrange
+        ArgumentCaptor<SessionEpoch> captor = ArgumentCaptor.forClass(SessionEpoch.class);
+        when(sessionEpochRepository.findById(globalId)).thenReturn(Optional.empty());
+
+        // Act
+        sessionEpochService.revokeUserSessions(userId);
+        Instant validAfter = sessionEpochService.getSessionsValidAfter(userId);
+
+        // Assert
+        verify(sessionEpochRepository, times(1)).save(captor.capture());
+        assertEquals(userId, captor.getValue().getSubjectId());
+        assertEquals(captor.getValue().getValidAfter(), validAfter);
+        assertFalse(validAfter.isAfter(Instant.now()));
+
+        verify(sessionEpochRepository, never()).findById(userId);
+    }
+
+    @Test
+    void testRevokeSessionsNow_StatelessWritesAndCachesEpochs() throws Exception {
+        // Arrange
+        setRefreshTokenMode(RefreshTokenMode.STATELESS);
+        ArgumentCaptor<Instant> captor = ArgumentCaptor.forClass(Instant.class);
+        when(sessionEpochRepository.findById(globalId)).thenReturn(Optional.empty());
+
+        // Act
+        sessionEpochService.revokeSessionsNow(List.of(userId));
+
+        // Assert
+        verify(sessionRevocationRepository, times(1)).revokeSessions(eq(List.of(userId)), captor.capture());
+        assertEquals(captor.getValue(), sessionEpochService.getSessionsValidAfter(userId));
+        assertEquals(0, captor.getValue().getNano() % 1_000_000);
+        verify(sessionEpochRepository, never()).findById(userId);
+    }
+
+    @Test
+    void testRevokeSessionsNow_StatefulWritesNothing() {
+        // Act
+        sessionEpochService.revokeSessionsNow(List.of(userId));
+
+        // Assert
+        verifyNoInteractions(sessionRevocationRepository, sessionEpochRepository);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testDeleteExpiredEpochs_KeepsEpochsWithinRefreshTokenLifetime() {
+        // Arrange
+        Instant cutoff = Instant.now();
+        UUID afterId = new UUID(0, 0);
+        PurgedChunk chunk = mock(PurgedChunk.class);
+        Instant setBefore = cutoff.minusMillis(AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS);
+        when(sessionEpochRepository.deleteExpiredChunk(setBefore, afterId, 100)).thenReturn(chunk);
+
+        // Act
+        PurgedChunk purged = sessionEpochService.deleteExpiredEpochs(cutoff, afterId, 100);
+
+        // Assert
+        assertSame(chunk, purged);
+    }
+
+}
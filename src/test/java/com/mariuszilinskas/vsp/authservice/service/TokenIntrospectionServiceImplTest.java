@@ -0,0 +1,154 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.TokenIntrospectionResponse;
+import com.mariuszilinskas.vsp.authservice.dto.VerifiedToken;
+import com.mariuszilinskas.vsp.authservice.enums.UserAuthority;
+import com.mariuszilinskas.vsp.authservice.enums.UserRole;
+import com.mariuszilinskas.vsp.authservice.exception.JwtTokenValidationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+public class TokenIntrospectionServiceImplTest {
+
+    @Mock
+    private JwtService jwtService;
+
+    private final AccessTokenDenylist accessTokenDenylist = new AccessTokenDenylist(1000);
+    private TokenIntrospectionServiceImpl tokenIntrospectionService;
+
+    private final String accessToken = "access.token.signature";
+    private final UUID userId = UUID.randomUUID();
+    private final VerifiedToken verifiedToken = new VerifiedToken(
+            userId, null, UUID.randomUUID(), List.of(UserRole.USER), List.of(UserAuthority.MANAGE_SETTINGS),
+            Instant.now(), Instant.now().plusSeconds(600)
+    );
+
+    @BeforeEach
+    void setUp() {
+        tokenIntrospectionService = new TokenIntrospectionServiceImpl(jwtService, accessTokenDenylist, 1000);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testIntrospectToken_ActiveToken() {
+        // Arrange
+        when(jwtService.validateAccessToken(accessToken)).thenReturn(verifiedToken);
+
+        // Act
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertTrue(response.active());
+        assertEquals(userId, response.userId());
+        assertEquals(List.of(UserRole.USER), response.roles());
+        assertEquals(List.of(UserAuthority.MANAGE_SETTINGS), response.authorities());
+        assertEquals(verifiedToken.expiresAt(), response.expiresAt());
+    }
+
+    @Test
+    void testIntrospectToken_CachesVerifiedToken() {
+        // Arrange
+        when(jwtService.validateAccessToken(accessToken)).thenReturn(verifiedToken);
+
+        // Act
+        tokenIntrospectionService.introspectToken(accessToken);
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertTrue(response.active());
+        verify(jwtService, times(1)).validateAccessToken(accessToken);
+    }
+
+    @Test
+    void testIntrospectToken_CachedTokenRevoked() {
+        // Arrange
+        when(jwtService.validateAccessToken(accessToken)).thenReturn(verifiedToken);
+        tokenIntrospectionService.introspectToken(accessToken);
+
+        // Act
+        accessTokenDenylist.revoke(verifiedToken.jwtId());
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertFalse(response.active());
+    }
+
+    @Test
+    void testIntrospectToken_InvalidToken() {
+        // Arrange
+        when(jwtService.validateAccessToken(accessToken)).thenThrow(new JwtTokenValidationException());
+
+        // Act
+        tokenIntrospectionService.introspectToken(accessToken);
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertFalse(response.active());
+        assertNull(response.userId());
+        verify(jwtService, times(2)).validateAccessToken(accessToken);
+    }
+
+    @Test
+    void testIntrospectToken_RefreshTokenIsInactive() {
+        // Arrange
+        VerifiedToken refreshToken = new VerifiedToken(userId, UUID.randomUUID(), null, List.of(), List.of(),
+                Instant.now(), Instant.now().plusSeconds(600));
+        when(jwtService.validateAccessToken(accessToken)).thenReturn(refreshToken);
+
+        // Act
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertFalse(response.active());
+    }
+
+    @Test
+    void testIntrospectToken_ExpiredCacheEntryIsVerifiedAgain() {
+        // Arrange
+        VerifiedToken expiredToken = new VerifiedToken(userId, null, UUID.randomUUID(), List.of(), List.of(),
+                Instant.now().minusSeconds(600), Instant.now().minusSeconds(1));
+        when(jwtService.validateAccessToken(accessToken))
+                .thenReturn(expiredToken)
+                .thenThrow(new JwtTokenValidationException());
+
+        // Act
+        tokenIntrospectionService.introspectToken(accessToken);
+        TokenIntrospectionResponse response = tokenIntrospectionService.introspectToken(accessToken);
+
+        // Assert
+        assertFalse(response.active());
+        verify(jwtService, times(2)).validateAccessToken(accessToken);
+    }
+
+    @Test
+    void testIntrospectTokens_ReturnsResultsInRequestOrder() {
+        // Arrange
+        String invalidToken = "invalid";
+        when(jwtService.validateAccessToken(accessToken)).thenReturn(verifiedToken);
+        when(jwtService.validateAccessToken(invalidToken)).thenThrow(new JwtTokenValidationException());
+
+        // Act
+        List<TokenIntrospectionResponse> responses =
+                tokenIntrospectionService.introspectTokens(List.of(accessToken, invalidToken, accessToken));
+
+        // Assert
+        assertEquals(3, responses.size());
+        assertTrue(responses.get(0).active());
+        assertFalse(responses.get(1).active());
+        assertTrue(responses.get(2).active());
+        verify(jwtService, times(1)).validateAccessToken(accessToken);
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.TokenLifetime;
+import com.mariuszilinskas.vsp.authservice.util.AuthUtils;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenLifetimePolicyTest {
+
+    private final long now = 1717543870123L;
+
+    // ------------------------------------
+
+    @Test
+    void testAccessTokenLifetime_JitterOnlyShortensLifetime() {
+        // Arrange
+        TokenLifetimePolicy policy = new TokenLifetimePolicy(0.1, 0.05, 0.8);
+        Set<Long> lifetimes = new HashSet<>();
+
+        for (int i = 0; i < 1_000; i++) {
+            // Act
+            TokenLifetime lifetime = policy.accessTokenLifetime(now);
+            long lifetimeMillis = lifetime.expiresAtMillis() - now;
+            lifetimes.add(lifetimeMillis);
+
+            // Assert
+            assertEquals(now, lifetime.issuedAtMillis());
+            assertTrue(lifetimeMillis <= AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS);
+            assertTrue(lifetimeMillis >= AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS * 0.9);
+            assertEquals((long) (lifetimeMillis * 0.8), lifetime.refreshAfterMillis() - now);
+        }
+        assertTrue(lifetimes.size() > 1);
+    }
+
+    @Test
+    void testRefreshTokenLifetime_JitterOnlyShortensLifetime() {
+        // Arrange
+        TokenLifetimePolicy policy = new TokenLifetimePolicy(0.1, 0.05, 0.8);
+
+        // Act
+        TokenLifetime lifetime = policy.refreshTokenLifetime(now);
+
+        // Assert
+        long lifetimeMillis = lifetime.expiresAtMillis() - now;
+        assertTrue(lifetimeMillis <= AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS);
+        assertTrue(lifetimeMillis >= AuthUtils.REFRESH_TOKEN_EXPIRATION_MILLIS * 0.95);
+    }
+
+    @Test
+    void testAccessTokenLifetime_NoJitter() {
+        // Arrange
+        TokenLifetimePolicy policy = new TokenLifetimePolicy(0, 0, 1);
+
+        // Act
+        TokenLifetime lifetime = policy.accessTokenLifetime(now);
+
+        // Assert
+        assertEquals(now + AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS, lifetime.expiresAtMillis());
+        assertEquals(lifetime.expiresAtMillis(), lifetime.refreshAfterMillis());
+        assertEquals(AuthUtils.ACCESS_TOKEN_EXPIRATION_MILLIS / 1000, lifetime.maxAgeSeconds());
+    }
+
+    @Test
+    void testConstructor_InvalidConfiguration() {
+        // Act & Assert
+        assertThrows(IllegalArgumentException.class, () -> new TokenLifetimePolicy(1, 0, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new TokenLifetimePolicy(0.1, -0.1, 0.8));
+        assertThrows(IllegalArgumentException.class, () -> new TokenLifetimePolicy(0.1, 0.05, 0));
+    }
+
+}
@@ -0,0 +1,75 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import com.mariuszilinskas.vsp.authservice.dto.AuthTokens;
+import com.mariuszilinskas.vsp.authservice.exception.JwtTokenValidationException;
+import com.mariuszilinskas.vsp.authservice.exception.SessionExpiredException;
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRefreshCoalescerTest {
+
+    private final TokenRefreshCoalescer tokenRefreshCoalescer = new TokenRefreshCoalescer(10, 1000, 100);
+    private final UUID tokenId = UUID.randomUUID();
+    private final AuthTokens authTokens = new AuthTokens("access_cookie", "refresh_cookie", 0);
+
+    // ------------------------------------
+
+    @Test
+    void testRotate_CompletedRotationIsJoined() {
+        // Arrange
+        AtomicInteger joinChecks = new AtomicInteger();
+        tokenRefreshCoalescer.rotate(tokenId, () -> authTokens, joinChecks::incrementAndGet);
+
+        // Act
+        AuthTokens joined = tokenRefreshCoalescer.rotate(tokenId, () -> fail("Rotated twice"), joinChecks::incrementAndGet);
+
+        // Assert
+        assertSame(authTokens, joined);
+        assertEquals(1, joinChecks.get());
+    }
+
+    @Test
+    void testRotate_FailedJoinCheck() {
+        // Arrange
+        tokenRefreshCoalescer.rotate(tokenId, () -> authTokens, () -> {});
+
+        // Act & Assert
+        assertThrows(JwtTokenValidationException.class, () -> tokenRefreshCoalescer.rotate(tokenId,
+                () -> fail("Rotated twice"), () -> { throw new JwtTokenValidationException(); }));
+    }
+
+    @Test
+    void testRotate_StuckRotationTimesOut() throws Exception {
+        // Arrange
+        CountDownLatch rotationStarted = new CountDownLatch(1);
+        CountDownLatch releaseRotation = new CountDownLatch(1);
+        CompletableFuture<AuthTokens> first = CompletableFuture.supplyAsync(() ->
+                tokenRefreshCoalescer.rotate(tokenId, () -> {
+                    rotationStarted.countDown();
+                    try {
+                        releaseRotation.await(5, TimeUnit.SECONDS);
+                    } catch (InterruptedException ex) {
+                        Thread.currentThread().interrupt();
+                    }
+                    return authTokens;
+                }, () -> {}));
+        assertTrue(rotationStarted.await(5, TimeUnit.SECONDS));
+
+        try {
+            // Act & Assert
+            assertThrows(SessionExpiredException.class,
+                    () -> tokenRefreshCoalescer.rotate(tokenId, () -> fail("Rotated twice"), () -> {}));
+        } finally {
+            releaseRotation.countDown();
+        }
+        assertSame(authTokens, first.get(5, TimeUnit.SECONDS));
+    }
+
+}
@@ -0,0 +1,48 @@
+package com.mariuszilinskas.vsp.authservice.service;
+
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class TokenRefreshMetricsTest {
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicLong now = new AtomicLong(1_000_000);
+    private final TokenRefreshMetrics tokenRefreshMetrics = new TokenRefreshMetrics(meterRegistry, now::get);
+
+    // ------------------------------------
+
+    @Test
+    void testRecordRefresh_CountsRefreshes() {
+        // Act
+        tokenRefreshMetrics.recordRefresh();
+        tokenRefreshMetrics.recordRefresh();
+
+        // Assert
+        assertEquals(2, meterRegistry.get("auth.token.refreshes").counter().count());
+    }
+
+    @Test
+    void testRecordRefresh_RecordsRequestsPerSecond() {
+        // Arrange
+        for (int i = 0; i < 5; i++)
+            tokenRefreshMetrics.recordRefresh();
+        now.addAndGet(1_000);
+        tokenRefreshMetrics.recordRefresh();
+
+        // Act
+        now.addAndGet(3_000);
+        tokenRefreshMetrics.recordRefresh();
+
+        // Assert
+        DistributionSummary perSecond = meterRegistry.get("auth.token.refreshes.per.second").summary();
+        assertEquals(4, perSecond.count()); // 5, 1 and two idle seconds
+        assertEquals(6, perSecond.totalAmount());
+        assertEquals(5, perSecond.max());
+    }
+
+}
@@ -0,0 +1,18 @@
+package com.mariuszilinskas.vsp.authservice.util;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class AuthUtilsTest {
+
+    @Test
+    void testNormalizeEmail() {
+        // Act & Assert
+        assertEquals("victim@x.com", AuthUtils.normalizeEmail("Victim@X.com"));
+        assertEquals("victim@x.com", AuthUtils.normalizeEmail(" victim@x.com\t"));
+        assertEquals("i@x.com", AuthUtils.normalizeEmail("I@x.com"));
+        assertNull(AuthUtils.normalizeEmail(null));
+    }
+
+}
@@ -0,0 +1,62 @@
+package com.mariuszilinskas.vsp.authservice.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.security.crypto.argon2.Argon2PasswordEncoder;
+
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+public class PasswordHashCalibratorTest {
+
+    @Test
+    void testCalibrate_PicksHighestCostWithinTarget() {
+        // Arrange
+        List<Integer> measured = new ArrayList<>();
+
+        // Act
+        int cost = PasswordHashCalibrator.calibrate(10, 16, 250, candidate -> {
+            measured.add(candidate);
+            return 1L << (candidate - 4); // 64 at cost 10, doubling with every step
+        });
+
+        // Assert
+        assertEquals(11, cost);
+        assertEquals(List.of(11, 12), measured);
+    }
+
+    @Test
+    void testCalibrate_NeverBelowMinimum() {
+        // Act
+        int cost = PasswordHashCalibrator.calibrate(10, 16, 1, candidate -> 1000);
+
+        // Assert
+        assertEquals(10, cost);
+    }
+
+    @Test
+    void testCalibrate_NeverAboveMaximum() {
+        // Act
+        int cost = PasswordHashCalibrator.calibrate(10, 12, 1000, candidate -> 1);
+
+        // Assert
+        assertEquals(12, cost);
+    }
+
+    // ------------------------------------
+
+    @Test
+    void testNewArgon2Encoder_UpgradesWeakerHashes() {
+        // Arrange
+        Argon2PasswordEncoder weak = PasswordHashCalibrator.newArgon2Encoder(1024, 2);
+        Argon2PasswordEncoder strong = PasswordHashCalibrator.newArgon2Encoder(1024, 3);
+        String hash = weak.encode("Password1!");
+
+        // Act & Assert
+        assertTrue(strong.matches("Password1!", hash));
+        assertTrue(strong.upgradeEncoding(hash));
+        assertFalse(weak.upgradeEncoding(hash));
+    }
+
+}